@@ -0,0 +1,213 @@
+package TeamMateSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery and compaction tests for {@link SegmentLogParticipantStore}. Crashes are
+ * simulated by closing the store and putting its files in the state a crash would
+ * leave them in.
+ */
+class SegmentLogParticipantStoreTest {
+
+    /** Smallest segment size the store accepts, so a few thousand participants fill several segments. */
+    private static final long SEGMENT_BYTES = 70_000;
+
+    /** Padding that makes each record about 250 bytes. */
+    private static final String PADDING = "x".repeat(200);
+
+    @TempDir
+    Path directory;
+
+    private final EventVocabulary vocabulary = new EventVocabulary();
+
+    @Test
+    void recoveryCutsOffATornTail() throws IOException {
+        try (SegmentLogParticipantStore store = open()) {
+            store.save(participant(1));
+            store.save(participant(2));
+        }
+        // A crash half way through the last record leaves only part of it on disk
+        Path active = segments().lastEntry().getValue();
+        try (FileChannel channel = FileChannel.open(active, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        try (SegmentLogParticipantStore store = open()) {
+            assertTrue(store.getTruncatedBytes() > 0);
+            assertEquals(1, store.size());
+            assertNotNull(store.find("P1"));
+            assertNull(store.find("P2"));
+            store.save(participant(3));
+        }
+        try (SegmentLogParticipantStore store = open()) {
+            assertEquals(0, store.getTruncatedBytes());
+            assertEquals(List.of("P1", "P3"), ids(store));
+        }
+    }
+
+    @Test
+    void compactionInterruptedBeforeItsCommitPointIsDiscarded() throws IOException {
+        Crash crash = compactAndCrash();
+        // Crash after the compacted file was written, before the last replaced segment was deleted
+        for (Map.Entry<String, byte[]> file: crash.before.entrySet()){
+            Files.write(directory.resolve(file.getKey()), file.getValue());
+        }
+        Files.write(directory.resolve(crash.compactedName.replace(".log", ".compact")), crash.compacted);
+
+        try (SegmentLogParticipantStore store = open()) {
+            assertEquals(crash.expected, ids(store));
+        }
+        assertTrue(compactions().isEmpty());
+    }
+
+    @Test
+    void compactionInterruptedAfterItsCommitPointIsFinished() throws IOException {
+        Crash crash = compactAndCrash();
+        // Crash after the last replaced segment was deleted, before the compacted file took its name
+        for (Map.Entry<String, byte[]> file: crash.before.entrySet()){
+            if (!file.getKey().equals(crash.compactedName)){
+                Files.write(directory.resolve(file.getKey()), file.getValue());
+            }
+        }
+        Files.write(directory.resolve(crash.compactedName.replace(".log", ".compact")), crash.compacted);
+
+        try (SegmentLogParticipantStore store = open()) {
+            assertEquals(crash.expected, ids(store));
+        }
+        assertTrue(compactions().isEmpty());
+        assertTrue(segments().size() < crash.before.size());
+    }
+
+    @Test
+    void deletedParticipantsStayDeletedAfterCompaction() throws IOException {
+        List<String> expected = new ArrayList<>();
+        try (SegmentLogParticipantStore store = open()) {
+            for (int i = 1; i <= 1000; i++) {
+                store.save(participant(i));
+            }
+            for (int i = 1; i <= 1000; i++) {
+                if (i % 3 == 0){
+                    assertTrue(store.delete("P" + i));
+                }
+                else {
+                    expected.add("P" + i);
+                }
+            }
+            store.compact();
+            assertEquals(expected.size(), store.size());
+            assertNull(store.find("P3"));
+        }
+
+        try (SegmentLogParticipantStore store = open()) {
+            assertEquals(expected, ids(store));
+            assertNull(store.find("P999"));
+            assertFalse(store.delete("P999"));
+        }
+    }
+
+    /**
+     * Fills several segments, compacts the oldest ones and closes the store, returning the
+     * files as they were before and after compaction. Leaves the directory empty.
+     *
+     * @return The store's files around the compaction.
+     * @throws IOException If the store cannot be written.
+     */
+    private Crash compactAndCrash() throws IOException {
+        Crash crash = new Crash();
+        try (SegmentLogParticipantStore store = open()) {
+            for (int i = 1; i <= 1000; i++) {
+                store.save(participant(i));
+            }
+            // Overwrite half of them so compaction has dead records to drop
+            for (int i = 1; i <= 1000; i += 2) {
+                store.save(participant(i));
+            }
+            store.flush();
+            crash.expected = ids(store);
+            for (Path segment: segments().values()){
+                crash.before.put(segment.getFileName().toString(), Files.readAllBytes(segment));
+            }
+            assertTrue(crash.before.size() > 2);
+
+            store.compact();
+        }
+        // The oldest compacted segment takes the number of the last segment it replaced
+        Path compacted = segments().firstEntry().getValue();
+        crash.compactedName = compacted.getFileName().toString();
+        crash.compacted = Files.readAllBytes(compacted);
+        assertTrue(crash.before.containsKey(crash.compactedName));
+
+        for (Path segment: segments().values()){
+            Files.delete(segment);
+        }
+        return crash;
+    }
+
+    /** Files of a store around a compaction. */
+    private static final class Crash {
+
+        /** Segment files before compaction, by name. */
+        final Map<String, byte[]> before = new TreeMap<>();
+
+        /** Name of the first compacted segment. */
+        String compactedName;
+
+        /** Contents of the first compacted segment. */
+        byte[] compacted;
+
+        /** IDs stored, in ID order. */
+        List<String> expected;
+    }
+
+    private SegmentLogParticipantStore open() throws IOException {
+        return new SegmentLogParticipantStore(directory, vocabulary, SEGMENT_BYTES, 0);
+    }
+
+    private Participant participant(int number) {
+        return new Participant("P" + number, "Participant_" + number + PADDING, "user" + number + "@university.edu",
+                "Chess", 5, "Attacker", 80, "Balanced", vocabulary);
+    }
+
+    private static List<String> ids(SegmentLogParticipantStore store) throws IOException {
+        List<String> ids = new ArrayList<>();
+        store.forEach(participant -> ids.add(participant.getId()));
+        ids.sort((a, b) -> Integer.compare(Integer.parseInt(a.substring(1)), Integer.parseInt(b.substring(1))));
+        return ids;
+    }
+
+    private TreeMap<String, Path> segments() throws IOException {
+        return files("segment-*.log");
+    }
+
+    private TreeMap<String, Path> compactions() throws IOException {
+        return files("segment-*.compact");
+    }
+
+    private TreeMap<String, Path> files(String glob) throws IOException {
+        TreeMap<String, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file: stream){
+                files.put(file.getFileName().toString(), file);
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,47 @@
+package TeamMateSystem.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Takes the usual JMH command line and always adds
+ * the GC profiler, so every result reports allocation rate next to the score.
+ *
+ * <pre>
+ *     java -jar benchmarks/target/benchmarks.jar TeamFormation -p participants=1000000 -p threads=8
+ *     java -jar benchmarks/target/benchmarks.jar SurveyBenchmark -t 16
+ * </pre>
+ *
+ * Results are also written to {@code jmh-result.json} for comparison between runs.
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks selected on the command line.
+     *
+     * @param args JMH command-line options.
+     * @throws CommandLineOptionException If the options cannot be parsed.
+     * @throws RunnerException            If a benchmark fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
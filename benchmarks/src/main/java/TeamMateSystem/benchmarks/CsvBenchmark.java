@@ -0,0 +1,142 @@
+package TeamMateSystem.benchmarks;
+
+import TeamMateSystem.CsvFileHandler;
+import TeamMateSystem.Participant;
+import TeamMateSystem.SkillBasedTeamBuilder;
+import TeamMateSystem.Team;
+import TeamMateSystem.TeamExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks the CSV file handler: reading participants.csv as rows and as participants,
+ * and saving formed teams.
+ *
+ * <p>Files are written to a temporary directory. {@code saveFile} runs for every export
+ * format, with and without GZIP compression.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CsvBenchmark {
+
+    /** Number of participants in the file. */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    /** Size of each team saved by {@code saveFile}. */
+    @Param({"5"})
+    public int teamSize;
+
+    /** Directory holding the benchmark files. */
+    private Path directory;
+
+    /** The generated participants.csv. */
+    private Path source;
+
+    /** The handler under test. */
+    private CsvFileHandler handler;
+
+    /** Teams saved by {@code saveFile}. */
+    private List<Team> teams;
+
+    /**
+     * Generates the CSV file and the teams.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("teammate-bench");
+        source = directory.resolve("participants.csv");
+        List<Participant> list = Datasets.participants(participants);
+        Datasets.writeCsv(source, list);
+        teams = new SkillBasedTeamBuilder().buildTeam(list, teamSize);
+        handler = new CsvFileHandler();
+    }
+
+    /**
+     * Removes the benchmark files.
+     *
+     * @throws IOException If the files cannot be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path: (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator){
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * @return The rows of the whole file.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public List<String[]> readFile() throws IOException {
+        return handler.readFile(source.toString());
+    }
+
+    /**
+     * Streams the whole file as participants.
+     *
+     * @param blackhole Consumes the participants.
+     * @return The number of participants read.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public int readParticipants(Blackhole blackhole) throws IOException {
+        return handler.readParticipants(source.toString(), blackhole::consume);
+    }
+
+    /**
+     * Export settings of {@code saveFile}, kept in their own state so they do not multiply
+     * the other benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class Export {
+
+        /** Layout of the file written. */
+        @Param({"CSV", "JSON_LINES"})
+        public TeamExporter.Format format;
+
+        /** Whether the file is compressed. */
+        @Param({"false", "true"})
+        public boolean gzip;
+    }
+
+    /**
+     * Saves all formed teams.
+     *
+     * @param export The export settings.
+     * @throws IOException If the file cannot be written.
+     */
+    @Benchmark
+    public void saveFile(Export export) throws IOException {
+        handler.saveFile(teams, directory.resolve("formed_teams"), export.format, export.gzip);
+    }
+}
@@ -0,0 +1,98 @@
+package TeamMateSystem.benchmarks;
+
+import TeamMateSystem.EventVocabulary;
+import TeamMateSystem.Participant;
+import TeamMateSystem.PersonalityClassifier;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The {@code Datasets} class generates the participants used by the benchmarks.
+ *
+ * <p>Every dataset comes from a fixed seed, so the same parameters always produce exactly
+ * the same participants, answers and files, and results can be compared between runs.</p>
+ */
+public final class Datasets {
+
+    /** Seed every dataset is generated from. */
+    public static final long SEED = 42;
+
+    /** Games participants choose from, as in the controller. */
+    public static final String[] GAMES = {"chess", "fifa", "basketball", "cs:go", "dota 2", "valorant"};
+
+    /** Roles participants choose from, as in the controller. */
+    public static final String[] ROLES = {"strategist", "attacker", "defender", "supporter", "coordinator"};
+
+    /** Header line of participants.csv. */
+    private static final String HEADER = "ID,Name,Email,PreferredGame,SkillLevel,PreferredRole,PersonalityScore,PersonalityType";
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private Datasets() {
+    }
+
+    /**
+     * Generates participants who already finished the survey.
+     *
+     * @param count Number of participants.
+     * @return The participants, with IDs {@code P1} to {@code P<count>}, all of one event.
+     */
+    public static List<Participant> participants(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        EventVocabulary vocabulary = new EventVocabulary();
+        List<Participant> participants = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            // Scores start at 50 so every participant has a personality type
+            int score = 4 * random.nextInt(13, 26);
+            participants.add(new Participant("P" + i, "Participant_" + i, "user" + i + "@university.edu",
+                    GAMES[random.nextInt(GAMES.length)], random.nextInt(1, 11), ROLES[random.nextInt(ROLES.length)],
+                    score, PersonalityClassifier.classify(score), vocabulary));
+        }
+        return participants;
+    }
+
+    /**
+     * Generates complete, valid survey submissions (eight answers each).
+     *
+     * @param count Number of submissions.
+     * @return The submissions.
+     */
+    public static String[][] surveyAnswers(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[][] submissions = new String[count][];
+        for (int i = 0; i < count; i++) {
+            submissions[i] = new String[]{
+                    Integer.toString(random.nextInt(1, 6)), Integer.toString(random.nextInt(1, 6)),
+                    Integer.toString(random.nextInt(1, 6)), Integer.toString(random.nextInt(1, 6)),
+                    Integer.toString(random.nextInt(1, 6)), GAMES[random.nextInt(GAMES.length)],
+                    Integer.toString(random.nextInt(1, 11)), ROLES[random.nextInt(ROLES.length)]};
+        }
+        return submissions;
+    }
+
+    /**
+     * Writes participants to a CSV file in the participants.csv format.
+     *
+     * @param path         The file to write.
+     * @param participants The participants.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeCsv(Path path, List<Participant> participants) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Participant participant: participants){
+                writer.write(participant.toString());
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package TeamMateSystem.benchmarks;
+
+import TeamMateSystem.Message;
+import TeamMateSystem.Participant;
+import TeamMateSystem.TeamMateController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks survey submission through the controller, one answer at a time with
+ * {@code fillSurvey} and all answers at once with {@code submitSurvey}.
+ *
+ * <p>The number of submitting threads is set with JMH's {@code -t} option. Each thread
+ * cycles through the registered participants from its own starting point.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SurveyBenchmark {
+
+    /** Number of registered participants answering the survey. */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    /** Temporary directory holding the controller's store and journal. */
+    private Path directory;
+
+    /** The controller under test. */
+    private TeamMateController controller;
+
+    /** ID of each registered participant. */
+    private String[] ids;
+
+    /** One valid submission per participant. */
+    private String[][] answers;
+
+    /**
+     * Registers the participants and generates their answers.
+     *
+     * @throws IOException If the temporary directory cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("teammate-bench");
+        controller = new TeamMateController(directory);
+        ids = new String[participants];
+        for (int i = 0; i < participants; i++) {
+            Participant participant = new Participant("Participant_" + i, "user" + i + "@university.edu", controller.getVocabulary());
+            controller.addParticipant(participant);
+            ids[i] = participant.getId();
+        }
+        answers = Datasets.surveyAnswers(participants);
+    }
+
+    /**
+     * Shuts the controller down and deletes the temporary directory.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        controller.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path: (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator){
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Position of one benchmark thread in the participant list.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        /** Next participant, as a running count. */
+        long next;
+
+        /**
+         * Spreads the threads over the participant list.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            next = Thread.currentThread().threadId() * 7919;
+        }
+    }
+
+    /**
+     * Answers one question of one participant's survey.
+     *
+     * @param cursor The thread's position.
+     * @return The controller's reply.
+     */
+    @Benchmark
+    public Message fillSurvey(Cursor cursor) {
+        long n = cursor.next++;
+        int participant = (int) ((n >>> 3) % participants);
+        int question = (int) (n & 7);
+        return controller.fillSurvey(ids[participant], question + 1, answers[participant][question]);
+    }
+
+    /**
+     * Submits all answers of one participant's survey at once.
+     *
+     * @param cursor The thread's position.
+     * @return The controller's result code.
+     */
+    @Benchmark
+    public int submitSurvey(Cursor cursor) {
+        int participant = (int) (cursor.next++ % participants);
+        return controller.submitSurvey(ids[participant], answers[participant]);
+    }
+}
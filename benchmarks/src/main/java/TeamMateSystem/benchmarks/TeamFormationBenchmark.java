@@ -0,0 +1,137 @@
+package TeamMateSystem.benchmarks;
+
+import TeamMateSystem.Participant;
+import TeamMateSystem.ParticipantTable;
+import TeamMateSystem.SkillBasedTeamBuilder;
+import TeamMateSystem.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks team formation: the whole {@code buildTeam} pipeline from a participant list
+ * and from a {@link ParticipantTable}, and the matching step on its own.
+ *
+ * <p>{@code threads} is the parallelism of the pool the builder runs its tasks on.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class TeamFormationBenchmark {
+
+    /** Number of participants to form teams from. */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    /** Size of each team. */
+    @Param({"5", "10"})
+    public int teamSize;
+
+    /** Parallelism of the builder's pool. */
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    /** The participants, in generation order. */
+    private List<Participant> list;
+
+    /** The participants as a columnar table. */
+    private ParticipantTable table;
+
+    /** The participants sorted by skill, as the matching step expects them. */
+    private List<Participant> sorted;
+
+    /** Pool the builders run on. */
+    private ForkJoinPool pool;
+
+    /** Builder used for the whole pipeline. */
+    private SkillBasedTeamBuilder builder;
+
+    /** Builder used to call the matching step alone. */
+    private MatchingOnly matcher;
+
+    /**
+     * Generates the dataset and the builders.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = Datasets.participants(participants);
+        table = ParticipantTable.of(list);
+        sorted = new ArrayList<>(list);
+        sorted.sort(Comparator.comparingInt(Participant::getSkillLevel));
+        pool = new ForkJoinPool(threads);
+        builder = new SkillBasedTeamBuilder(pool);
+        matcher = new MatchingOnly(pool);
+    }
+
+    /**
+     * Stops the pool.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /** @return Teams formed from the participant list. */
+    @Benchmark
+    public List<Team> buildTeamFromList() {
+        return builder.buildTeam(list, teamSize);
+    }
+
+    /** @return Teams formed from the participant table. */
+    @Benchmark
+    public List<Team> buildTeamFromTable() {
+        return builder.buildTeam(table, teamSize);
+    }
+
+    /** @return Teams formed by the matching step alone, from already sorted participants. */
+    @Benchmark
+    public List<Team> applyMatchingStrategies() {
+        return matcher.match(sorted, teamSize);
+    }
+
+    /**
+     * Gives the benchmark access to the builder's protected matching step.
+     */
+    static final class MatchingOnly extends SkillBasedTeamBuilder {
+
+        /**
+         * Creates a builder running on the given executor.
+         *
+         * @param executor The executor.
+         */
+        MatchingOnly(Executor executor) {
+            super(executor);
+        }
+
+        /**
+         * Runs only the matching step.
+         *
+         * @param sorted   Participants sorted by skill.
+         * @param teamSize Size of each team.
+         * @return The teams.
+         */
+        List<Team> match(List<Participant> sorted, int teamSize) {
+            return applyMatchingStrategies(sorted, teamSize);
+        }
+    }
+}
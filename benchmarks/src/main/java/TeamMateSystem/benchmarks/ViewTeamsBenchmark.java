@@ -0,0 +1,92 @@
+package TeamMateSystem.benchmarks;
+
+import TeamMateSystem.Participant;
+import TeamMateSystem.SkillBasedTeamBuilder;
+import TeamMateSystem.Team;
+import TeamMateSystem.TeamIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks looking up a participant's team, by scanning every team and through the
+ * {@link TeamIndex}.
+ *
+ * <p>The number of looking-up threads is set with JMH's {@code -t} option.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ViewTeamsBenchmark {
+
+    /** Number of participants in teams. */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    /** Size of each team. */
+    @Param({"5", "10"})
+    public int teamSize;
+
+    /** The participants. */
+    private List<Participant> list;
+
+    /** The formed teams. */
+    private List<Team> teams;
+
+    /** Index over the formed teams. */
+    private TeamIndex index;
+
+    /**
+     * Generates the participants and forms their teams.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = Datasets.participants(participants);
+        teams = new ArrayList<>(new SkillBasedTeamBuilder().buildTeam(list, teamSize));
+        index = new TeamIndex(teams);
+    }
+
+    /**
+     * Position of one benchmark thread in the participant list.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        /** Next participant, as a running count. */
+        int next;
+    }
+
+    /**
+     * @param cursor The thread's position.
+     * @return The participant's team, found by scanning every team.
+     */
+    @Benchmark
+    public List<Team> viewTeamsScan(Cursor cursor) {
+        return list.get(cursor.next++ % participants).viewTeams(teams);
+    }
+
+    /**
+     * @param cursor The thread's position.
+     * @return The participant's team, found through the index.
+     */
+    @Benchmark
+    public List<Team> viewTeamsIndexed(Cursor cursor) {
+        return list.get(cursor.next++ % participants).viewTeams(index);
+    }
+}
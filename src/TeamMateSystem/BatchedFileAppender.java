@@ -0,0 +1,331 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code BatchedFileAppender} class appends records to a file from many threads
+ * without making them wait on each other.
+ *
+ * <p>Writers only put their record on a lock-free queue. A single background flusher
+ * drains the queue and writes whole batches with one gathering write on a
+ * {@link FileChannel} that stays open for the life of the appender. A batch is written
+ * when the flush interval passes or when enough bytes are waiting, whichever comes first.</p>
+ *
+ * <p>At most {@value #MAX_PENDING_BATCHES} batches' worth of bytes may wait in the queue.
+ * Once that much is pending, {@link #append(byte[])} blocks until the flusher has caught up,
+ * so writers that outpace the disk are slowed down instead of filling the heap.</p>
+ *
+ * <p>{@link #flush()} blocks until everything appended so far is on disk, and
+ * {@link #close()} does the same before stopping the flusher.</p>
+ */
+public class BatchedFileAppender implements AutoCloseable {
+
+    /** Default time (in milliseconds) a record may wait before it is written. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 50;
+
+    /** Default number of waiting bytes that triggers a write straight away. */
+    public static final int DEFAULT_MAX_BATCH_BYTES = 256 * 1024;
+
+    /** Number of full batches that may wait to be written before appending blocks. */
+    public static final int MAX_PENDING_BATCHES = 8;
+
+    /** The file being appended to. */
+    private final FileChannel channel;
+
+    /** Records waiting to be written. */
+    private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+
+    /** Sequence number of the last record appended; a record takes its number before it is queued. */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Number of bytes waiting in the queue, counted before a record is queued. */
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    /**
+     * Number of records written to the channel so far (only updated by the flusher).
+     *
+     * <p>When {@link #flush()} reads {@link #sequence}, every record its thread appended is
+     * queued and numbered. While such a record is still queued, only records queued ahead
+     * of it (first in, first out) can have been written, and each of those was numbered
+     * before it was queued, so before the read. Fewer records than the number read can
+     * therefore have been written, and waiting for this count to reach it is enough.</p>
+     */
+    private volatile long written;
+
+    /** Longest time a record waits before being written, in nanoseconds. */
+    private final long flushIntervalNanos;
+
+    /** Number of waiting bytes that wakes the flusher early. */
+    private final int maxBatchBytes;
+
+    /** Number of waiting bytes at which appending blocks. */
+    private final long maxPendingBytes;
+
+    /** Whether every batch is forced to the storage device before it counts as written. */
+    private final boolean forceEachBatch;
+
+    /** Background thread that writes the batches. */
+    private final Thread flusher;
+
+    /** Monitor used by threads waiting in {@link #flush()} or for room in the queue. */
+    private final Object flushed = new Object();
+
+    /** Set once {@link #close()} has been called. */
+    private volatile boolean closed;
+
+    /** First write error hit by the flusher, reported to later callers. */
+    private volatile IOException failure;
+
+    /**
+     * Opens (or creates) a file for batched appending with the default settings.
+     *
+     * @param path   The file to append to.
+     * @param header Bytes written first if the file is empty, or {@code null} for none.
+     * @throws IOException If the file cannot be opened.
+     */
+    public BatchedFileAppender(Path path, byte[] header) throws IOException {
+        this(path, header, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_BATCH_BYTES, false);
+    }
+
+    /**
+     * Opens (or creates) a file for batched appending.
+     *
+     * @param path                The file to append to.
+     * @param header              Bytes written first if the file is empty, or {@code null} for none.
+     * @param flushIntervalMillis Longest time a record may wait before it is written.
+     * @param maxBatchBytes       Number of waiting bytes that triggers a write straight away.
+     * @param forceEachBatch      Whether each batch is forced to disk before it counts as written.
+     * @throws IOException If the file cannot be opened.
+     */
+    public BatchedFileAppender(Path path, byte[] header, long flushIntervalMillis, int maxBatchBytes,
+                               boolean forceEachBatch) throws IOException {
+        if (flushIntervalMillis <= 0 || maxBatchBytes <= 0){
+            throw new IllegalArgumentException("Flush interval and batch size must be positive");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxPendingBytes = (long) maxBatchBytes * MAX_PENDING_BATCHES;
+        this.forceEachBatch = forceEachBatch;
+
+        if (header != null && channel.size() == 0){
+            writeFully(new ByteBuffer[]{ByteBuffer.wrap(header)});
+        }
+
+        this.flusher = new Thread(this::runFlusher, "appender-" + path.getFileName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a record to be appended. This never blocks on other writers, only on the
+     * flusher when {@value #MAX_PENDING_BATCHES} batches' worth of bytes are already waiting.
+     *
+     * @param record The bytes to append.
+     * @throws IOException If the appender is closed, a previous batch failed to write,
+     *                     or the thread was interrupted while waiting for room in the queue.
+     */
+    public void append(byte[] record) throws IOException {
+        checkUsable();
+        long pending = reserve(record.length);
+        sequence.incrementAndGet();
+        queue.offer(record);
+        // A close that started meanwhile may have let the flusher stop before seeing this record
+        if (closed && queue.remove(record)){
+            pendingBytes.addAndGet(-record.length);
+            throw new IOException("Appender is closed");
+        }
+        if (pending >= maxBatchBytes){
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * Counts a record's bytes as pending, first waiting for the flusher if the queue is full.
+     * A record is always let in when nothing is pending, however large it is.
+     *
+     * @param bytes Size of the record.
+     * @return The number of bytes pending, including the record.
+     * @throws IOException If the appender closed or failed, or the wait was interrupted.
+     */
+    private long reserve(int bytes) throws IOException {
+        while (true) {
+            long pending = pendingBytes.get();
+            if (pending == 0 || pending + bytes <= maxPendingBytes){
+                if (pendingBytes.compareAndSet(pending, pending + bytes)){
+                    return pending + bytes;
+                }
+                continue;
+            }
+            LockSupport.unpark(flusher);
+            synchronized (flushed) {
+                // Checked again under the monitor, so a batch written meanwhile is not missed
+                long now = pendingBytes.get();
+                if (now != 0 && now + bytes > maxPendingBytes && failure == null && !closed){
+                    try {
+                        flushed.wait(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for room in the queue", e);
+                    }
+                }
+            }
+            checkUsable();
+        }
+    }
+
+    /**
+     * Writes every record appended so far, including every record this thread appended,
+     * forces it to disk and waits for it to finish.
+     *
+     * @throws IOException If writing failed or the wait was interrupted.
+     */
+    public void flush() throws IOException {
+        long target = sequence.get();
+        LockSupport.unpark(flusher);
+        synchronized (flushed) {
+            while (written < target && failure == null && flusher.isAlive()) {
+                try {
+                    flushed.wait(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for flush", e);
+                }
+            }
+        }
+        if (failure != null){
+            throw failure;
+        }
+        if (channel.isOpen()){
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Flushes every pending record, stops the flusher and closes the file.
+     *
+     * @throws IOException If the last batch could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed){
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Throws if records can no longer be appended.
+     *
+     * @throws IOException If the appender is closed or has failed.
+     */
+    private void checkUsable() throws IOException {
+        if (failure != null){
+            throw failure;
+        }
+        if (closed){
+            throw new IOException("Appender is closed");
+        }
+    }
+
+    /**
+     * Flusher loop: waits for the interval (or an early wake-up) and writes whatever is queued.
+     */
+    private void runFlusher() {
+        while (!closed || !queue.isEmpty()) {
+            if (pendingBytes.get() < maxBatchBytes){
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            try {
+                drain();
+            } catch (IOException e) {
+                failure = e;
+            }
+            synchronized (flushed) {
+                flushed.notifyAll();
+            }
+            if (failure != null){
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes everything currently queued, one gathering write per batch.
+     *
+     * @throws IOException If the channel write fails.
+     */
+    private void drain() throws IOException {
+        List<ByteBuffer> batch = new ArrayList<>();
+        long batchBytes = 0;
+        byte[] record;
+        while ((record = queue.poll()) != null) {
+            batch.add(ByteBuffer.wrap(record));
+            batchBytes += record.length;
+            if (batchBytes >= maxBatchBytes){
+                writeBatch(batch, batchBytes);
+                batch.clear();
+                batchBytes = 0;
+            }
+        }
+        if (!batch.isEmpty()){
+            writeBatch(batch, batchBytes);
+        }
+    }
+
+    /**
+     * Writes one batch and marks its records as written.
+     *
+     * @param batch      The records in the batch.
+     * @param batchBytes Total size of the batch.
+     * @throws IOException If the channel write fails.
+     */
+    private void writeBatch(List<ByteBuffer> batch, long batchBytes) throws IOException {
+        writeFully(batch.toArray(new ByteBuffer[0]));
+        if (forceEachBatch){
+            channel.force(false);
+        }
+        pendingBytes.addAndGet(-batchBytes);
+        written += batch.size();
+        if (batchBytes >= maxBatchBytes){
+            // Let appenders waiting for room carry on without waiting for the whole queue to drain
+            synchronized (flushed) {
+                flushed.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Keeps writing until every buffer has been fully written.
+     *
+     * @param buffers The buffers to write.
+     * @throws IOException If the channel write fails.
+     */
+    private void writeFully(ByteBuffer[] buffers) throws IOException {
+        ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package TeamMateSystem;
+
+import java.io.PrintStream;
+
+/**
+ * The {@code ConsoleEventSink} class renders events to the console.
+ *
+ * <p>Lines of a batch are collected in a buffer and printed with a single call at the end
+ * of the batch, so the console's lock is taken once per batch rather than once per event.</p>
+ */
+public class ConsoleEventSink implements EventSink {
+
+    /** The stream events are printed to. */
+    private final PrintStream out;
+
+    /** Whether lines are printed with colors, or as structured lines. */
+    private final boolean colored;
+
+    /** Lines of the current batch. */
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Creates a sink that prints colored lines to {@link System#out}.
+     */
+    public ConsoleEventSink() {
+        this(System.out, true);
+    }
+
+    /**
+     * Creates a sink that prints to the given stream.
+     *
+     * @param out     The stream to print to.
+     * @param colored {@code true} for colored console lines, {@code false} for structured lines.
+     */
+    public ConsoleEventSink(PrintStream out, boolean colored) {
+        this.out = out;
+        this.colored = colored;
+    }
+
+    /**
+     * Adds an event's line to the current batch.
+     *
+     * @param event The event.
+     */
+    @Override
+    public void write(Event event) {
+        buffer.append(colored ? event.toConsoleLine() : event.toStructuredLine()).append(System.lineSeparator());
+    }
+
+    /**
+     * Prints the current batch in one call.
+     */
+    @Override
+    public void flush() {
+        if (buffer.length() > 0){
+            out.print(buffer);
+            out.flush();
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package TeamMateSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code CsvFileEvent} class is a Java Flight Recorder event for one read or save
+ * done by {@link CsvFileHandler}, or one read of new rows by {@link CsvTailReader}.
+ */
+@Name("TeamMateSystem.CsvFile")
+@Label("CSV File Operation")
+@Category({"TeamMateSystem", "File I/O"})
+@Description("A participants file read or tailed, or formed teams saved")
+public class CsvFileEvent extends TeamMateEvent {
+
+    /** The operation: {@code read}, {@code tail} or {@code save}. */
+    @Label("Operation")
+    String operation;
+
+    /** The file. */
+    @Label("Path")
+    String path;
+
+    /** Number of rows read or written. */
+    @Label("Rows")
+    long rows;
+
+    /** Number of bytes read or written. */
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Creates the event and starts timing it.
+     *
+     * @return The event.
+     */
+    static CsvFileEvent start() {
+        CsvFileEvent event = new CsvFileEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the event and commits it if it is being recorded.
+     *
+     * @param operation The operation.
+     * @param path      The file.
+     * @param rows      Number of rows read or written.
+     * @param bytes     Number of bytes read or written.
+     */
+    void finish(String operation, String path, long rows, long bytes) {
+        if (stop()){
+            this.operation = operation;
+            this.path = path;
+            this.rows = rows;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
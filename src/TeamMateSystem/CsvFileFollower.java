@@ -0,0 +1,146 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code CsvFileFollower} class watches a participants CSV file and runs an action
+ * soon after rows are appended to it, so the system keeps up with the file in near real time.
+ *
+ * <p>A {@link WatchService} on the file's directory wakes a daemon thread when the file is
+ * created or modified. Changes that arrive close together are handled with one run of the
+ * action. Some platforms only poll for changes, so the action also runs every
+ * {@code pollMillis} even without a notification; with a {@link CsvTailReader} behind the
+ * action an idle check costs a single file-attribute read.</p>
+ */
+public class CsvFileFollower implements AutoCloseable {
+
+    /** Default longest time between runs of the action when no change is reported. */
+    public static final long DEFAULT_POLL_MILLIS = 5_000;
+
+    /** Time to wait after a change for further changes before running the action. */
+    private static final long SETTLE_MILLIS = 20;
+
+    /** Name of the file being watched. */
+    private final Path fileName;
+
+    /** Watches the file's directory. */
+    private final WatchService watcher;
+
+    /** Runs after the file changes; it must not throw. */
+    private final Runnable onChange;
+
+    /** Longest time between runs of the action, in milliseconds. */
+    private final long pollMillis;
+
+    /** The thread waiting for changes. */
+    private final Thread thread;
+
+    /**
+     * Starts watching a file with the default poll interval.
+     *
+     * @param file     The file to watch.
+     * @param onChange Runs after the file changes.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public CsvFileFollower(Path file, Runnable onChange) throws IOException {
+        this(file, onChange, DEFAULT_POLL_MILLIS);
+    }
+
+    /**
+     * Starts watching a file.
+     *
+     * @param file       The file to watch.
+     * @param onChange   Runs after the file changes.
+     * @param pollMillis Longest time between runs of the action when no change is reported.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public CsvFileFollower(Path file, Runnable onChange, long pollMillis) throws IOException {
+        if (pollMillis <= 0){
+            throw new IllegalArgumentException("Poll interval must be positive");
+        }
+        Path absolute = file.toAbsolutePath();
+        this.fileName = absolute.getFileName();
+        this.onChange = onChange;
+        this.pollMillis = pollMillis;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        try {
+            absolute.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+
+        this.thread = new Thread(this::follow, "csv-follower-" + fileName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops watching the file.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Follower loop: waits for a change to the file (or the poll interval) and runs the action.
+     */
+    private void follow() {
+        try {
+            while (true) {
+                WatchKey key = watcher.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null && !concernsFile(key)){
+                    continue;
+                }
+                // Let a burst of appends finish, then take them all in one run
+                Thread.sleep(SETTLE_MILLIS);
+                drainPending();
+                onChange.run();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed; stop following
+        }
+    }
+
+    /**
+     * Consumes a key's events and re-arms it.
+     *
+     * @param key The signalled key.
+     * @return {@code true} if one of the events concerns the followed file, or events were lost.
+     */
+    private boolean concernsFile(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event: key.pollEvents()){
+            relevant |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Consumes every event that arrived while settling, since the coming run covers them.
+     */
+    private void drainPending() {
+        WatchKey key;
+        while ((key = watcher.poll()) != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+}
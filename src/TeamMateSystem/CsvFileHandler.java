@@ -1,7 +1,10 @@
 package TeamMateSystem;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * The {@code CsvFileHandler} class provides utility methods for reading and writing
@@ -9,13 +12,69 @@ import java.util.*;
  *
  * <ul>
  *     <li>Reading CSV files and converting each line into a {@code String[]}.</li>
- *     <li>Appending participant details to a CSV file (with header creation if file does not initially exist).</li>
- *     <li>Saving formed teams and their participants to a CSV file.</li>
+ *     <li>Streaming participant rows one by one to a visitor without holding the whole file in memory.</li>
+ *     <li>Parsing large participant files in parallel through a {@link ParallelCsvReader}.</li>
+ *     <li>Saving formed teams and their participants to a CSV, JSON Lines or GZIP-compressed file
+ *     through a {@link TeamExporter}.</li>
  * </ul>
  *
+ * Participants are stored in the {@link ParticipantRepository}, not appended to a CSV file;
+ * participants.csv is only read, and written whole by an export.
  */
 public class CsvFileHandler {
 
+    /** Header row written at the top of a new participants file. */
+    static final String PARTICIPANTS_HEADER = "ID,Name,Email,PreferredGame,SkillLevel,PreferredRole,PersonalityScore,PersonalityType";
+
+    /** Default file size (in bytes) from which participant files are parsed in parallel. */
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 16L * 1024 * 1024;
+
+    /** File formed teams are saved to when no path is given. */
+    public static final String FORMED_TEAMS_FILE = "formed_teams.csv";
+
+    /** Serializes formed teams in parallel when they are saved. */
+    private final TeamExporter teamExporter = new TeamExporter();
+
+    /** Vocabularies of the event the read participants take part in. */
+    private final EventVocabulary vocabulary;
+
+    /** Parser used for files at or above {@link #parallelThreshold}. */
+    private final ParallelCsvReader parallelReader;
+
+    /** Files smaller than this many bytes are read on the calling thread. */
+    private volatile long parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /** Process-wide metrics that rows and bytes read and written are counted in. */
+    private final TeamMateMetrics metrics = TeamMateMetrics.get();
+
+    /**
+     * Constructs a handler with its own event vocabularies.
+     */
+    public CsvFileHandler() {
+        this(new EventVocabulary());
+    }
+
+    /**
+     * Constructs a handler.
+     *
+     * @param vocabulary Vocabularies of the event the read participants take part in.
+     */
+    public CsvFileHandler(EventVocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+        this.parallelReader = new ParallelCsvReader(vocabulary);
+    }
+
+    /**
+     * Sets the file size from which {@link #readParticipants(String, Consumer)} switches
+     * to the parallel parser. Use {@code 0} to always parse in parallel and
+     * {@link Long#MAX_VALUE} to never do so.
+     *
+     * @param parallelThreshold The threshold in bytes.
+     */
+    public void setParallelThreshold(long parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * Reads a CSV file and returns its contents as a list of string arrays.
      * Each array represents one line split by commas.
@@ -27,6 +86,7 @@ public class CsvFileHandler {
      * @throws IOException If the file cannot be opened or read.
      */
     public List<String[]> readFile(String filePath) throws IOException{
+        CsvFileEvent event = CsvFileEvent.start();
         List<String[]> file = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             reader.readLine();
@@ -35,32 +95,73 @@ public class CsvFileHandler {
                 file.add(line.split(","));
             }
         }
+        long length = new File(filePath).length();
+        metrics.recordCsvRead(file.size(), length);
+        event.finish("read", filePath, file.size(), length);
         return file;
     }
 
     /**
-     * Appends a participant's data to the specified CSV file.
-     * If the file does not exist, this method will create it and write a header row first.
+     * Reads just the participant ID (the first field) of every row of a participants CSV
+     * file, without building any participants. The header row is skipped.
      *
-     * <p>This method is synchronized to prevent multiple threads from writing
-     * simultaneously and corrupting the file.</p>
+     * @param filePath The path to the CSV file.
+     * @param visitor  Receives each ID in file order.
+     * @return The number of rows read.
+     * @throws IOException If the file cannot be opened or read.
+     */
+    public int readIds(String filePath, Consumer<String> visitor) throws IOException{
+        int rows = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                visitor.accept(comma < 0 ? line : line.substring(0, comma));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Reads a participants CSV file row by row, converting each line into a
+     * {@link Participant} and handing it to the given visitor straight away.
+     *
+     * <p>Unlike {@link #readFile(String)}, no row is kept after the visitor returns,
+     * so memory use stays flat regardless of the file size.
+     * The first line (header) is skipped automatically.</p>
+     *
+     * <p>Files at or above the parallel threshold are handed to a {@link ParallelCsvReader},
+     * which gives the same participants in the same order.</p>
      *
-     * @param filePath    The path to the CSV file.
-     * @param participant The participant to write.
-     * @throws IOException If the file cannot be opened or written to.
+     * @param filePath The path to the CSV file.
+     * @param visitor  Receives each participant in file order.
+     * @return The number of rows processed.
+     * @throws IOException If the file cannot be opened or read.
      */
-    public synchronized void writeFile(String filePath, Participant participant) throws IOException{
-        File file = new File(filePath);
-        boolean participantsFileExist = file.exists();
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, true))) {
-            if (!participantsFileExist){
-                writer.write("ID,Name,Email,PreferredGame,SkillLevel,PreferredRole,PersonalityScore,PersonalityType");
-                writer.newLine();
+    public int readParticipants(String filePath, Consumer<Participant> visitor) throws IOException{
+        CsvFileEvent event = CsvFileEvent.start();
+        long length = new File(filePath).length();
+        if (length >= parallelThreshold && parallelReader.supportsCharset()){
+            int rows = parallelReader.readParticipants(filePath, visitor);
+            metrics.recordCsvRead(rows, length);
+            event.finish("read", filePath, rows, length);
+            return rows;
+        }
+
+        int rows = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                visitor.accept(Participant.covertRow(line.split(","), vocabulary));
+                rows++;
             }
-            writer.write(participant.toString());
-            writer.newLine();
         }
+        metrics.recordCsvRead(rows, length);
+        event.finish("read", filePath, rows, length);
+        return rows;
     }
 
     /**
@@ -78,16 +179,28 @@ public class CsvFileHandler {
      * @throws IOException If writing to the file fails.
      */
     public void saveFile(List<Team> teams) throws IOException{
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("formed_teams.csv"))) {
-            for (Team team: teams){
-                writer.write(team.toString());
-                writer.newLine();
-                for (Participant participant: team.getParticipants()){
-                    writer.write(participant.details());
-                    writer.newLine();
-                }
-                writer.newLine();
-            }
+        saveFile(teams, Paths.get(FORMED_TEAMS_FILE), TeamExporter.Format.CSV, false);
+    }
+
+    /**
+     * Saves all formed teams into a file in the given format, optionally GZIP-compressed.
+     * Teams are serialized in parallel by a {@link TeamExporter} and the file is replaced
+     * only once it is complete.
+     *
+     * @param teams  The list of teams to save.
+     * @param path   The file to write.
+     * @param format The layout of the file.
+     * @param gzip   Whether to compress the file with GZIP.
+     * @throws IOException If writing to the file fails.
+     */
+    public void saveFile(List<Team> teams, Path path, TeamExporter.Format format, boolean gzip) throws IOException{
+        CsvFileEvent event = CsvFileEvent.start();
+        long bytes = teamExporter.export(teams, path, format, gzip);
+        long rows = 0;
+        for (Team team: teams){
+            rows += team.getParticipants().size();
         }
+        metrics.recordCsvWrite(rows, bytes);
+        event.finish("save", path.toString(), rows, bytes);
     }
 }
@@ -0,0 +1,128 @@
+package TeamMateSystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+
+/**
+ * The {@code CsvParticipantAdapter} class moves participants between CSV files and a
+ * {@link ParticipantRepository}.
+ *
+ * <ul>
+ *     <li>Importing streams the rows of a participants file into the repository, skipping
+ *     participants the repository already holds. Files that rows are appended to can be
+ *     followed with a {@link CsvTailReader}, so only the new rows are read.</li>
+ *     <li>Exporting writes every stored participant to a participants file. The file is
+ *     written next to the target first and moved into place, so readers never see a
+ *     half-written file.</li>
+ * </ul>
+ */
+public class CsvParticipantAdapter {
+
+    /** Handler used to parse participants files. */
+    private final CsvFileHandler csvFileHandler;
+
+    /**
+     * Constructs an adapter that parses files with the given handler.
+     *
+     * @param csvFileHandler The handler responsible for parsing CSV files.
+     */
+    public CsvParticipantAdapter(CsvFileHandler csvFileHandler) {
+        this.csvFileHandler = csvFileHandler;
+    }
+
+    /**
+     * Imports a participants file into a repository.
+     *
+     * @param filePath   The path of the CSV file to read.
+     * @param repository The repository to store the participants in.
+     * @param visitor    Receives every participant read, whether it was new or not.
+     * @return The number of rows read.
+     * @throws IOException If the file cannot be read or a participant cannot be stored.
+     */
+    public int importCsv(String filePath, ParticipantRepository repository, Consumer<Participant> visitor) throws IOException {
+        try {
+            return csvFileHandler.readParticipants(filePath, storing(repository, visitor));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Imports only the rows appended to a participants file since it was last read through
+     * the given tail reader, or the whole file if it was rotated or truncated since.
+     *
+     * @param tail       The reader following the file.
+     * @param repository The repository to store the participants in.
+     * @param visitor    Receives every participant read, whether it was new or not.
+     * @return The number of rows read.
+     * @throws IOException If the file cannot be read or a participant cannot be stored.
+     */
+    public int importAppended(CsvTailReader tail, ParticipantRepository repository, Consumer<Participant> visitor) throws IOException {
+        try {
+            return tail.readAppended(storing(repository, visitor));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns a visitor that stores each participant it is given, unless already stored,
+     * before passing it on. Storage failures are thrown as {@link UncheckedIOException}.
+     *
+     * @param repository The repository to store the participants in.
+     * @param visitor    Receives each participant after it is stored.
+     * @return The storing visitor.
+     */
+    private static Consumer<Participant> storing(ParticipantRepository repository, Consumer<Participant> visitor) {
+        return participant -> {
+            try {
+                repository.saveIfAbsent(participant);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            visitor.accept(participant);
+        };
+    }
+
+    /**
+     * Exports every participant in a repository to a participants file, replacing it.
+     *
+     * @param repository The repository to read the participants from.
+     * @param filePath   The path of the CSV file to write.
+     * @return The number of participants written.
+     * @throws IOException If the participants cannot be read or the file cannot be written.
+     */
+    public int exportCsv(ParticipantRepository repository, String filePath) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        int written;
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, Charset.defaultCharset())) {
+            writer.write(CsvFileHandler.PARTICIPANTS_HEADER);
+            writer.newLine();
+            written = repository.forEach(participant -> {
+                try {
+                    writer.write(participant.toString());
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        TeamMateMetrics.get().recordCsvWrite(written, Files.size(target));
+        return written;
+    }
+}
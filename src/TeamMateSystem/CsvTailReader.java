@@ -0,0 +1,255 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The {@code CsvTailReader} class follows a participants CSV file that rows are appended
+ * to, reading only the rows added since the last read.
+ *
+ * <p>The reader remembers how far into the file it has read and which file it was. Each
+ * {@link #readAppended(Consumer)} parses just the bytes after that point, up to the last
+ * complete line; a row still being written is left for the next read. The whole file is
+ * read again from the top when:</p>
+ *
+ * <ul>
+ *     <li>it has never been read,</li>
+ *     <li>it was replaced by another file (rotated), detected through its file key, or its
+ *     creation time where the file system has no file keys,</li>
+ *     <li>it is now shorter than the point already read (truncated), or the byte before
+ *     that point is no longer a line break (rewritten).</li>
+ * </ul>
+ *
+ * <p>Reads are serialized, so a background follower and an organizer upload can share
+ * one reader.</p>
+ */
+public class CsvTailReader {
+
+    /** Size of the buffer the file is read through. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The file being followed. */
+    private final Path path;
+
+    /** Vocabularies of the event the read participants take part in. */
+    private final EventVocabulary vocabulary;
+
+    /** Charset used to decode the rows (same as {@link java.io.FileReader}'s default). */
+    private final Charset charset = Charset.defaultCharset();
+
+    /** Process-wide metrics that rows and bytes read are counted in. */
+    private final TeamMateMetrics metrics = TeamMateMetrics.get();
+
+    /** Identity of the file last read, or {@code null} if it has not been read. */
+    private Object identity;
+
+    /** Position just after the last complete line read. */
+    private long offset;
+
+    /** Number of times the whole file had to be read again. */
+    private long fullReads;
+
+    /**
+     * Creates a reader for a file; nothing is read until {@link #readAppended(Consumer)}.
+     *
+     * @param path       The participants CSV file.
+     * @param vocabulary Vocabularies of the event the read participants take part in.
+     */
+    public CsvTailReader(Path path, EventVocabulary vocabulary) {
+        this.path = path;
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * Reads the rows appended since the last read, or the whole file if it was never read,
+     * rotated or truncated. The header row is skipped.
+     *
+     * @param visitor Receives each new participant in file order.
+     * @return The number of rows read.
+     * @throws IOException If the file cannot be read.
+     */
+    public synchronized int readAppended(Consumer<Participant> visitor) throws IOException {
+        CsvFileEvent event = CsvFileEvent.start();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Rotated away and not recreated yet; start again once it is back
+            identity = null;
+            offset = 0;
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = offset;
+            boolean fromTop = offset == 0 || !identityOf(attributes).equals(identity) || size < offset || !endsLine(channel, offset);
+            if (fromTop){
+                fullReads++;
+                identity = identityOf(attributes);
+                start = 0;
+            }
+            if (size == start){
+                return 0;
+            }
+
+            int[] rows = {0};
+            long end = parse(channel, start, size, fromTop, participant -> {
+                visitor.accept(participant);
+                rows[0]++;
+            });
+            offset = end;
+            metrics.recordCsvRead(rows[0], end - start);
+            event.finish(fromTop ? "read" : "tail", path.toString(), rows[0], end - start);
+            return rows[0];
+        }
+    }
+
+    /**
+     * Marks the file as read up to the last complete line before {@code size}, after it was
+     * read some other way. Rows past the mark are read again by the next
+     * {@link #readAppended(Consumer)}, so a few may be seen twice, but none are missed.
+     *
+     * @param size The file size before it was read.
+     * @throws IOException If the file cannot be read.
+     */
+    public synchronized void markRead(long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            identity = identityOf(Files.readAttributes(path, BasicFileAttributes.class));
+            offset = lastLineEnd(channel, Math.min(size, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the position just after the last complete line read.
+     *
+     * @return The offset.
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the number of times the whole file was read, because it was new, rotated or truncated.
+     *
+     * @return The number of full reads.
+     */
+    public synchronized long getFullReads() {
+        return fullReads;
+    }
+
+    /**
+     * Parses the complete lines between two positions.
+     *
+     * @param channel    The file.
+     * @param start      Position to start at; the start of a line.
+     * @param size       Size of the file.
+     * @param skipHeader Whether the first line is the header.
+     * @param visitor    Receives each participant.
+     * @return Position just after the last complete line.
+     * @throws IOException If the file cannot be read.
+     */
+    private long parse(FileChannel channel, long start, long size, boolean skipHeader, Consumer<Participant> visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        boolean header = skipHeader;
+        long position = start;
+        long end = start;
+
+        while (position < size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), size - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0){
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b != '\n'){
+                    if (lineLength == line.length){
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = b;
+                    continue;
+                }
+                // Drop the \r of a \r\n line ending, as BufferedReader.readLine() does
+                int length = (lineLength > 0 && line[lineLength - 1] == '\r') ? lineLength - 1 : lineLength;
+                if (header){
+                    header = false;
+                }
+                else if (length > 0){
+                    visitor.accept(Participant.covertRow(new String(line, 0, length, charset).split(","), vocabulary));
+                }
+                lineLength = 0;
+                end = position + i + 1;
+            }
+            position += read;
+        }
+        return end;
+    }
+
+    /**
+     * Returns whether the byte before a position is a line break, so the position is still
+     * the start of a line.
+     *
+     * @param channel  The file.
+     * @param position The position, after the start of the file.
+     * @return {@code true} if a line starts at the position.
+     * @throws IOException If the file cannot be read.
+     */
+    private static boolean endsLine(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, position - 1) == 1 && one.get(0) == '\n';
+    }
+
+    /**
+     * Finds the position just after the last line break before {@code size}.
+     *
+     * @param channel The file.
+     * @param size    Position to search back from.
+     * @return Position just after the last line break, or 0 if there is none.
+     * @throws IOException If the file cannot be read.
+     */
+    private static long lastLineEnd(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear();
+            buffer.limit((int) (end - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                // Keep reading until the block is full
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n'){
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns what identifies a file across renames: its file key, or its creation time
+     * on file systems without file keys.
+     *
+     * @param attributes The file's attributes.
+     * @return The identity.
+     */
+    private static Object identityOf(BasicFileAttributes attributes) {
+        Object key = attributes.fileKey();
+        return key != null ? key : attributes.creationTime();
+    }
+}
@@ -0,0 +1,117 @@
+package TeamMateSystem;
+
+import java.time.Instant;
+
+/**
+ * The {@code Event} class is one compact record published to an {@link EventLog}.
+ *
+ * <p>Producers only capture the raw fields; the text shown to the user is built later by
+ * the log's consumer thread, so publishing an event never formats or concatenates strings.</p>
+ */
+public class Event {
+
+    /**
+     * The kinds of events the system publishes.
+     */
+    public enum Type {
+        /** A participant finished the survey; the detail is their personality type. */
+        SURVEY_COMPLETED,
+        /** A participant's survey answers were rejected. */
+        SURVEY_REJECTED,
+        /** A participant with the same ID was already registered. */
+        DUPLICATE_PARTICIPANT,
+        /** A plain line of text, such as a team listing; the detail is the text. */
+        TEXT
+    }
+
+    /** The kind of event. */
+    private final Type type;
+
+    /** Wall-clock time the event was published, in milliseconds since the epoch. */
+    private final long timestamp;
+
+    /** ID of the participant the event is about, or {@code null}. */
+    private final String subject;
+
+    /** Extra detail, depending on the type, or {@code null}. */
+    private final String detail;
+
+    /** Name of the thread that published the event. */
+    private final String thread;
+
+    /**
+     * Creates an event stamped with the current time and thread.
+     *
+     * @param type    The kind of event.
+     * @param subject ID of the participant the event is about, or {@code null}.
+     * @param detail  Extra detail, or {@code null}.
+     */
+    public Event(Type type, String subject, String detail) {
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.subject = subject;
+        this.detail = detail;
+        this.thread = Thread.currentThread().getName();
+    }
+
+    /** @return The kind of event. */
+    public Type getType() {
+        return type;
+    }
+
+    /** @return The time the event was published, in milliseconds since the epoch. */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /** @return ID of the participant the event is about, or {@code null}. */
+    public String getSubject() {
+        return subject;
+    }
+
+    /** @return Extra detail, or {@code null}. */
+    public String getDetail() {
+        return detail;
+    }
+
+    /** @return Name of the thread that published the event. */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * Renders the event the way it is shown on the console, with colors.
+     *
+     * @return The console line.
+     */
+    public String toConsoleLine() {
+        return switch (type) {
+            case SURVEY_COMPLETED -> Color.GREEN + "Participant: " + subject + " | Personality: " + detail
+                    + " [Thread: " + thread + "]" + Color.RESET;
+            case SURVEY_REJECTED -> Color.RED + "Invalid input for participant: " + subject + Color.RESET;
+            case DUPLICATE_PARTICIPANT -> "Participant already exists: " + subject;
+            case TEXT -> detail;
+        };
+    }
+
+    /**
+     * Renders the event as one tab-separated line: time, type, subject, detail and thread.
+     * Missing fields are written as {@code -}.
+     *
+     * @return The structured line.
+     */
+    public String toStructuredLine() {
+        return Instant.ofEpochMilli(timestamp) + "\t" + type + "\t" + orDash(subject) + "\t"
+                + orDash(detail) + "\t" + orDash(thread);
+    }
+
+    /**
+     * Replaces a missing value with a dash.
+     *
+     * @param value The value.
+     * @return The value, or {@code "-"} if it is {@code null} or empty.
+     */
+    private static String orDash(String value) {
+        return (value == null || value.isEmpty()) ? "-" : value;
+    }
+}
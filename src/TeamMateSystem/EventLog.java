@@ -0,0 +1,319 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code EventLog} class lets many threads report what they did without waiting on
+ * each other or on the console.
+ *
+ * <p>Publishers claim a slot in a fixed-size ring buffer with a compare-and-set and store
+ * their {@link Event} in it; they never take a lock. A single consumer thread takes the
+ * events out in order and renders them to an {@link EventSink} in batches. If the ring
+ * is full the event is dropped and counted rather than making the publisher wait.</p>
+ *
+ * <p>A process-wide log, printing to the console, is available from {@link #getDefault()}
+ * and can be replaced with {@link #setDefault(EventLog)}, for example by a log that drops
+ * everything during load tests.</p>
+ */
+public class EventLog implements AutoCloseable {
+
+    /** Default number of events the ring can hold. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Longest time the consumer sleeps when there is nothing to do, in nanoseconds. */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** The process-wide log, created on first use. */
+    private static volatile EventLog defaultLog;
+
+    /** Where events are rendered. */
+    private final EventSink sink;
+
+    /** The ring of events; a slot is only read once its sequence has been published. */
+    private final Event[] slots;
+
+    /** Sequence number plus one of the event last published in each slot. */
+    private final AtomicLongArray published;
+
+    /** Mask turning a sequence number into a slot. */
+    private final int mask;
+
+    /** Next sequence number to hand out to a publisher. */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** Next sequence number the consumer will take (only updated by the consumer). */
+    private volatile long consumed;
+
+    /** Number of events rendered and flushed to the sink (only updated by the consumer). */
+    private volatile long delivered;
+
+    /** Number of events dropped because the ring was full. */
+    private final LongAdder dropped = new LongAdder();
+
+    /** Background thread rendering the events. */
+    private final Thread consumer;
+
+    /** Set while the consumer is about to sleep, so publishers know to wake it. */
+    private volatile boolean idle;
+
+    /** Monitor used by threads waiting in {@link #flush()}. */
+    private final Object drained = new Object();
+
+    /** Set once {@link #close()} has been called. */
+    private volatile boolean closed;
+
+    /** First error hit by the sink, reported by {@link #close()}. */
+    private volatile IOException failure;
+
+    /**
+     * Creates a log with the default capacity.
+     *
+     * @param sink Where events are rendered.
+     */
+    public EventLog(EventSink sink) {
+        this(sink, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a log.
+     *
+     * @param sink     Where events are rendered.
+     * @param capacity Number of events the ring can hold; rounded up to a power of two.
+     */
+    public EventLog(EventSink sink, int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30){
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity){
+            size <<= 1;
+        }
+        this.sink = sink;
+        this.slots = new Event[size];
+        this.published = new AtomicLongArray(size);
+        this.mask = size - 1;
+
+        this.consumer = new Thread(this::runConsumer, "event-log");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Returns the process-wide log, creating a console log on first use.
+     *
+     * @return The default log.
+     */
+    public static EventLog getDefault() {
+        EventLog log = defaultLog;
+        if (log == null){
+            synchronized (EventLog.class) {
+                log = defaultLog;
+                if (log == null){
+                    log = new EventLog(new ConsoleEventSink());
+                    defaultLog = log;
+                }
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Replaces the process-wide log. The previous log is flushed and returned, but not closed.
+     *
+     * @param log The new default log.
+     * @return The previous default log, or {@code null} if none was created yet.
+     */
+    public static synchronized EventLog setDefault(EventLog log) {
+        EventLog previous = defaultLog;
+        defaultLog = log;
+        if (previous != null){
+            previous.flush();
+        }
+        return previous;
+    }
+
+    /**
+     * Publishes an event. This never blocks.
+     *
+     * @param type    The kind of event.
+     * @param subject ID of the participant the event is about, or {@code null}.
+     * @param detail  Extra detail, or {@code null}.
+     * @return {@code true} if the event was queued, {@code false} if it was dropped.
+     */
+    public boolean publish(Event.Type type, String subject, String detail) {
+        if (sink == EventSink.DROP){
+            return false;
+        }
+        return publish(new Event(type, subject, detail));
+    }
+
+    /**
+     * Publishes an event. This never blocks.
+     *
+     * @param event The event.
+     * @return {@code true} if the event was queued, {@code false} if it was dropped.
+     */
+    public boolean publish(Event event) {
+        if (sink == EventSink.DROP){
+            return false;
+        }
+        if (closed){
+            dropped.increment();
+            return false;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length){
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        slots[slot] = event;
+        // The volatile write makes the slot visible to the consumer
+        published.set(slot, sequence + 1);
+        if (idle){
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every event published so far has been rendered to the sink.
+     * Returns early if the calling thread is interrupted.
+     */
+    public void flush() {
+        long target = claimed.get();
+        LockSupport.unpark(consumer);
+        synchronized (drained) {
+            while (delivered < target && consumer.isAlive()) {
+                try {
+                    drained.wait(TimeUnit.NANOSECONDS.toMillis(IDLE_PARK_NANOS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events dropped because the ring was full or the log was closed.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Renders every pending event, stops the consumer and closes the sink.
+     *
+     * @throws IOException If the sink failed at any point.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed){
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null){
+            throw failure;
+        }
+    }
+
+    /**
+     * Consumer loop: takes published events in order, renders them and flushes the sink
+     * after each batch; sleeps when the ring is empty.
+     */
+    private void runConsumer() {
+        long next = 0;
+        while (true) {
+            int slot = (int) next & mask;
+            if (published.get(slot) == next + 1){
+                // Take everything already published as one batch
+                do {
+                    Event event = slots[slot];
+                    slots[slot] = null;
+                    consumed = ++next;
+                    render(event);
+                    slot = (int) next & mask;
+                } while (published.get(slot) == next + 1);
+                flushSink();
+                delivered = next;
+                synchronized (drained) {
+                    drained.notifyAll();
+                }
+                continue;
+            }
+
+            if (closed && claimed.get() == next){
+                break;
+            }
+            idle = true;
+            // Check again after announcing, so a publisher that missed the flag is not missed
+            if (published.get(slot) != next + 1 && !closed){
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+
+        try {
+            sink.close();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+    }
+
+    /**
+     * Renders one event, remembering the first failure instead of stopping the consumer.
+     *
+     * @param event The event.
+     */
+    private void render(Event event) {
+        try {
+            sink.write(event);
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    /**
+     * Flushes the sink at the end of a batch.
+     */
+    private void flushSink() {
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    /**
+     * Keeps the first sink failure.
+     *
+     * @param e The failure.
+     */
+    private void recordFailure(IOException e) {
+        if (failure == null){
+            failure = e;
+        }
+    }
+}
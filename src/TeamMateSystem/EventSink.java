@@ -0,0 +1,43 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+
+/**
+ * The {@code EventSink} interface is the destination an {@link EventLog} renders its events to.
+ *
+ * <p>A sink is only ever called from the log's single consumer thread, so implementations
+ * do not need to be thread-safe. Events are handed over in batches: {@link #write(Event)}
+ * is called for each event of a batch and {@link #flush()} once at the end of it.</p>
+ *
+ * <p>Available sinks are {@link ConsoleEventSink}, {@link RollingFileEventSink} and {@link #DROP}.</p>
+ */
+public interface EventSink {
+
+    /** Sink that discards every event. An {@link EventLog} using it does not even queue them. */
+    EventSink DROP = event -> {
+    };
+
+    /**
+     * Renders one event.
+     *
+     * @param event The event.
+     * @throws IOException If the event cannot be written.
+     */
+    void write(Event event) throws IOException;
+
+    /**
+     * Pushes out everything written so far. Called at the end of every batch.
+     *
+     * @throws IOException If the events cannot be written.
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * Releases the sink's resources. Called once when the log is closed.
+     *
+     * @throws IOException If the sink cannot be closed.
+     */
+    default void close() throws IOException {
+    }
+}
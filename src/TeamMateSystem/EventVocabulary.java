@@ -0,0 +1,72 @@
+package TeamMateSystem;
+
+import java.util.List;
+
+/**
+ * The {@code EventVocabulary} class holds the {@link Vocabulary} of each coded participant
+ * attribute (games, roles and personality types) for one event.
+ *
+ * <p>Every participant of an event refers to the same {@code EventVocabulary}, so their codes
+ * can be compared with each other. Two controllers, for example two events run in the same
+ * process, each have their own and never see each other's values.</p>
+ *
+ * <ul>
+ *     <li>Games and roles start with the event's survey options, so their codes match the
+ *     survey's answer codes.</li>
+ *     <li>Personality types start with {@link PersonalityScorer#typeNames()}, so their codes
+ *     are {@link PersonalityScorer}'s type codes.</li>
+ * </ul>
+ */
+public class EventVocabulary {
+
+    /**
+     * Games offered when an event does not choose its own, in survey order. They are spelled
+     * as in participants.csv, since a code decodes to its value's first registered spelling.
+     */
+    public static final List<String> DEFAULT_GAMES = List.of("Chess", "FIFA", "Basketball", "CS:GO", "DOTA 2", "Valorant");
+
+    /** Roles offered when an event does not choose its own, in survey order, spelled as in participants.csv. */
+    public static final List<String> DEFAULT_ROLES = List.of("Strategist", "Attacker", "Defender", "Supporter", "Coordinator");
+
+    /** Preferred games. */
+    private final Vocabulary games;
+
+    /** Preferred roles. */
+    private final Vocabulary roles;
+
+    /** Personality types, in {@link PersonalityScorer} code order. */
+    private final Vocabulary personalityTypes = new Vocabulary("personality type", PersonalityScorer.typeNames());
+
+    /**
+     * Creates the vocabularies of an event with the default games and roles.
+     */
+    public EventVocabulary() {
+        this(DEFAULT_GAMES, DEFAULT_ROLES);
+    }
+
+    /**
+     * Creates the vocabularies of an event.
+     *
+     * @param games The games offered in the survey, in survey order.
+     * @param roles The roles offered in the survey, in survey order.
+     */
+    public EventVocabulary(List<String> games, List<String> roles) {
+        this.games = new Vocabulary("game", games);
+        this.roles = new Vocabulary("role", roles);
+    }
+
+    /** @return The vocabulary of preferred games. */
+    public Vocabulary games() {
+        return games;
+    }
+
+    /** @return The vocabulary of preferred roles. */
+    public Vocabulary roles() {
+        return roles;
+    }
+
+    /** @return The vocabulary of personality types. */
+    public Vocabulary personalityTypes() {
+        return personalityTypes;
+    }
+}
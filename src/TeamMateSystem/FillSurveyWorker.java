@@ -2,7 +2,8 @@ package TeamMateSystem;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * The {@code FillSurveyWorker} class represents a background worker that simulates
@@ -13,7 +14,8 @@ import java.util.Random;
  * <ol>
  *     <li>Adds the participant to the system.</li>
  *     <li>Randomly generates survey answers.</li>
- *     <li>Submits survey responses to the controller.</li>
+ *     <li>Submits the survey responses to the controller, in one call or, with a think
+ *     time, one answer at a time.</li>
  *     <li>Triggers value calculation (personality score and type).</li>
  *     <li>Stores the participant's details.</li>
  * </ol>
@@ -21,9 +23,27 @@ import java.util.Random;
  * This class is written as to show that surveys can be filled parallelly by many participants.
  * This is primarily used for automated testing, simulation, and multi-threading
  * demonstrations in the TeamMateSystem.
+ *
+ * <p>The outcome is published to the default {@link EventLog} rather than printed, so
+ * workers never wait on the console. For load tests a worker can also pause between
+ * answers like a real user and time each {@link Phase} of its run.</p>
  */
 public class FillSurveyWorker implements Runnable {
 
+    /**
+     * The timed steps of a worker's run.
+     */
+    public enum Phase {
+        /** Adding the participant to the system. */
+        ADD,
+        /** Submitting the survey answers. */
+        ANSWER,
+        /** Setting the participant's values and calculating the personality type. */
+        SCORE,
+        /** Storing the participant's details. */
+        STORE
+    }
+
     /** The participant that this worker will simulate completing a survey. */
     private final Participant participant;
 
@@ -33,15 +53,18 @@ public class FillSurveyWorker implements Runnable {
     /** List of randomly generated answers for the survey questions. */
     private final List<String> answers = new ArrayList<>();
 
-    /** Random number generator used to generate fake survey answers. */
-    private final Random random = new Random();
-
     /** List of available games retrieved from the controller. */
     private final List<String> games;
 
     /** List of available roles retrieved from the controller. */
     private final List<String> roles;
 
+    /** Mean pause before each answer, in nanoseconds (0 for none). */
+    private final long thinkTimeNanos;
+
+    /** Latency of each phase, by {@link Phase} ordinal, or {@code null} if not timed. */
+    private final LatencyHistogram[] latencies;
+
     /**
      * Constructs a worker that fills a survey for a given participant.
      *
@@ -49,10 +72,26 @@ public class FillSurveyWorker implements Runnable {
      * @param controller  The controller managing participants and survey logic.
      */
     public FillSurveyWorker(Participant participant, TeamMateController controller) {
+        this(participant, controller, 0, null);
+    }
+
+    /**
+     * Constructs a worker that pauses between answers and times its phases.
+     *
+     * @param participant    The participant whose survey will be filled.
+     * @param controller     The controller managing participants and survey logic.
+     * @param thinkTimeNanos Mean pause before each answer, in nanoseconds; each pause is
+     *                       drawn uniformly between zero and twice this value.
+     * @param latencies      Latency of each phase, by {@link Phase} ordinal, or {@code null}.
+     */
+    public FillSurveyWorker(Participant participant, TeamMateController controller, long thinkTimeNanos,
+                            LatencyHistogram[] latencies) {
         this.participant = participant;
         this.controller = controller;
         this.games = controller.getGAMES();
         this.roles = controller.getROLES();
+        this.thinkTimeNanos = thinkTimeNanos;
+        this.latencies = latencies;
     }
 
     /**
@@ -67,6 +106,7 @@ public class FillSurveyWorker implements Runnable {
      * </ul>
      */
     public void fillAnswers(){
+        ThreadLocalRandom random = ThreadLocalRandom.current();
 
         // Can change the value range to simulate incorrect answers for these questions
 
@@ -87,43 +127,46 @@ public class FillSurveyWorker implements Runnable {
      * Executes the full survey-filling routine:
      * <ol>
      *     <li>Add the participant (if not already present).</li>
-     *     <li>Submit answers to each survey question and validate the answers.</li>
+     *     <li>Submit the survey answers: all in one call, which validates them together, or
+     *     with a think time one at a time, pausing before each.</li>
      *     <li>Calculate participant's personality score and personality type.</li>
      *     <li>Save participant information.</li>
      * </ol>
      *
-     * Errors are caught and handled gracefully, and colored status output
-     * is printed to the console.
+     * Answers are generated here if {@link #fillAnswers()} was not called beforehand.
+     * Errors are caught and handled gracefully, and the outcome is published to the
+     * default {@link EventLog}.
      */
     @Override
     public void run() {
+        EventLog events = EventLog.getDefault();
         try {
+            if (answers.isEmpty()){
+                fillAnswers();
+            }
+
             // Add participant to the system
+            long start = System.nanoTime();
             boolean added = controller.addParticipant(participant);
+            start = record(Phase.ADD, start);
             if (!added) {
-                System.out.println("Participant already exists: " + participant.getId());
+                events.publish(Event.Type.DUPLICATE_PARTICIPANT, participant.getId(), null);
                 return;
             }
 
-            // Fill survey for each question
-            for (int qNo = 1; qNo <= controller.getSurveyQuestions().size(); qNo++) {
-                boolean accepted = true;
-                while (accepted) {
-                    String answer = answers.get(qNo - 1);
-                    Message msg = controller.fillSurvey(participant.getId(), qNo, answer);
-
-                    // accepted = false means success — exit loop
-                    accepted = !msg.isSuccess();
-
-                    if (!msg.isSuccess()){
-                        controller.removeParticipant(participant.getId());
-                        break;
-                    }
-                }
+            // Submit the answers; a participant with an invalid answer is removed again
+            if (!submitAnswers()){
+                controller.removeParticipant(participant.getId());
+                events.publish(Event.Type.SURVEY_REJECTED, participant.getId(), null);
+                return;
             }
+            start = System.nanoTime();
 
             // Set participant values and store details
-            controller.setParticipantValues(participant.getId());
+            if (!controller.setParticipantValues(participant.getId()).isSuccess()){
+                events.publish(Event.Type.SURVEY_REJECTED, participant.getId(), null);
+                return;
+            }
 
             // After survey completion and filling details, calculate all scores for the participant
             String personality = controller.viewPersonalityType(participant.getId());
@@ -132,16 +175,67 @@ public class FillSurveyWorker implements Runnable {
             if (personality == null){
                 controller.removeParticipant(participant.getId());
             }
+            start = record(Phase.SCORE, start);
 
             // Retrieve personality type and store participant details to file
             controller.storeParticipantDetails(participant);
+            record(Phase.STORE, start);
 
-            // Console output with thread info
-            System.out.println(Color.GREEN + "Participant: " + participant.getId() + " | Personality: " + personality
-            + " [Thread: " + Thread.currentThread().getName() + "]" + Color.RESET);
+            events.publish(Event.Type.SURVEY_COMPLETED, participant.getId(), personality);
 
         } catch (Exception e) {
-            System.out.println(Color.RED + "Invalid input for participant: " + participant.getId() + Color.RESET);
+            events.publish(Event.Type.SURVEY_REJECTED, participant.getId(), null);
+        }
+    }
+
+    /**
+     * Submits the survey answers, timing each call as an {@link Phase#ANSWER}.
+     *
+     * <p>Without a think time all answers go in one {@code submitSurvey} call. With one,
+     * the worker answers like a real user: it pauses before each question and then sends
+     * that answer alone with {@code fillSurvey}, so answers of many participants arrive
+     * interleaved over the whole length of their surveys.</p>
+     *
+     * @return {@code true} if every answer was accepted.
+     */
+    private boolean submitAnswers(){
+        if (thinkTimeNanos <= 0){
+            long start = System.nanoTime();
+            int result = controller.submitSurvey(participant.getId(), answers.toArray(new String[0]));
+            record(Phase.ANSWER, start);
+            return result == TeamMateController.SURVEY_ACCEPTED;
+        }
+        for (int questionNo = 1; questionNo <= answers.size(); questionNo++) {
+            think();
+            long start = System.nanoTime();
+            Message message = controller.fillSurvey(participant.getId(), questionNo, answers.get(questionNo - 1));
+            record(Phase.ANSWER, start);
+            if (!message.isSuccess()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pauses for the think time of one answer, drawn uniformly between zero and twice
+     * the mean. On a virtual thread the pause does not hold a platform thread.
+     */
+    private void think(){
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(2 * thinkTimeNanos + 1));
+    }
+
+    /**
+     * Records the latency of a phase if phases are being timed.
+     *
+     * @param phase      The phase that just finished.
+     * @param startNanos When the phase started, from {@link System#nanoTime()}.
+     * @return When the phase finished, to time the next one.
+     */
+    private long record(Phase phase, long startNanos){
+        if (latencies == null){
+            return System.nanoTime();
         }
+        return latencies[phase.ordinal()].recordSince(startNanos);
     }
 }
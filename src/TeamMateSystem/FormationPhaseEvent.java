@@ -0,0 +1,63 @@
+package TeamMateSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code FormationPhaseEvent} class is a Java Flight Recorder event for one phase of
+ * {@link TeamBuilder#buildTeam(java.util.List, int)}: {@code collectData},
+ * {@code applyMatchingStrategies} or {@code sendFormedTeams}.
+ */
+@Name("TeamMateSystem.FormationPhase")
+@Label("Team Formation Phase")
+@Category({"TeamMateSystem", "Team Formation"})
+@Description("One phase of a team formation run")
+public class FormationPhaseEvent extends TeamMateEvent {
+
+    /** The team builder running the phase. */
+    @Label("Builder")
+    String builder;
+
+    /** The phase. */
+    @Label("Phase")
+    String phase;
+
+    /** Number of participants being formed into teams. */
+    @Label("Participants")
+    int participants;
+
+    /** Number of teams at the end of the phase (0 before matching). */
+    @Label("Teams")
+    int teams;
+
+    /**
+     * Creates the event and starts timing it.
+     *
+     * @return The event.
+     */
+    static FormationPhaseEvent start() {
+        FormationPhaseEvent event = new FormationPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the event and commits it if it is being recorded.
+     *
+     * @param builder      The team builder running the phase.
+     * @param phase        The phase.
+     * @param participants Number of participants being formed into teams.
+     * @param teams        Number of teams at the end of the phase.
+     */
+    void finish(String builder, String phase, int participants, int teams) {
+        if (stop()){
+            this.builder = builder;
+            this.phase = phase;
+            this.participants = participants;
+            this.teams = teams;
+            commit();
+        }
+    }
+}
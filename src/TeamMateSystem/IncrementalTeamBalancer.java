@@ -0,0 +1,274 @@
+package TeamMateSystem;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The {@code IncrementalTeamBalancer} class keeps formed teams up to date when participants
+ * join or leave after formation, without running the whole formation again.
+ *
+ * <ul>
+ *     <li>A participant who joins goes to the smallest team, and among equally small teams
+ *     to the one with the lowest skill sum. If every team is full, a new team is opened.</li>
+ *     <li>When a participant leaves and their team ends up two or more members smaller than the
+ *     largest team, the largest team gives up the member whose skill is closest to the one who left.</li>
+ * </ul>
+ *
+ * <p>Teams are kept in a {@link TreeSet} ordered by size and skill sum, so finding the team
+ * to fill or to take from costs {@code O(log T)} for {@code T} teams. Since {@link Team} is
+ * immutable, a changed team is replaced by a new one with the same ID.</p>
+ *
+ * <p>Every change is published as a new {@link TeamSnapshot} derived from the previous one,
+ * so readers keep a consistent view while the teams change. Once another formation is
+ * published, the balancer's changes are no longer accepted and it stops changing anything.</p>
+ */
+public class IncrementalTeamBalancer {
+
+    /** Where the changed teams are published. */
+    private final TeamSnapshotHistory history;
+
+    /** The snapshot last published by this balancer; {@code null} once a newer formation replaced it. */
+    private TeamSnapshot snapshot;
+
+    /** Teams changed by the change in progress, by position. */
+    private final Map<Integer, Team> changedTeams = new HashMap<>();
+
+    /** Positions changed by the change in progress, by participant ID. */
+    private final Map<String, Integer> changedPositions = new HashMap<>();
+
+    /** Number of teams, including any opened by the change in progress. */
+    private int teamCount;
+
+    /** Sum of every member's skill level. */
+    private long totalSkill;
+
+    /** The team size used at formation. */
+    private final int teamSize;
+
+    /** Skill sum of each team, by team position. */
+    private long[] skillSums;
+
+    /** Team positions ordered by size, then skill sum, then position. */
+    private final TreeSet<Integer> balance;
+
+    /**
+     * Starts tracking a published formation.
+     *
+     * @param history Where the formation was published and changes are published to.
+     * @param formed  The published formation.
+     */
+    public IncrementalTeamBalancer(TeamSnapshotHistory history, TeamSnapshot formed) {
+        this.history = history;
+        this.snapshot = formed;
+        this.teamSize = formed.getTeamSize();
+        this.teamCount = formed.getIndex().getTeamCount();
+        this.totalSkill = formed.getStats().getTotalSkill();
+        this.skillSums = new long[Math.max(16, teamCount)];
+        this.balance = new TreeSet<>(Comparator
+                .comparingInt((Integer position) -> teamAt(position).getParticipants().size())
+                .thenComparingLong(position -> skillSums[position])
+                .thenComparingInt(position -> position));
+
+        for (int i = 0; i < teamCount; i++) {
+            for (Participant participant: teamAt(i).getParticipants()){
+                skillSums[i] += participant.getSkillLevel();
+            }
+            balance.add(i);
+        }
+    }
+
+    /**
+     * Places a newly added participant in the team that best keeps the teams balanced.
+     *
+     * @param participant The participant who joined.
+     * @return The team the participant was placed in, or {@code null} if they already have a
+     *         team or the teams were formed again.
+     */
+    public synchronized Team add(Participant participant) {
+        if (snapshot == null || snapshot.getIndex().positionOf(participant.getId()) != null){
+            return null;
+        }
+
+        int position;
+        if (balance.isEmpty() || teamAt(balance.first()).getParticipants().size() >= teamSize){
+            position = openTeam();
+        }
+        else {
+            position = balance.first();
+        }
+
+        balance.remove(position);
+        Team team = replace(position, withMember(teamAt(position), participant));
+        skillSums[position] += participant.getSkillLevel();
+        totalSkill += participant.getSkillLevel();
+        changedPositions.put(participant.getId(), position);
+        balance.add(position);
+        return publish() ? team : null;
+    }
+
+    /**
+     * Takes a participant out of their team and rebalances against the largest team if needed.
+     *
+     * @param participantId ID of the participant who left.
+     * @return {@code true} if the participant was in a team and the change was published.
+     */
+    public synchronized boolean remove(String participantId) {
+        Integer position = snapshot == null ? null : snapshot.getIndex().positionOf(participantId);
+        if (position == null){
+            return false;
+        }
+
+        balance.remove(position);
+        Team team = teamAt(position);
+        Participant leaving = find(team, participantId);
+        replace(position, withoutMember(team, leaving));
+        skillSums[position] -= leaving.getSkillLevel();
+        totalSkill -= leaving.getSkillLevel();
+        changedPositions.put(participantId, TeamIndex.NONE);
+        balance.add(position);
+
+        // Move one member over from the largest team if the sizes drifted two or more apart
+        int largest = balance.last();
+        int gap = teamAt(largest).getParticipants().size() - teamAt(position).getParticipants().size();
+        if (gap >= 2){
+            Participant moved = closestSkill(teamAt(largest), leaving.getSkillLevel());
+
+            balance.remove(largest);
+            replace(largest, withoutMember(teamAt(largest), moved));
+            skillSums[largest] -= moved.getSkillLevel();
+            balance.add(largest);
+
+            balance.remove(position);
+            replace(position, withMember(teamAt(position), moved));
+            skillSums[position] += moved.getSkillLevel();
+            changedPositions.put(moved.getId(), position);
+            balance.add(position);
+        }
+        return publish();
+    }
+
+    /**
+     * Publishes the change in progress as a new snapshot.
+     *
+     * @return {@code true} if it was published, {@code false} if a newer formation replaced
+     *         the teams this balancer tracks, in which case it stops changing anything.
+     */
+    private boolean publish() {
+        TeamIndex index = snapshot.getIndex().with(changedTeams, changedPositions);
+        changedTeams.clear();
+        changedPositions.clear();
+        TeamSnapshot.Stats stats = new TeamSnapshot.Stats(teamCount, index.getParticipantCount(),
+                index.teamAt(balance.first()).getParticipants().size(),
+                index.teamAt(balance.last()).getParticipants().size(), totalSkill);
+        snapshot = history.publish(snapshot, index, stats);
+        return snapshot != null;
+    }
+
+    /**
+     * Appends a new, empty team.
+     *
+     * @return The position of the new team.
+     */
+    private int openTeam() {
+        int position = teamCount++;
+        if (position == skillSums.length){
+            skillSums = Arrays.copyOf(skillSums, position * 2);
+        }
+        changedTeams.put(position, new Team(position + 1, "Team", new Participant[0]));
+        return position;
+    }
+
+    /**
+     * Replaces the team at a position for the change in progress.
+     *
+     * @param position The team position.
+     * @param team     The new team.
+     * @return The new team.
+     */
+    private Team replace(int position, Team team) {
+        changedTeams.put(position, team);
+        return team;
+    }
+
+    /**
+     * Returns the team at a position, as changed by the change in progress.
+     *
+     * @param position The team position.
+     * @return The team.
+     */
+    private Team teamAt(int position) {
+        Team changed = changedTeams.get(position);
+        return changed != null ? changed : snapshot.getIndex().teamAt(position);
+    }
+
+
+    /**
+     * Builds a copy of a team with one more member.
+     *
+     * @param team        The current team.
+     * @param participant The member to add.
+     * @return The new team.
+     */
+    private static Team withMember(Team team, Participant participant) {
+        List<Participant> current = team.getParticipants();
+        Participant[] members = current.toArray(new Participant[current.size() + 1]);
+        members[current.size()] = participant;
+        return new Team(team.getId(), team.getName(), members);
+    }
+
+    /**
+     * Builds a copy of a team without one member.
+     *
+     * @param team        The current team.
+     * @param participant The member to leave out.
+     * @return The new team.
+     */
+    private static Team withoutMember(Team team, Participant participant) {
+        List<Participant> current = team.getParticipants();
+        Participant[] members = new Participant[current.size() - 1];
+        int i = 0;
+        for (Participant member: current){
+            if (member != participant){
+                members[i++] = member;
+            }
+        }
+        return new Team(team.getId(), team.getName(), members);
+    }
+
+    /**
+     * Finds a member of a team by ID.
+     *
+     * @param team          The team.
+     * @param participantId The member's ID.
+     * @return The member.
+     */
+    private static Participant find(Team team, String participantId) {
+        for (Participant member: team.getParticipants()){
+            if (member.getId().equals(participantId)){
+                return member;
+            }
+        }
+        throw new IllegalStateException("Participant " + participantId + " is not in " + team);
+    }
+
+    /**
+     * Finds the member of a team whose skill level is closest to the given one.
+     *
+     * @param team       The team.
+     * @param skillLevel The skill level to match.
+     * @return The closest member.
+     */
+    private static Participant closestSkill(Team team, int skillLevel) {
+        Participant closest = null;
+        for (Participant member: team.getParticipants()){
+            if (closest == null || Math.abs(member.getSkillLevel() - skillLevel) < Math.abs(closest.getSkillLevel() - skillLevel)){
+                closest = member;
+            }
+        }
+        return closest;
+    }
+}
@@ -0,0 +1,172 @@
+package TeamMateSystem;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code LatencyHistogram} class records durations from many threads at once and
+ * reports their percentiles.
+ *
+ * <p>Values are counted in log-linear buckets: every power of two is split into 16 equal
+ * buckets, so a reported percentile is at most about 6% above the true value, whatever the
+ * range. Recording is a single atomic increment, and the histogram takes a fixed 960
+ * counters no matter how many values are recorded.</p>
+ */
+public class LatencyHistogram {
+
+    /** log2 of the number of buckets per power of two. */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /** Number of buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets needed to cover every non-negative {@code long}. */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /** Number of values recorded in each bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Number of values recorded. */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of the values recorded. */
+    private final LongAdder sum = new LongAdder();
+
+    /** Largest value recorded. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds; negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Records the time elapsed since a start time taken with {@link System#nanoTime()}.
+     *
+     * @param startNanos The start time.
+     * @return The current {@link System#nanoTime()}, to start timing the next step.
+     */
+    public long recordSince(long startNanos) {
+        long now = System.nanoTime();
+        record(now - startNanos);
+        return now;
+    }
+
+    /** @return The number of values recorded. */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** @return The largest value recorded, in nanoseconds. */
+    public long getMax() {
+        return max.get();
+    }
+
+    /** @return The mean of the values recorded, in nanoseconds, or 0 if none were recorded. */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the value below which the given share of the recorded values falls.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The percentile in nanoseconds (the upper end of its bucket), or 0 if none were recorded.
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0){
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank){
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears every recorded value. Values recorded while resetting may or may not be kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns a one-line summary with the count, mean, median, tail percentiles and maximum,
+     * in milliseconds.
+     *
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                getCount(), getMean() / 1e6, millis(getPercentile(50)), millis(getPercentile(90)),
+                millis(getPercentile(99)), millis(getPercentile(99.9)), millis(getMax()));
+    }
+
+    /**
+     * Converts nanoseconds to fractional milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in milliseconds.
+     */
+    private static double millis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     *
+     * @param value A non-negative value.
+     * @return The bucket number.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS){
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value counted in a bucket.
+     *
+     * @param bucket The bucket number.
+     * @return The bucket's upper bound.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS){
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) * width;
+        return lower + width - 1;
+    }
+}
@@ -0,0 +1,79 @@
+package TeamMateSystem;
+
+/**
+ * The {@code LatencySummary} class is a point-in-time summary of a {@link LatencyHistogram},
+ * in milliseconds. It is how latencies are published over JMX.
+ */
+public class LatencySummary {
+
+    /** Number of values recorded. */
+    private final long count;
+
+    /** Mean, in milliseconds. */
+    private final double meanMillis;
+
+    /** Median, in milliseconds. */
+    private final double p50Millis;
+
+    /** 90th percentile, in milliseconds. */
+    private final double p90Millis;
+
+    /** 99th percentile, in milliseconds. */
+    private final double p99Millis;
+
+    /** 99.9th percentile, in milliseconds. */
+    private final double p999Millis;
+
+    /** Maximum, in milliseconds. */
+    private final double maxMillis;
+
+    /**
+     * Summarizes a histogram as it is now.
+     *
+     * @param histogram The histogram.
+     */
+    public LatencySummary(LatencyHistogram histogram) {
+        this.count = histogram.getCount();
+        this.meanMillis = histogram.getMean() / 1e6;
+        this.p50Millis = histogram.getPercentile(50) / 1e6;
+        this.p90Millis = histogram.getPercentile(90) / 1e6;
+        this.p99Millis = histogram.getPercentile(99) / 1e6;
+        this.p999Millis = histogram.getPercentile(99.9) / 1e6;
+        this.maxMillis = histogram.getMax() / 1e6;
+    }
+
+    /** @return The number of values recorded. */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return The mean, in milliseconds. */
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    /** @return The median, in milliseconds. */
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    /** @return The 90th percentile, in milliseconds. */
+    public double getP90Millis() {
+        return p90Millis;
+    }
+
+    /** @return The 99th percentile, in milliseconds. */
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    /** @return The 99.9th percentile, in milliseconds. */
+    public double getP999Millis() {
+        return p999Millis;
+    }
+
+    /** @return The maximum, in milliseconds. */
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+}
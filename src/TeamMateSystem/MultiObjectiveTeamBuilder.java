@@ -0,0 +1,490 @@
+package TeamMateSystem;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code MultiObjectiveTeamBuilder} class is a concrete implementation of {@link TeamBuilder}
+ * that balances several goals at once instead of skill alone. It minimizes a weighted cost made of:
+ *
+ * <ul>
+ *     <li><b>Skill balance:</b> squared distance of each team's skill sum from its fair share.</li>
+ *     <li><b>Leadership:</b> squared distance of each team's number of Leaders from exactly one.</li>
+ *     <li><b>Role diversity:</b> number of member pairs in a team that share a preferred role.</li>
+ *     <li><b>Game affinity:</b> number of member pairs in a team that share a preferred game
+ *     (subtracted, since shared games are wanted).</li>
+ * </ul>
+ *
+ * <p>Teams start from a snake draft over the skill order and are then improved by simulated
+ * annealing on member swaps. The cost change of a swap is computed in constant time from
+ * per-team counters, so each restart can try millions of swaps. Several independent restarts
+ * run at the same time, one on the calling thread and the rest on the builder's executor,
+ * until the time budget runs out, and the best assignment found is returned.</p>
+ *
+ * <p>When teams are formed per shard (for example per game) on a fork-join pool, the shards
+ * run at the same time. Each then gets an equal share of the restarts, at least one, so
+ * together they keep as many threads busy as one unsharded run, and every restart still
+ * gets a whole thread for the full time budget.</p>
+ */
+public class MultiObjectiveTeamBuilder extends TeamBuilder {
+
+    /** Default wall-clock time allowed for one formation run. */
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(2);
+
+    /** Number of swaps tried between two checks of the clock. */
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    /** Final temperature as a fraction of the starting temperature. */
+    private static final double COOLING_RATIO = 1e-4;
+
+    /** Wall-clock time allowed for one formation run. */
+    private final Duration timeBudget;
+
+    /** Number of independent annealing runs. */
+    private final int restarts;
+
+    /** Weight of the skill balance term. */
+    private final double skillWeight;
+
+    /** Weight of the one-leader-per-team term. */
+    private final double leaderWeight;
+
+    /** Weight of the role diversity term. */
+    private final double roleWeight;
+
+    /** Weight of the game affinity term. */
+    private final double gameWeight;
+
+    /**
+     * Constructs a builder with the default time budget and weights, running one restart
+     * per worker thread of the common fork-join pool.
+     */
+    public MultiObjectiveTeamBuilder() {
+        super();
+        this.timeBudget = DEFAULT_TIME_BUDGET;
+        // The common pool has one worker fewer than there are cores. One restart runs on the
+        // calling thread, so no restart queues behind the others until the time budget is used up
+        this.restarts = ForkJoinPool.commonPool().getParallelism();
+        this.skillWeight = 1.0;
+        this.leaderWeight = 10.0;
+        this.roleWeight = 2.0;
+        this.gameWeight = 1.0;
+    }
+
+    /**
+     * Constructs a builder with custom settings.
+     *
+     * @param executor     The shared executor the restarts run on.
+     * @param timeBudget   Wall-clock time allowed for one formation run.
+     * @param restarts     Number of independent annealing runs.
+     * @param skillWeight  Weight of the skill balance term.
+     * @param leaderWeight Weight of the one-leader-per-team term.
+     * @param roleWeight   Weight of the role diversity term.
+     * @param gameWeight   Weight of the game affinity term.
+     */
+    public MultiObjectiveTeamBuilder(Executor executor, Duration timeBudget, int restarts, double skillWeight,
+                                     double leaderWeight, double roleWeight, double gameWeight) {
+        super(executor);
+        if (restarts < 1){
+            throw new IllegalArgumentException("At least one restart is needed");
+        }
+        this.timeBudget = timeBudget;
+        this.restarts = restarts;
+        this.skillWeight = skillWeight;
+        this.leaderWeight = leaderWeight;
+        this.roleWeight = roleWeight;
+        this.gameWeight = gameWeight;
+    }
+
+    /**
+     * Builds a participant table from the list and optimizes on it.
+     *
+     * @param participants The sorted list of participants.
+     * @param teamSize     The desired number of participants per team.
+     * @return A list of {@link Team} objects after optimizing.
+     */
+    @Override
+    protected List<Team> applyMatchingStrategies(List<Participant> participants, int teamSize) {
+        int[] order = new int[participants.size()];
+        Arrays.setAll(order, i -> i);
+        return applyMatchingStrategies(ParticipantTable.of(participants), order, teamSize);
+    }
+
+    /**
+     * Optimizes with all of the builder's restarts.
+     *
+     * @param table    The participant table.
+     * @param order    Row numbers sorted by skill level.
+     * @param teamSize The desired number of participants per team.
+     * @return A list of {@link Team} objects after optimizing.
+     */
+    @Override
+    protected List<Team> applyMatchingStrategies(ParticipantTable table, int[] order, int teamSize) {
+        return optimize(table, order, teamSize, restarts);
+    }
+
+    /**
+     * Optimizes one of several shards formed at the same time, with the shard's share of
+     * the restarts.
+     *
+     * @param table            The shard's participant table.
+     * @param order            Row numbers sorted by skill level.
+     * @param teamSize         The desired number of participants per team.
+     * @param concurrentShards Number of shards formed at the same time, this one included.
+     * @return A list of {@link Team} objects after optimizing.
+     */
+    @Override
+    protected List<Team> applyMatchingStrategies(ParticipantTable table, int[] order, int teamSize, int concurrentShards) {
+        return optimize(table, order, teamSize, Math.max(1, restarts / concurrentShards));
+    }
+
+    /**
+     * Runs independent restarts in parallel until the time budget runs out and builds
+     * teams from the best one.
+     *
+     * @param table    The participant table.
+     * @param order    Row numbers sorted by skill level.
+     * @param teamSize The desired number of participants per team.
+     * @param restarts Number of restarts to run.
+     * @return A list of {@link Team} objects after optimizing.
+     */
+    private List<Team> optimize(ParticipantTable table, int[] order, int teamSize, int restarts) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        List<CompletableFuture<Search>> runs = new ArrayList<>();
+        for (int i = 1; i < restarts; i++) {
+            final long seed = 0x9E3779B97F4A7C15L * (i + 1);
+            runs.add(CompletableFuture.supplyAsync(() -> {
+                Search search = new Search(table, order, teamSize, seed);
+                search.anneal(deadline);
+                return search;
+            }, getExecutor()));
+        }
+        // The calling thread runs the first restart instead of waiting idle. For a shard this
+        // is a pool worker, which would otherwise hold a thread the other restarts need
+        Search best = new Search(table, order, teamSize, 0x9E3779B97F4A7C15L);
+        best.anneal(deadline);
+
+        for (CompletableFuture<Search> run: runs){
+            Search search = run.join();
+            if (search.bestCost < best.bestCost){
+                best = search;
+            }
+        }
+        return best.toTeams();
+    }
+
+    /**
+     * One annealing run. Keeps the current assignment, per-team counters used for
+     * constant-time cost changes, and the best assignment seen so far.
+     */
+    private final class Search {
+
+        /** The participant table. */
+        private final ParticipantTable table;
+
+        /** Random source for this run. */
+        private final SplittableRandom random;
+
+        /** Number of teams. */
+        private final int noOfTeams;
+
+        /** Members (row numbers) of each team. */
+        private final int[][] members;
+
+        /** Skill sum of each team. */
+        private final long[] skillSums;
+
+        /** Fair skill sum of each team (its size times the overall mean). */
+        private final double[] targets;
+
+        /** Number of Leaders in each team. */
+        private final int[] leaders;
+
+        /** Row-major role counts, {@code noOfTeams x roleCount}. */
+        private final int[] roleCounts;
+
+        /** Row-major game counts, {@code noOfTeams x gameCount}. */
+        private final int[] gameCounts;
+
+        /** Number of role codes. */
+        private final int roleCount;
+
+        /** Number of game codes. */
+        private final int gameCount;
+
+        /** Code of the Leader personality type, or {@code -1} if nobody is a Leader. */
+        private final int leaderCode;
+
+        /** Cost of the current assignment. */
+        private double cost;
+
+        /** Lowest cost seen so far. */
+        private double bestCost;
+
+        /** Copy of the members at the lowest cost seen so far. */
+        private int[][] bestMembers;
+
+        /**
+         * Sets up the starting assignment as a snake draft over the skill order.
+         *
+         * @param table    The participant table.
+         * @param order    Row numbers sorted by skill level.
+         * @param teamSize The desired number of participants per team.
+         * @param seed     Seed of this run's random source.
+         */
+        private Search(ParticipantTable table, int[] order, int teamSize, long seed) {
+            this.table = table;
+            this.random = new SplittableRandom(seed);
+            this.noOfTeams = (int) Math.ceil((double) order.length / teamSize);
+            this.roleCount = table.roleCount();
+            this.gameCount = table.gameCount();
+            this.leaderCode = table.typeCodeOf("Leader");
+            this.members = new int[noOfTeams][];
+            this.skillSums = new long[noOfTeams];
+            this.targets = new double[noOfTeams];
+            this.leaders = new int[noOfTeams];
+            this.roleCounts = new int[noOfTeams * roleCount];
+            this.gameCounts = new int[noOfTeams * gameCount];
+
+            // All teams are full except possibly the last one, like the skill-based builder
+            for (int t = 0; t < noOfTeams; t++) {
+                members[t] = new int[Math.min(teamSize, order.length - t * teamSize)];
+            }
+
+            // Snake draft: one member per team each round, reversing direction every round
+            int[] filled = new int[noOfTeams];
+            int assigned = 0;
+            for (int round = 0; assigned < order.length; round++) {
+                for (int j = 0; j < noOfTeams && assigned < order.length; j++) {
+                    int t = (round % 2 == 0) ? j : noOfTeams - 1 - j;
+                    if (filled[t] < members[t].length){
+                        members[t][filled[t]++] = order[assigned++];
+                    }
+                }
+            }
+
+            long totalSkill = 0;
+            for (int t = 0; t < noOfTeams; t++) {
+                for (int row: members[t]){
+                    skillSums[t] += table.skillLevel(row);
+                    leaders[t] += isLeader(row);
+                    roleCounts[t * roleCount + table.roleCode(row)]++;
+                    gameCounts[t * gameCount + table.gameCode(row)]++;
+                }
+                totalSkill += skillSums[t];
+            }
+            double mean = order.length == 0 ? 0 : (double) totalSkill / order.length;
+            for (int t = 0; t < noOfTeams; t++) {
+                targets[t] = members[t].length * mean;
+            }
+
+            this.cost = totalCost();
+            this.bestCost = cost;
+            this.bestMembers = copyMembers();
+        }
+
+        /** @return {@code 1} if the participant in {@code row} is a Leader, otherwise {@code 0}. */
+        private int isLeader(int row) {
+            return table.typeCode(row) == leaderCode ? 1 : 0;
+        }
+
+        /**
+         * Computes the full cost of the current assignment.
+         *
+         * @return The weighted cost.
+         */
+        private double totalCost() {
+            double total = 0;
+            for (int t = 0; t < noOfTeams; t++) {
+                double skillGap = skillSums[t] - targets[t];
+                int leaderGap = leaders[t] - 1;
+                total += skillWeight * skillGap * skillGap + leaderWeight * leaderGap * leaderGap;
+                for (int r = 0; r < roleCount; r++) {
+                    int count = roleCounts[t * roleCount + r];
+                    total += roleWeight * count * (count - 1) / 2.0;
+                }
+                for (int g = 0; g < gameCount; g++) {
+                    int count = gameCounts[t * gameCount + g];
+                    total -= gameWeight * count * (count - 1) / 2.0;
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Computes how much the cost changes if {@code rowA} (in team {@code a}) and
+         * {@code rowB} (in team {@code b}) swap teams, without changing anything.
+         *
+         * @return The cost change; negative means the swap improves the assignment.
+         */
+        private double swapDelta(int a, int rowA, int b, int rowB) {
+            double delta = 0;
+
+            int skillChange = table.skillLevel(rowB) - table.skillLevel(rowA);
+            if (skillChange != 0){
+                double gapA = skillSums[a] - targets[a];
+                double gapB = skillSums[b] - targets[b];
+                delta += skillWeight * ((gapA + skillChange) * (gapA + skillChange) - gapA * gapA
+                        + (gapB - skillChange) * (gapB - skillChange) - gapB * gapB);
+            }
+
+            int leaderChange = isLeader(rowB) - isLeader(rowA);
+            if (leaderChange != 0){
+                int gapA = leaders[a] - 1;
+                int gapB = leaders[b] - 1;
+                delta += leaderWeight * ((gapA + leaderChange) * (gapA + leaderChange) - gapA * gapA
+                        + (gapB - leaderChange) * (gapB - leaderChange) - gapB * gapB);
+            }
+
+            int roleA = table.roleCode(rowA);
+            int roleB = table.roleCode(rowB);
+            if (roleA != roleB){
+                // Pairs lost by the leaving member, pairs gained by the arriving one
+                int pairs = -(roleCounts[a * roleCount + roleA] - 1) + roleCounts[a * roleCount + roleB]
+                        - (roleCounts[b * roleCount + roleB] - 1) + roleCounts[b * roleCount + roleA];
+                delta += roleWeight * pairs;
+            }
+
+            int gameA = table.gameCode(rowA);
+            int gameB = table.gameCode(rowB);
+            if (gameA != gameB){
+                int pairs = -(gameCounts[a * gameCount + gameA] - 1) + gameCounts[a * gameCount + gameB]
+                        - (gameCounts[b * gameCount + gameB] - 1) + gameCounts[b * gameCount + gameA];
+                delta -= gameWeight * pairs;
+            }
+            return delta;
+        }
+
+        /**
+         * Swaps two members and updates the per-team counters.
+         */
+        private void swap(int a, int indexA, int b, int indexB) {
+            int rowA = members[a][indexA];
+            int rowB = members[b][indexB];
+            members[a][indexA] = rowB;
+            members[b][indexB] = rowA;
+
+            int skillChange = table.skillLevel(rowB) - table.skillLevel(rowA);
+            skillSums[a] += skillChange;
+            skillSums[b] -= skillChange;
+
+            int leaderChange = isLeader(rowB) - isLeader(rowA);
+            leaders[a] += leaderChange;
+            leaders[b] -= leaderChange;
+
+            roleCounts[a * roleCount + table.roleCode(rowA)]--;
+            roleCounts[a * roleCount + table.roleCode(rowB)]++;
+            roleCounts[b * roleCount + table.roleCode(rowB)]--;
+            roleCounts[b * roleCount + table.roleCode(rowA)]++;
+
+            gameCounts[a * gameCount + table.gameCode(rowA)]--;
+            gameCounts[a * gameCount + table.gameCode(rowB)]++;
+            gameCounts[b * gameCount + table.gameCode(rowB)]--;
+            gameCounts[b * gameCount + table.gameCode(rowA)]++;
+        }
+
+        /**
+         * Runs simulated annealing on random member swaps until the deadline. The temperature
+         * falls geometrically with the share of the time budget used so far.
+         *
+         * @param deadline {@link System#nanoTime()} value at which to stop.
+         */
+        private void anneal(long deadline) {
+            if (noOfTeams < 2){
+                return;
+            }
+            long start = System.nanoTime();
+            double span = Math.max(1, deadline - start);
+            // Copying the assignment is O(n), so the best one is only saved now and then
+            long copyInterval = (long) (span / 100);
+            long lastCopy = start;
+            double startTemperature = startingTemperature();
+            double temperature = startTemperature;
+
+            for (long iteration = 0; ; iteration++) {
+                if (iteration % CLOCK_CHECK_INTERVAL == 0){
+                    long now = System.nanoTime();
+                    if (now >= deadline){
+                        break;
+                    }
+                    temperature = startTemperature * Math.pow(COOLING_RATIO, (now - start) / span);
+                    if (cost < bestCost && now - lastCopy >= copyInterval){
+                        bestCost = cost;
+                        bestMembers = copyMembers();
+                        lastCopy = now;
+                    }
+                }
+
+                int a = random.nextInt(noOfTeams);
+                int b = random.nextInt(noOfTeams - 1);
+                if (b >= a){
+                    b++;
+                }
+                int indexA = random.nextInt(members[a].length);
+                int indexB = random.nextInt(members[b].length);
+
+                double delta = swapDelta(a, members[a][indexA], b, members[b][indexB]);
+                if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)){
+                    swap(a, indexA, b, indexB);
+                    cost += delta;
+                }
+            }
+
+            if (cost < bestCost){
+                bestCost = cost;
+                bestMembers = copyMembers();
+            }
+        }
+
+        /**
+         * Estimates a starting temperature from the average size of random swap changes.
+         *
+         * @return The starting temperature.
+         */
+        private double startingTemperature() {
+            double total = 0;
+            int samples = 200;
+            for (int i = 0; i < samples; i++) {
+                int a = random.nextInt(noOfTeams);
+                int b = (a + 1 + random.nextInt(noOfTeams - 1)) % noOfTeams;
+                total += Math.abs(swapDelta(a, members[a][random.nextInt(members[a].length)],
+                        b, members[b][random.nextInt(members[b].length)]));
+            }
+            return Math.max(total / samples, 1e-6);
+        }
+
+        /** @return A deep copy of the current members. */
+        private int[][] copyMembers() {
+            int[][] copy = new int[noOfTeams][];
+            for (int t = 0; t < noOfTeams; t++) {
+                copy[t] = members[t].clone();
+            }
+            return copy;
+        }
+
+        /**
+         * Builds the teams of the best assignment found.
+         *
+         * @return A read-only list of teams.
+         */
+        private List<Team> toTeams() {
+            Team[] teams = new Team[noOfTeams];
+            for (int t = 0; t < noOfTeams; t++) {
+                Participant[] team = new Participant[bestMembers[t].length];
+                for (int i = 0; i < team.length; i++) {
+                    team[i] = table.participant(bestMembers[t][i]);
+                }
+                teams[t] = new Team(t + 1, "Team", team);
+            }
+            return Collections.unmodifiableList(Arrays.asList(teams));
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package TeamMateSystem;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The {@code Organizer} class represents a system user with privileges to log in to the system, manage
@@ -25,8 +27,8 @@ public class Organizer extends User {
     /** The organizer's account containing username and password credentials. */
     private final Account account;
 
-    /** Strategy pattern: builds teams based on skill levels (default strategy). */
-    private final TeamBuilder teamBuilder = new SkillBasedTeamBuilder();
+    /** Strategy pattern: builds teams based on skill levels unless another strategy is given. */
+    private final TeamBuilder teamBuilder;
 
     /**
      * Constructs an Organizer with the given username and password.
@@ -35,7 +37,20 @@ public class Organizer extends User {
      * @param password The organizer's login password.
      */
     public Organizer(String username, String password) {
+        this(username, password, new SkillBasedTeamBuilder());
+    }
+
+    /**
+     * Constructs an Organizer that forms teams with the given strategy
+     * (e.g., {@link MultiObjectiveTeamBuilder}).
+     *
+     * @param username    The organizer's login username.
+     * @param password    The organizer's login password.
+     * @param teamBuilder The team formation strategy.
+     */
+    public Organizer(String username, String password, TeamBuilder teamBuilder) {
         this.account = new Account(username, password);
+        this.teamBuilder = teamBuilder;
     }
 
     /**
@@ -72,6 +87,20 @@ public class Organizer extends User {
         return csvFileHandler.readFile(filePath);
     }
 
+    /**
+     * Uploads a CSV file containing participant data, streaming each participant
+     * to the given consumer as soon as its row is read.
+     *
+     * @param filePath        The path of the CSV file to read.
+     * @param csvFileHandler  The handler responsible for parsing CSV files.
+     * @param consumer        Receives each participant read from the file.
+     * @return The number of rows processed.
+     * @throws IOException If the file cannot be opened or read.
+     */
+    public int uploadCsvFile(String filePath, CsvFileHandler csvFileHandler, Consumer<Participant> consumer) throws IOException {
+        return csvFileHandler.readParticipants(filePath, consumer);
+    }
+
     /**
      * Initiates the formation of teams using the constructed {@link TeamBuilder} class.
      *
@@ -80,7 +109,20 @@ public class Organizer extends User {
      * @return A list of teams created by the team builder.
      */
     public List<Team> initiateTeamFormation(List<Participant> participants, int teamSize){
-        return teamBuilder.buildTeam(participants, teamSize);
+        // Formation runs on primitive columns; participant objects are only used to fill the teams
+        return teamBuilder.buildTeam(ParticipantTable.of(participants), teamSize);
+    }
+
+    /**
+     * Initiates the formation of teams separately for the players of each preferred game.
+     *
+     * @param participants The list of participants to divide into teams.
+     * @param teamSize     The desired number of participants per team.
+     * @param leftovers    What to do with games that have too few players for a team.
+     * @return A list of teams created by the team builder, with unique IDs across all games.
+     */
+    public List<Team> initiateTeamFormationByGame(List<Participant> participants, int teamSize, TeamBuilder.LeftoverPolicy leftovers){
+        return teamBuilder.buildTeamsByGame(participants, teamSize, leftovers);
     }
 
     /**
@@ -94,6 +136,21 @@ public class Organizer extends User {
         csvFileHandler.saveFile(teams);
     }
 
+    /**
+     * Saves the formed teams to a file in the given format using the specified file handler.
+     *
+     * @param teams          The teams to save.
+     * @param csvFileHandler The handler responsible for saving files.
+     * @param path           The file to write.
+     * @param format         The layout of the file.
+     * @param gzip           Whether to compress the file with GZIP.
+     * @throws IOException If writing to the file fails.
+     */
+    public void saveFormedTeams(List<Team> teams, CsvFileHandler csvFileHandler, Path path, TeamExporter.Format format,
+                                boolean gzip) throws IOException{
+        csvFileHandler.saveFile(teams, path, format, gzip);
+    }
+
     /**
      * Allows the organizer to view existing teams.
      *
@@ -0,0 +1,276 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * The {@code ParallelCsvReader} class parses large participants CSV files on
+ * several cores at once. The file is memory-mapped, cut into newline-aligned
+ * chunks, and each chunk is parsed on a {@link ForkJoinPool} directly into
+ * {@link Participant} objects.
+ *
+ * <p>Lines are split on raw comma bytes instead of {@link String#split(String)},
+ * but the resulting rows match what {@link CsvFileHandler#readFile(String)} produces:
+ * the header is skipped, {@code \n}, {@code \r} and {@code \r\n} all end a line,
+ * and trailing empty fields are dropped.</p>
+ *
+ * <p>Chunks are processed in small windows and handed to the visitor in file order,
+ * so only a bounded number of parsed chunks are held in memory at a time.</p>
+ */
+public class ParallelCsvReader {
+
+    /** Default number of bytes per chunk before aligning to the next newline. */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    /** Pool used to parse the chunks. */
+    private final ForkJoinPool pool;
+
+    /** Target size of a chunk in bytes. */
+    private final int chunkSize;
+
+    /** Vocabularies of the event the read participants take part in. */
+    private final EventVocabulary vocabulary;
+
+    /** Charset used to decode the fields (same as {@link java.io.FileReader}'s default). */
+    private final Charset charset = Charset.defaultCharset();
+
+    /**
+     * Constructs a reader that uses the common fork-join pool and the default chunk size.
+     *
+     * @param vocabulary Vocabularies of the event the read participants take part in.
+     */
+    public ParallelCsvReader(EventVocabulary vocabulary) {
+        this(vocabulary, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a reader with a specific pool and chunk size.
+     *
+     * @param vocabulary Vocabularies of the event the read participants take part in.
+     * @param pool       The pool the chunks are parsed on.
+     * @param chunkSize  The target size of a chunk in bytes.
+     */
+    public ParallelCsvReader(EventVocabulary vocabulary, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0){
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.vocabulary = vocabulary;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns whether this reader can split the file on raw bytes. This only holds for
+     * charsets where commas and line breaks are always single bytes.
+     *
+     * @return {@code true} if the default charset is supported.
+     */
+    public boolean supportsCharset() {
+        String name = charset.name();
+        return name.equals("UTF-8") || name.equals("US-ASCII") || name.equals("ISO-8859-1");
+    }
+
+    /**
+     * Reads a participants CSV file in parallel and hands each participant to the
+     * visitor in file order. The first line (header) is skipped automatically.
+     *
+     * @param filePath The path to the CSV file.
+     * @param visitor  Receives each participant in file order.
+     * @return The number of rows processed.
+     * @throws IOException If the file cannot be opened or read.
+     */
+    public int readParticipants(String filePath, Consumer<Participant> visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = skipLine(channel, 0, size);
+            int window = Math.max(1, pool.getParallelism() * 2);
+            int rows = 0;
+
+            while (position < size) {
+                // Submit a window of chunks, then hand them over in order before mapping more
+                List<Future<List<Participant>>> chunks = new ArrayList<>(window);
+                while (chunks.size() < window && position < size) {
+                    long end = nextBoundary(channel, position, size);
+                    if (end - position > Integer.MAX_VALUE){
+                        throw new IOException("Line too long near byte " + position);
+                    }
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                    chunks.add(pool.submit(() -> parseChunk(buffer)));
+                    position = end;
+                }
+                for (Future<List<Participant>> chunk: chunks) {
+                    for (Participant participant: await(chunk)) {
+                        visitor.accept(participant);
+                        rows++;
+                    }
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Waits for a parsed chunk, unwrapping any failure thrown while parsing it.
+     *
+     * @param chunk The chunk being parsed.
+     * @return The participants in the chunk.
+     * @throws IOException If the wait was interrupted.
+     */
+    private List<Participant> await(Future<List<Participant>> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing CSV file", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException){
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the position just after the line starting at {@code position}.
+     *
+     * @param channel  The file channel.
+     * @param position Start of the line.
+     * @param size     Size of the file.
+     * @return Position of the first byte of the next line.
+     * @throws IOException If the file cannot be read.
+     */
+    private long skipLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0){
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n'){
+                    return position + i + 1;
+                }
+                if (b == '\r'){
+                    // A lone \r also ends a line, just like BufferedReader.readLine()
+                    long next = position + i + 1;
+                    if (next < size){
+                        ByteBuffer one = ByteBuffer.allocate(1);
+                        channel.read(one, next);
+                        if (one.get(0) == '\n'){
+                            next++;
+                        }
+                    }
+                    return next;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Finds the end of a chunk starting at {@code start}. The chunk ends just after the
+     * first {@code \n} at or past the target chunk size, so no line is ever cut in half.
+     *
+     * @param channel The file channel.
+     * @param start   Start of the chunk.
+     * @param size    Size of the file.
+     * @return Position just after the end of the chunk.
+     * @throws IOException If the file cannot be read.
+     */
+    private long nextBoundary(FileChannel channel, long start, long size) throws IOException {
+        long position = start + chunkSize - 1;
+        if (position >= size){
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0){
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n'){
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses every line in a chunk into a participant.
+     *
+     * @param buffer The mapped chunk.
+     * @return The participants in chunk order.
+     */
+    private List<Participant> parseChunk(MappedByteBuffer buffer) {
+        List<Participant> participants = new ArrayList<>();
+        byte[] line = new byte[256];
+        int limit = buffer.limit();
+        int i = 0;
+
+        while (i < limit) {
+            int length = 0;
+            byte b = 0;
+            while (i < limit && (b = buffer.get(i)) != '\n' && b != '\r') {
+                if (length == line.length){
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+                i++;
+            }
+            if (i < limit){
+                i++;
+                if (b == '\r' && i < limit && buffer.get(i) == '\n'){
+                    i++;
+                }
+            }
+            participants.add(Participant.covertRow(splitLine(line, length), vocabulary));
+        }
+        return participants;
+    }
+
+    /**
+     * Splits a line on commas with the same rules as {@code String.split(",")}:
+     * an empty line gives one empty field, otherwise trailing empty fields are dropped.
+     *
+     * @param line   The line bytes.
+     * @param length Number of valid bytes in {@code line}.
+     * @return The fields of the line.
+     */
+    private String[] splitLine(byte[] line, int length) {
+        if (length == 0){
+            return new String[]{""};
+        }
+        List<String> fields = new ArrayList<>(8);
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line[i] == ','){
+                fields.add(new String(line, start, i - start, charset));
+                start = i + 1;
+            }
+        }
+        int count = fields.size();
+        while (count > 0 && fields.get(count - 1).isEmpty()) {
+            count--;
+        }
+        return fields.subList(0, count).toArray(new String[0]);
+    }
+}
@@ -13,11 +13,17 @@ import java.util.*;
  */
 public class Participant extends User {
 
-    /** Auto-incrementing counter used to generate unique participant IDs. */
-    private static int counter = 1;
+    /** Lowest valid skill level. */
+    public static final int MIN_SKILL_LEVEL = 1;
 
-    /** Unique identifier for the participant (e.g., P1, P2...). */
-    private String id;
+    /** Highest valid skill level. */
+    public static final int MAX_SKILL_LEVEL = 10;
+
+    /** Number of the participant's unique ID (e.g., 1 for P1), or {@link ParticipantIdAllocator#NO_NUMBER}. */
+    private long id;
+
+    /** The ID as given, when it is not written the way {@link ParticipantIdAllocator#format(long)} writes it (e.g., P001). */
+    private String idText;
 
     /** Participant's full name. */
     private String name;
@@ -25,59 +31,107 @@ public class Participant extends User {
     /** Participant's contact email. */
     private String email;
 
-    /** The participant's preferred game. */
-    private String preferredGame;
+    /** Vocabularies of the event the participant takes part in, which decode the codes below. */
+    private EventVocabulary vocabulary;
+
+    /** The participant's preferred game, as a {@link EventVocabulary#games()} code. */
+    private short gameCode;
 
     /** The participant's skill level (from 1 to 10). */
     private int skillLevel;
 
-    /** The participant's preferred team role (e.g., Strategist, Attacker, etc.). */
-    private String preferredRole;
+    /** The participant's preferred team role (e.g., Strategist, Attacker, etc.), as a {@link EventVocabulary#roles()} code. */
+    private short roleCode;
 
     /** Calculated personality score from survey answers. */
     private int personalityScore;
 
-    /** Personality type (e.g., Leader, Balanced, Thinker). */
-    private String personalityType;
-
-    /** Stores survey responses by question number and answer. */
-    private Map<Integer, String> responses = new HashMap<>();
+    /** Personality type (e.g., Leader, Balanced, Thinker), as a {@link EventVocabulary#personalityTypes()} code. */
+    private short typeCode;
 
-    /** Personality classifier used to calculate and classify personality score and type. */
-    private PersonalityClassifier classifier;
+    /** Position of this participant's responses in the survey's response store ({@code -1} if none). */
+    private int surveyOrdinal = -1;
 
     /**
-     * Creates a new participant with auto-generated ID.
+     * Creates a new participant with an ID from {@link ParticipantIdAllocator}.
      *
-     * @param name  The participant's name.
-     * @param email The participant's email.
+     * @param name       The participant's name.
+     * @param email      The participant's email.
+     * @param vocabulary Vocabularies of the event the participant takes part in.
      */
-    public Participant(String name, String email) {
-        this.id = "P" + counter++;
+    public Participant(String name, String email, EventVocabulary vocabulary) {
+        this.id = ParticipantIdAllocator.get().next();
         this.name = name;
         this.email = email;
+        this.vocabulary = vocabulary;
     }
 
     /**
      * Creates a participant with fully specified attributes. Used when reading from CSV.
+     * The game, role and personality type are stored as codes of the given event's
+     * vocabularies, and the ID as a number.
      */
     public Participant(String id, String name, String email, String preferredGame, int skillLevel, String preferredRole,
-                       int personalityScore, String personalityType) {
-        this.id = id;
+                       int personalityScore, String personalityType, EventVocabulary vocabulary) {
+        this.id = ParticipantIdAllocator.parse(id);
+        if (this.id == ParticipantIdAllocator.NO_NUMBER || !ParticipantIdAllocator.format(this.id).equals(id)){
+            this.idText = id;
+        }
         this.name = name;
         this.email = email;
-        this.preferredGame = preferredGame;
+        this.vocabulary = vocabulary;
+        this.gameCode = (short) vocabulary.games().register(preferredGame);
         this.skillLevel = skillLevel;
-        this.preferredRole = preferredRole;
+        this.roleCode = (short) vocabulary.roles().register(preferredRole);
         this.personalityScore = personalityScore;
-        this.personalityType = personalityType;
+        this.typeCode = (short) vocabulary.personalityTypes().register(personalityType);
     }
 
     /** @return The participant's unique ID. */
     public String getId() {
+        return idText != null ? idText : ParticipantIdAllocator.format(id);
+    }
+
+    /** @return The number of the participant's ID, or {@link ParticipantIdAllocator#NO_NUMBER} if it has none. */
+    public long getIdNumber() {
         return id;
     }
 
+    /** @return The participant's name. */
+    public String getName() {
+        return name;
+    }
+
+    /** @return The participant's email. */
+    public String getEmail() {
+        return email;
+    }
+
+    /** @return The participant's preferred game. */
+    public String getPreferredGame() {
+        return vocabulary.games().value(gameCode);
+    }
+
+    /** @return The participant's preferred game as a {@link EventVocabulary#games()} code, {@code 0} if none. */
+    public int getPreferredGameCode() {
+        return gameCode;
+    }
+
+    /** @return The participant's preferred role. */
+    public String getPreferredRole() {
+        return vocabulary.roles().value(roleCode);
+    }
+
+    /** @return The participant's preferred role as a {@link EventVocabulary#roles()} code, {@code 0} if none. */
+    public int getPreferredRoleCode() {
+        return roleCode;
+    }
+
+    /** @return The participant's personality score. */
+    public int getPersonalityScore() {
+        return personalityScore;
+    }
+
     /** @return The participant's skill level. */
     public int getSkillLevel() {
         return skillLevel;
@@ -85,12 +139,41 @@ public class Participant extends User {
 
     /** @return The participant's personality type. */
     public String getPersonalityType() {
-        return personalityType;
+        return vocabulary.personalityTypes().value(typeCode);
+    }
+
+    /** @return The participant's personality type as a {@link EventVocabulary#personalityTypes()} code, {@code 0} if none. */
+    public int getPersonalityTypeCode() {
+        return typeCode;
+    }
+
+    /** @return The vocabularies of the event the participant takes part in. */
+    public EventVocabulary getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Moves the participant to another event's vocabularies, re-coding the game, role and
+     * personality type. Used when a participant made for one event joins another.
+     *
+     * @param target The vocabularies to code the values with from now on.
+     */
+    void useVocabulary(EventVocabulary target) {
+        if (target == vocabulary){
+            return;
+        }
+        short game = (short) target.games().register(getPreferredGame());
+        short role = (short) target.roles().register(getPreferredRole());
+        short type = (short) target.personalityTypes().register(getPersonalityType());
+        this.vocabulary = target;
+        this.gameCode = game;
+        this.roleCode = role;
+        this.typeCode = type;
     }
 
     /** sets the participant's preferred game. */
     public void setPreferredGame(String preferredGame) {
-        this.preferredGame = preferredGame;
+        this.gameCode = (short) vocabulary.games().register(preferredGame);
     }
 
     /** sets the participant's skill level. */
@@ -100,37 +183,61 @@ public class Participant extends User {
 
     /** sets the participant's preferred role. */
     public void setPreferredRole(String preferredRole) {
-        this.preferredRole = preferredRole;
+        this.roleCode = (short) vocabulary.roles().register(preferredRole);
+    }
+
+    /** @return The participant's survey ordinal, or {@code -1} if not registered for the survey. */
+    public int getSurveyOrdinal() {
+        return surveyOrdinal;
+    }
+
+    /** sets the participant's survey ordinal. */
+    public void setSurveyOrdinal(int surveyOrdinal) {
+        this.surveyOrdinal = surveyOrdinal;
     }
 
     /**
-     * Records an answer for a specific survey question.
+     * Generates the participant's personality score and type based on the
+     * survey responses, using the same scale and thresholds as {@link PersonalityClassifier}.
      *
-     * @param questionNo The question number being answered.
-     * @param answer     The participant's response.
+     * @param responses The participant's packed survey responses (see {@link SurveyResponseStore}).
      */
-    public void fillSurvey(int questionNo, String answer){
-        responses.put(questionNo, answer);
+    public void viewPersonalityType(long responses){
+        setPersonality(PersonalityScorer.score(responses));
     }
 
     /**
-     * Generates the participant's personality score and type based on the
-     * survey responses using a {@link PersonalityClassifier} class.
+     * Sets the participant's personality score and the type it classifies as.
+     *
+     * @param personalityScore The personality score.
      */
-    public void viewPersonalityType(){
-        classifier = new PersonalityClassifier(new ArrayList<>(responses.values()));
-        personalityScore = classifier.calculateScore();
-        personalityType = classifier.classify();
+    public void setPersonality(int personalityScore){
+        setPersonality(personalityScore, PersonalityScorer.classify(personalityScore));
+    }
+
+    /**
+     * Sets the participant's personality score and a type already classified from it,
+     * for example by {@link PersonalityScorer#scoreParallel(long[], int[], byte[])}.
+     *
+     * @param personalityScore The personality score.
+     * @param typeCode         The {@link PersonalityScorer} type code of the score.
+     */
+    public void setPersonality(int personalityScore, byte typeCode){
+        this.personalityScore = personalityScore;
+        // Type codes are shared with PersonalityScorer, so no type name is looked up
+        this.typeCode = typeCode;
     }
 
     /**
      * Converts a CSV row into a {@code Participant} object.
      *
-     * @param row A {@code String[]} representing one CSV row.
+     * @param row        A {@code String[]} representing one CSV row.
+     * @param vocabulary Vocabularies of the event the participant takes part in.
      * @return A {@code Participant} populated with CSV data.
      */
-    public static Participant covertRow(String[] row){
-        return new Participant(row[0], row[1], row[2], row[3], Integer.parseInt(row[4]), row[5], Integer.parseInt(row[6]), row[7]);
+    public static Participant covertRow(String[] row, EventVocabulary vocabulary){
+        return new Participant(row[0], row[1], row[2], row[3], Integer.parseInt(row[4]), row[5], Integer.parseInt(row[6]),
+                row[7], vocabulary);
     }
 
     /**
@@ -139,7 +246,7 @@ public class Participant extends User {
      * @return A readable summary including ID, name, and email.
      */
     public String details(){
-        return "ID: " + this.id + ", Name: " + this.name + ", Email: " + this.email;
+        return "ID: " + getId() + ", Name: " + this.name + ", Email: " + this.email;
     }
 
     /**
@@ -160,6 +267,17 @@ public class Participant extends User {
         return null;
     }
 
+    /**
+     * Looks up the team this participant belongs to through a reverse index, in constant time.
+     *
+     * @param index The reverse index of the formed teams.
+     * @return A list containing this participant's team, or {@code null} if not assigned.
+     */
+    public List<Team> viewTeams(TeamIndex index) {
+        Team team = index.teamOf(getId());
+        return team == null ? null : List.of(team);
+    }
+
     /**
      * Converts the participant's data into a CSV-formatted string.
      *
@@ -167,6 +285,6 @@ public class Participant extends User {
      */
     @Override
     public String toString() {
-        return id + "," + name + "," + email + "," + preferredGame + "," + skillLevel + "," + preferredRole + "," + personalityScore + "," + personalityType;
+        return getId() + "," + name + "," + email + "," + getPreferredGame() + "," + skillLevel + "," + getPreferredRole() + "," + personalityScore + "," + getPersonalityType();
     }
 }
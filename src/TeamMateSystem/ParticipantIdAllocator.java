@@ -0,0 +1,189 @@
+package TeamMateSystem;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code ParticipantIdAllocator} class hands out unique participant IDs without locking.
+ *
+ * <p>IDs are plain numbers inside the system; the {@value #PREFIX} prefix is added only when
+ * an ID is shown or written out (see {@link #format(long)}).</p>
+ *
+ * <ul>
+ *     <li>The number space is split into blocks of {@code blockSize} IDs. Each thread draws
+ *     IDs from the block of its stripe with a single compare-and-set, and only goes to the
+ *     shared block counter when the block is used up, so threads registering participants
+ *     at the same time rarely touch the same memory. IDs from one thread are increasing;
+ *     IDs from different threads interleave, and some numbers are never used.</li>
+ *     <li>IDs already taken outside the allocator (in the participant store, the
+ *     participants CSV file or the survey journal) are reported with {@link #reserve(long)}
+ *     when the controller starts. No ID at or
+ *     below the highest reserved number is handed out again, so new participants never
+ *     collide with the ones from an earlier run.</li>
+ * </ul>
+ */
+public class ParticipantIdAllocator {
+
+    /** Prefix of participant IDs when shown or written out. */
+    public static final String PREFIX = "P";
+
+    /** Number returned by {@link #parse(String)} for IDs that are not a prefixed number. */
+    public static final long NO_NUMBER = -1;
+
+    /** Default number of IDs a stripe takes from the shared counter at a time. */
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    /** Spacing between stripes in {@link #stripes}, so every stripe sits on its own cache lines. */
+    private static final int PADDING = 16;
+
+    /** The allocator new participants take their IDs from. */
+    private static final ParticipantIdAllocator INSTANCE =
+            new ParticipantIdAllocator(DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors() * 2);
+
+    /** Number of IDs in a block. */
+    private final int blockSize;
+
+    /** Mask that turns a thread hash into a stripe number. */
+    private final int mask;
+
+    /**
+     * Next ID of each stripe's block, every {@link #PADDING}th element. A multiple of
+     * {@link #blockSize} means the block is used up (or none was taken yet).
+     */
+    private final AtomicLongArray stripes;
+
+    /** Number of the next block no stripe has taken. */
+    private final AtomicLong nextBlock = new AtomicLong();
+
+    /** Highest ID taken outside the allocator; only IDs above it are handed out. */
+    private final AtomicLong reserved = new AtomicLong();
+
+    /**
+     * Creates an allocator that starts at ID 1.
+     *
+     * @param blockSize The number of IDs a stripe takes at a time.
+     * @param stripes   The number of stripes, rounded up to a power of two.
+     */
+    public ParticipantIdAllocator(int blockSize, int stripes) {
+        if (blockSize <= 0 || stripes <= 0){
+            throw new IllegalArgumentException("Block size and stripes must be positive");
+        }
+        int count = Math.max(1, Integer.highestOneBit(stripes - 1) << 1);
+        this.blockSize = blockSize;
+        this.mask = count - 1;
+        this.stripes = new AtomicLongArray(count * PADDING);
+    }
+
+    /**
+     * Returns the allocator new participants take their IDs from.
+     *
+     * @return The shared allocator.
+     */
+    public static ParticipantIdAllocator get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Hands out a new ID.
+     *
+     * @return An ID above every reserved ID and different from every ID handed out before.
+     */
+    public long next() {
+        int slot = stripeOf(Thread.currentThread()) * PADDING;
+        while (true) {
+            long current = stripes.get(slot);
+            long id;
+            if (current % blockSize != 0){
+                if (!stripes.compareAndSet(slot, current, current + 1)){
+                    continue;
+                }
+                id = current;
+            }
+            else {
+                // The block is used up; take a fresh one. If another thread on this stripe
+                // installed one first, the rest of ours is simply never used.
+                id = nextBlock.getAndIncrement() * blockSize;
+                stripes.compareAndSet(slot, current, id + 1);
+            }
+            // Skips IDs taken before the block was handed out, including 0
+            if (id > reserved.get()){
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Records that an ID is already taken, so it and every ID below it are never handed out.
+     *
+     * @param id The taken ID's number; negative numbers are ignored.
+     */
+    public void reserve(long id) {
+        if (id <= reserved.get()){
+            return;
+        }
+        reserved.accumulateAndGet(id, Math::max);
+        // Blocks below the one holding the ID are of no use any more
+        nextBlock.accumulateAndGet(id / blockSize, Math::max);
+    }
+
+    /**
+     * Records that an ID is already taken, if it is a prefixed number.
+     *
+     * @param id The taken ID as shown.
+     */
+    public void reserve(String id) {
+        reserve(parse(id));
+    }
+
+    /**
+     * Returns the highest ID taken outside the allocator.
+     *
+     * @return The highest reserved ID, or 0 if none was reserved.
+     */
+    public long getReserved() {
+        return reserved.get();
+    }
+
+    /**
+     * Formats an ID for display.
+     *
+     * @param id The ID's number.
+     * @return The prefixed ID, e.g. {@code P12}.
+     */
+    public static String format(long id) {
+        return PREFIX + id;
+    }
+
+    /**
+     * Reads the number of an ID shown as the prefix followed by digits ({@code P12}, {@code P001}).
+     *
+     * @param id The ID as shown.
+     * @return The number, or {@link #NO_NUMBER} if the ID has another form.
+     */
+    public static long parse(String id) {
+        int length = id == null ? 0 : id.length();
+        if (length <= PREFIX.length() || length > PREFIX.length() + 18 || !id.startsWith(PREFIX)){
+            return NO_NUMBER;
+        }
+        long value = 0;
+        for (int i = PREFIX.length(); i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9'){
+                return NO_NUMBER;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Picks the stripe of a thread.
+     *
+     * @param thread The thread.
+     * @return The stripe number.
+     */
+    private int stripeOf(Thread thread) {
+        long hash = thread.threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
@@ -0,0 +1,87 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * The {@code ParticipantRepository} interface is where participants are persisted.
+ *
+ * <p>The controller saves and loads participants only through this interface. The main
+ * implementation is the embedded {@link SegmentLogParticipantStore}; CSV files are
+ * imported into and exported from a repository by {@link CsvParticipantAdapter}.</p>
+ */
+public interface ParticipantRepository extends AutoCloseable {
+
+    /**
+     * Stores a participant, replacing any stored participant with the same ID.
+     *
+     * @param participant The participant.
+     * @throws IOException If the participant cannot be stored.
+     */
+    void save(Participant participant) throws IOException;
+
+    /**
+     * Stores a participant unless one with the same ID is already stored.
+     *
+     * @param participant The participant.
+     * @return {@code true} if the participant was stored.
+     * @throws IOException If the participant cannot be stored.
+     */
+    boolean saveIfAbsent(Participant participant) throws IOException;
+
+    /**
+     * Loads a participant by ID.
+     *
+     * @param participantId The participant's ID.
+     * @return The participant, or {@code null} if none is stored with that ID.
+     * @throws IOException If the participant cannot be read.
+     */
+    Participant find(String participantId) throws IOException;
+
+    /**
+     * Removes a participant.
+     *
+     * @param participantId The participant's ID.
+     * @return {@code true} if a participant with that ID was stored.
+     * @throws IOException If the removal cannot be stored.
+     */
+    boolean delete(String participantId) throws IOException;
+
+    /**
+     * Returns the number of stored participants.
+     *
+     * @return The number of participants.
+     */
+    int size();
+
+    /**
+     * Hands every stored participant to a visitor. The visitor must not change the repository.
+     *
+     * @param visitor Receives each participant.
+     * @return The number of participants visited.
+     * @throws IOException If the participants cannot be read.
+     */
+    int forEach(Consumer<Participant> visitor) throws IOException;
+
+    /**
+     * Hands the ID of every stored participant to a visitor, without loading the participants.
+     *
+     * @param visitor Receives each ID.
+     */
+    void forEachId(Consumer<String> visitor);
+
+    /**
+     * Makes everything stored so far durable.
+     *
+     * @throws IOException If the data cannot be written.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Flushes and releases the repository.
+     *
+     * @throws IOException If the data cannot be written.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,371 @@
+package TeamMateSystem;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The {@code ParticipantSnapshot} class is a compact binary copy of a set of participants,
+ * written next to the participants CSV so it can be reloaded without parsing text.
+ *
+ * <p>The file is laid out in columns:</p>
+ * <ul>
+ *     <li>A header with the size and last-modified time of the CSV it was made from.</li>
+ *     <li>Dictionaries for game, role and personality type; each row stores a one-byte code.</li>
+ *     <li>Fixed-width {@code int} columns for skill level and personality score.</li>
+ *     <li>A string table holding every ID, name and email, addressed by offset.</li>
+ * </ul>
+ *
+ * <p>{@link #open(Path)} memory-maps the file and reads values straight from the mapping,
+ * so opening a snapshot costs the same no matter how many participants it holds. Strings
+ * are only decoded when they are asked for.</p>
+ */
+public class ParticipantSnapshot {
+
+    /** Marks the start of a snapshot file ("TMPS"). */
+    private static final int MAGIC = 0x544D5053;
+
+    /** Version of the file layout (2: dictionary values are length-prefixed standard UTF-8). */
+    private static final int VERSION = 2;
+
+    /** Number of string columns in the string table (ID, name, email). */
+    private static final int STRING_COLUMNS = 3;
+
+    /** Vocabularies of the event the participants are built for. */
+    private final EventVocabulary vocabulary;
+
+    /** The mapped file. */
+    private final MappedByteBuffer buffer;
+
+    /** Size of the CSV file the snapshot was made from. */
+    private final long sourceLength;
+
+    /** Last-modified time of the CSV file the snapshot was made from. */
+    private final long sourceModified;
+
+    /** Number of participants in the snapshot. */
+    private final int size;
+
+    /** Game dictionary; index 0 stands for {@code null}. */
+    private final String[] games;
+
+    /** Role dictionary; index 0 stands for {@code null}. */
+    private final String[] roles;
+
+    /** Personality type dictionary; index 0 stands for {@code null}. */
+    private final String[] types;
+
+    /** Start of the skill level column. */
+    private final int skillOffset;
+
+    /** Start of the personality score column. */
+    private final int scoreOffset;
+
+    /** Start of the game code column. */
+    private final int gameOffset;
+
+    /** Start of the role code column. */
+    private final int roleOffset;
+
+    /** Start of the personality type code column. */
+    private final int typeOffset;
+
+    /** Start of the string offsets table. */
+    private final int stringIndexOffset;
+
+    /** Start of the string bytes. */
+    private final int stringDataOffset;
+
+    /**
+     * Reads the header and dictionaries of a mapped snapshot.
+     *
+     * @param buffer     The mapped file.
+     * @param vocabulary Vocabularies of the event the participants are built for.
+     * @throws IOException If the file is not a snapshot or has an unknown version.
+     */
+    private ParticipantSnapshot(MappedByteBuffer buffer, EventVocabulary vocabulary) throws IOException {
+        this.buffer = buffer;
+        this.vocabulary = vocabulary;
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION){
+            throw new IOException("Not a participant snapshot");
+        }
+        this.sourceLength = buffer.getLong();
+        this.sourceModified = buffer.getLong();
+        this.size = buffer.getInt();
+        this.games = readDictionary(buffer);
+        this.roles = readDictionary(buffer);
+        this.types = readDictionary(buffer);
+
+        this.skillOffset = buffer.position();
+        this.scoreOffset = skillOffset + size * Integer.BYTES;
+        this.gameOffset = scoreOffset + size * Integer.BYTES;
+        this.roleOffset = gameOffset + size;
+        this.typeOffset = roleOffset + size;
+        this.stringIndexOffset = typeOffset + size;
+        this.stringDataOffset = stringIndexOffset + (size * STRING_COLUMNS + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Opens a snapshot by memory-mapping it.
+     *
+     * @param path       The snapshot file.
+     * @param vocabulary Vocabularies of the event the participants are built for.
+     * @return The opened snapshot.
+     * @throws IOException If the file cannot be read or is not a snapshot.
+     */
+    public static ParticipantSnapshot open(Path path, EventVocabulary vocabulary) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE){
+                throw new IOException("Snapshot too large to map: " + path);
+            }
+            return new ParticipantSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), vocabulary);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given participants, replacing any existing file atomically.
+     *
+     * <p>The CSV file's size and last-modified time must be taken before it is parsed. Rows
+     * appended while it was being parsed then make the recorded size too small, so the
+     * snapshot is seen as stale, instead of the snapshot claiming rows it does not hold.</p>
+     *
+     * @param path           The snapshot file to write.
+     * @param sourceLength   Size of the CSV file the participants came from, taken before it was parsed.
+     * @param sourceModified Last-modified time of that CSV file, taken before it was parsed.
+     * @param participants   The participants to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path path, long sourceLength, long sourceModified, Collection<Participant> participants) throws IOException {
+        int size = participants.size();
+        Map<String, Integer> games = new HashMap<>();
+        Map<String, Integer> roles = new HashMap<>();
+        Map<String, Integer> types = new HashMap<>();
+        int[] skills = new int[size];
+        int[] scores = new int[size];
+        byte[] gameCodes = new byte[size];
+        byte[] roleCodes = new byte[size];
+        byte[] typeCodes = new byte[size];
+        int[] stringOffsets = new int[size * STRING_COLUMNS + 1];
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+
+        int i = 0;
+        for (Participant participant: participants){
+            skills[i] = participant.getSkillLevel();
+            scores[i] = participant.getPersonalityScore();
+            gameCodes[i] = encode(games, participant.getPreferredGame());
+            roleCodes[i] = encode(roles, participant.getPreferredRole());
+            typeCodes[i] = encode(types, participant.getPersonalityType());
+            String[] columns = {participant.getId(), participant.getName(), participant.getEmail()};
+            for (int c = 0; c < STRING_COLUMNS; c++) {
+                stringOffsets[i * STRING_COLUMNS + c] = strings.size();
+                byte[] bytes = String.valueOf(columns[c]).getBytes(StandardCharsets.UTF_8);
+                strings.write(bytes, 0, bytes.length);
+            }
+            i++;
+        }
+        stringOffsets[size * STRING_COLUMNS] = strings.size();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeInt(size);
+            writeDictionary(out, games);
+            writeDictionary(out, roles);
+            writeDictionary(out, types);
+            for (int skill: skills){
+                out.writeInt(skill);
+            }
+            for (int score: scores){
+                out.writeInt(score);
+            }
+            out.write(gameCodes);
+            out.write(roleCodes);
+            out.write(typeCodes);
+            for (int offset: stringOffsets){
+                out.writeInt(offset);
+            }
+            strings.writeTo(out);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the dictionary code of a value, adding it to the dictionary if it is new.
+     *
+     * @param dictionary Value to code map being built.
+     * @param value      The value to encode; {@code null} is always code 0.
+     * @return The one-byte code.
+     * @throws IOException If the dictionary is full.
+     */
+    private static byte encode(Map<String, Integer> dictionary, String value) throws IOException {
+        if (value == null){
+            return 0;
+        }
+        Integer code = dictionary.get(value);
+        if (code == null){
+            code = dictionary.size() + 1;
+            if (code > 255){
+                throw new IOException("Too many distinct values for snapshot dictionary");
+            }
+            dictionary.put(value, code);
+        }
+        return (byte) (int) code;
+    }
+
+    /**
+     * Writes a dictionary in code order.
+     *
+     * @param out        The output stream.
+     * @param dictionary Value to code map.
+     * @throws IOException If writing fails.
+     */
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        String[] values = new String[dictionary.size()];
+        dictionary.forEach((value, code) -> values[code - 1] = value);
+        out.writeInt(values.length);
+        for (String value: values){
+            // Standard UTF-8 like the string table, not writeUTF's modified UTF-8
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a dictionary written by {@link #writeDictionary(DataOutputStream, Map)}.
+     *
+     * @param buffer The mapped file, positioned at the dictionary.
+     * @return The dictionary with {@code null} at index 0.
+     */
+    private static String[] readDictionary(MappedByteBuffer buffer) {
+        String[] values = new String[buffer.getInt() + 1];
+        for (int i = 1; i < values.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    /**
+     * Returns whether this snapshot was made from the given CSV file as it is now.
+     *
+     * @param source The CSV file.
+     * @return {@code true} if the file's size and last-modified time are unchanged.
+     */
+    public boolean isCurrentFor(File source) {
+        return source.length() == sourceLength && source.lastModified() == sourceModified;
+    }
+
+    /** @return The number of participants in the snapshot. */
+    public int size() {
+        return size;
+    }
+
+    /** @return The skill level of participant {@code i}. */
+    public int skillLevel(int i) {
+        return buffer.getInt(skillOffset + i * Integer.BYTES);
+    }
+
+    /** @return The personality score of participant {@code i}. */
+    public int personalityScore(int i) {
+        return buffer.getInt(scoreOffset + i * Integer.BYTES);
+    }
+
+    /** @return The preferred game of participant {@code i}. */
+    public String preferredGame(int i) {
+        return games[buffer.get(gameOffset + i) & 0xFF];
+    }
+
+    /** @return The preferred role of participant {@code i}. */
+    public String preferredRole(int i) {
+        return roles[buffer.get(roleOffset + i) & 0xFF];
+    }
+
+    /** @return The personality type of participant {@code i}. */
+    public String personalityType(int i) {
+        return types[buffer.get(typeOffset + i) & 0xFF];
+    }
+
+    /** @return The ID of participant {@code i}. */
+    public String id(int i) {
+        return string(i, 0);
+    }
+
+    /** @return The name of participant {@code i}. */
+    public String name(int i) {
+        return string(i, 1);
+    }
+
+    /** @return The email of participant {@code i}. */
+    public String email(int i) {
+        return string(i, 2);
+    }
+
+    /**
+     * Decodes one entry of the string table.
+     *
+     * @param i      Participant index.
+     * @param column String column (0 = ID, 1 = name, 2 = email).
+     * @return The decoded string.
+     */
+    private String string(int i, int column) {
+        int slot = stringIndexOffset + (i * STRING_COLUMNS + column) * Integer.BYTES;
+        int start = buffer.getInt(slot);
+        int end = buffer.getInt(slot + Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringDataOffset + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds a {@link Participant} from row {@code i}.
+     *
+     * @param i Participant index.
+     * @return The participant.
+     */
+    public Participant participant(int i) {
+        return new Participant(id(i), name(i), email(i), preferredGame(i), skillLevel(i), preferredRole(i),
+                personalityScore(i), personalityType(i), vocabulary);
+    }
+
+    /**
+     * Builds every participant in snapshot order and hands it to the visitor.
+     *
+     * @param visitor Receives each participant.
+     */
+    public void forEach(Consumer<Participant> visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.accept(participant(i));
+        }
+    }
+
+    /**
+     * Builds every participant in the snapshot.
+     *
+     * @return The participants in snapshot order.
+     */
+    public List<Participant> participants() {
+        List<Participant> participants = new ArrayList<>(size);
+        forEach(participants::add);
+        return participants;
+    }
+}
@@ -0,0 +1,169 @@
+package TeamMateSystem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code ParticipantTable} class holds the values team formation needs in
+ * parallel primitive columns, one row per participant:
+ *
+ * <ul>
+ *     <li>{@code int} columns for skill level and personality score.</li>
+ *     <li>{@link Vocabulary} codes for preferred game, preferred role and personality type,
+ *     copied straight from the participants. All participants of a table must belong to
+ *     the same event, so their codes come from the same {@link EventVocabulary}.</li>
+ *     <li>A reference column back to the original {@link Participant}, only used to build
+ *     the final {@link Team} objects.</li>
+ * </ul>
+ *
+ * <p>Team builders can scan these columns without touching the participant objects, which
+ * keeps the working set of a formation run small. Code {@code 0} always stands for a
+ * missing ({@code null}) value.</p>
+ */
+public class ParticipantTable {
+
+    /** Original participants, addressed by row. */
+    private final Participant[] participants;
+
+    /** Skill level per row. */
+    private final int[] skillLevels;
+
+    /** Personality score per row. */
+    private final int[] personalityScores;
+
+    /** Preferred game code per row. */
+    private final short[] gameCodes;
+
+    /** Preferred role code per row. */
+    private final short[] roleCodes;
+
+    /** Personality type code per row. */
+    private final short[] typeCodes;
+
+    /** Vocabularies the codes belong to. */
+    private final EventVocabulary vocabulary;
+
+    /** Number of game codes when the table was built, including code 0. */
+    private final int gameCount;
+
+    /** Number of role codes when the table was built, including code 0. */
+    private final int roleCount;
+
+    /** Number of personality type codes when the table was built, including code 0. */
+    private final int typeCount;
+
+    /**
+     * Builds the columns for the given participants.
+     *
+     * @param participants The participants, in row order.
+     */
+    private ParticipantTable(Collection<Participant> participants) {
+        int size = participants.size();
+        this.participants = participants.toArray(new Participant[0]);
+        this.skillLevels = new int[size];
+        this.personalityScores = new int[size];
+        this.gameCodes = new short[size];
+        this.roleCodes = new short[size];
+        this.typeCodes = new short[size];
+
+        for (int i = 0; i < size; i++) {
+            Participant participant = this.participants[i];
+            skillLevels[i] = participant.getSkillLevel();
+            personalityScores[i] = participant.getPersonalityScore();
+            gameCodes[i] = (short) participant.getPreferredGameCode();
+            roleCodes[i] = (short) participant.getPreferredRoleCode();
+            typeCodes[i] = (short) participant.getPersonalityTypeCode();
+        }
+
+        // Read after the codes, so every code in the table is below its count
+        this.vocabulary = size > 0 ? this.participants[0].getVocabulary() : new EventVocabulary();
+        this.gameCount = vocabulary.games().size();
+        this.roleCount = vocabulary.roles().size();
+        this.typeCount = vocabulary.personalityTypes().size();
+    }
+
+    /**
+     * Builds a table from a collection of participants.
+     *
+     * @param participants The participants, in row order.
+     * @return The table.
+     */
+    public static ParticipantTable of(Collection<Participant> participants) {
+        return new ParticipantTable(participants);
+    }
+
+    /** @return The number of rows. */
+    public int size() {
+        return participants.length;
+    }
+
+    /** @return The participant in row {@code row}. */
+    public Participant participant(int row) {
+        return participants[row];
+    }
+
+    /** @return The skill level in row {@code row}. */
+    public int skillLevel(int row) {
+        return skillLevels[row];
+    }
+
+    /** @return The personality score in row {@code row}. */
+    public int personalityScore(int row) {
+        return personalityScores[row];
+    }
+
+    /** @return The preferred game code in row {@code row}. */
+    public int gameCode(int row) {
+        return gameCodes[row];
+    }
+
+    /** @return The preferred role code in row {@code row}. */
+    public int roleCode(int row) {
+        return roleCodes[row];
+    }
+
+    /** @return The personality type code in row {@code row}. */
+    public int typeCode(int row) {
+        return typeCodes[row];
+    }
+
+    /** @return The number of game codes in use, including code 0. */
+    public int gameCount() {
+        return gameCount;
+    }
+
+    /** @return The number of role codes in use, including code 0. */
+    public int roleCount() {
+        return roleCount;
+    }
+
+    /** @return The number of personality type codes in use, including code 0. */
+    public int typeCount() {
+        return typeCount;
+    }
+
+    /**
+     * Returns the code of a personality type.
+     *
+     * @param type The personality type (e.g., "Leader").
+     * @return The code, or {@code -1} if the type is not registered.
+     */
+    public int typeCodeOf(String type) {
+        return vocabulary.personalityTypes().codeOf(type);
+    }
+
+    /**
+     * Builds the list of participants for the given rows, in the given order.
+     *
+     * @param rows Row numbers.
+     * @return The participants of those rows.
+     */
+    public List<Participant> participants(int[] rows) {
+        List<Participant> list = new ArrayList<>(rows.length);
+        for (int row: rows){
+            list.add(participants[row]);
+        }
+        return list;
+    }
+}
@@ -13,6 +13,18 @@ import java.util.List;
  */
 public class PersonalityClassifier {
 
+    /** Lowest score classified as "Leader". */
+    public static final int LEADER_THRESHOLD = 90;
+
+    /** Lowest score classified as "Balanced". */
+    public static final int BALANCED_THRESHOLD = 70;
+
+    /** Lowest score classified as "Thinker". */
+    public static final int THINKER_THRESHOLD = 50;
+
+    /** Multiplier applied to the sum of the five answers (for easier grouping). */
+    public static final int SCORE_SCALE = 4;
+
     /** List of participant survey responses as strings. */
     private List<String> result;
 
@@ -39,7 +51,7 @@ public class PersonalityClassifier {
         for (int i = 0; i < 5; i++) {
             total += Integer.parseInt(result.get(i));
         }
-        total *= 4;  // Scale the score
+        total *= SCORE_SCALE;  // Scale the score
         return total;
     }
 
@@ -56,13 +68,23 @@ public class PersonalityClassifier {
      * @return The personality type as a string, or {@code null} if no type matches.
      */
     public String classify(){
-        if (total >= 90){
+        return classify(total);
+    }
+
+    /**
+     * Classifies a personality score using the same thresholds as {@link #classify()}.
+     *
+     * @param total The personality score.
+     * @return The personality type as a string, or {@code null} if no type matches.
+     */
+    public static String classify(int total){
+        if (total >= LEADER_THRESHOLD){
             return "Leader";
         }
-        else if (total >= 70){
+        else if (total >= BALANCED_THRESHOLD){
             return "Balanced";
         }
-        else if (total >= 50){
+        else if (total >= THINKER_THRESHOLD){
             return "Thinker";
         }
         else{
@@ -0,0 +1,217 @@
+package TeamMateSystem;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code PersonalityScorer} class scores and classifies the personality answers of many
+ * participants at once. It is the bulk counterpart of {@link PersonalityClassifier}, using
+ * the same scale and thresholds, but works on primitive arrays in a tight loop without
+ * creating any objects per participant.
+ *
+ * <p>Answers can be given either as packed survey responses (see {@link SurveyResponseStore})
+ * or as a row-major {@code byte} matrix with five answers per participant. Large batches
+ * can be split across cores with the {@code scoreParallel} methods.</p>
+ *
+ * <p>Personality types are returned as codes: {@link #NO_TYPE}, {@link #LEADER},
+ * {@link #BALANCED} and {@link #THINKER}.</p>
+ */
+public class PersonalityScorer {
+
+    /** Type code for a score below every threshold. */
+    public static final byte NO_TYPE = 0;
+
+    /** Type code for "Leader". */
+    public static final byte LEADER = 1;
+
+    /** Type code for "Balanced". */
+    public static final byte BALANCED = 2;
+
+    /** Type code for "Thinker". */
+    public static final byte THINKER = 3;
+
+    /** Number of personality questions per participant. */
+    public static final int PERSONALITY_QUESTIONS = 5;
+
+    /** Batches smaller than this are scored on one thread. */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** Type names by code; the one source of the names, which {@link EventVocabulary} is seeded from. */
+    private static final String[] TYPE_NAMES = {null, "Leader", "Balanced", "Thinker"};
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private PersonalityScorer() {
+    }
+
+    /**
+     * Returns the type names in code order, starting with {@link #LEADER}'s.
+     *
+     * @return The type names of every code except {@link #NO_TYPE}.
+     */
+    public static List<String> typeNames() {
+        return Collections.unmodifiableList(Arrays.asList(TYPE_NAMES).subList(1, TYPE_NAMES.length));
+    }
+
+    /**
+     * Returns the personality type name for a type code.
+     *
+     * @param type The type code.
+     * @return The type name, or {@code null} for {@link #NO_TYPE}.
+     */
+    public static String typeName(byte type) {
+        return TYPE_NAMES[type];
+    }
+
+    /**
+     * Classifies a score into a type code using {@link PersonalityClassifier}'s thresholds.
+     *
+     * @param score The personality score.
+     * @return The type code.
+     */
+    public static byte classify(int score) {
+        // Branch-light form: count the thresholds the score reaches
+        int reached = (score >= PersonalityClassifier.THINKER_THRESHOLD ? 1 : 0)
+                + (score >= PersonalityClassifier.BALANCED_THRESHOLD ? 1 : 0)
+                + (score >= PersonalityClassifier.LEADER_THRESHOLD ? 1 : 0);
+        return (byte) (reached == 0 ? NO_TYPE : 4 - reached);
+    }
+
+    /**
+     * Computes the personality score of one packed survey response.
+     *
+     * @param response The packed response.
+     * @return The personality score.
+     */
+    public static int score(long response) {
+        // The five 3-bit answers sit in the lowest 15 bits
+        int total = 0;
+        for (int i = 0; i < PERSONALITY_QUESTIONS; i++) {
+            total += (int) (response >>> (3 * i)) & 0b111;
+        }
+        return total * PersonalityClassifier.SCORE_SCALE;
+    }
+
+    /**
+     * Scores a range of packed survey responses.
+     *
+     * @param responses Packed responses.
+     * @param from      First index (inclusive).
+     * @param to        Last index (exclusive).
+     * @param scores    Output scores, same indexes as {@code responses}.
+     * @param types     Output type codes, same indexes as {@code responses}.
+     */
+    public static void score(long[] responses, int from, int to, int[] scores, byte[] types) {
+        for (int i = from; i < to; i++) {
+            int score = score(responses[i]);
+            scores[i] = score;
+            types[i] = classify(score);
+        }
+    }
+
+    /**
+     * Scores a range of rows of a row-major answer matrix with five answers (1 to 5) per row.
+     *
+     * @param answers Answer matrix, {@code rows x 5}.
+     * @param from    First row (inclusive).
+     * @param to      Last row (exclusive).
+     * @param scores  Output scores by row.
+     * @param types   Output type codes by row.
+     */
+    public static void score(byte[] answers, int from, int to, int[] scores, byte[] types) {
+        for (int i = from; i < to; i++) {
+            int base = i * PERSONALITY_QUESTIONS;
+            int score = (answers[base] + answers[base + 1] + answers[base + 2] + answers[base + 3]
+                    + answers[base + 4]) * PersonalityClassifier.SCORE_SCALE;
+            scores[i] = score;
+            types[i] = classify(score);
+        }
+    }
+
+    /**
+     * Scores all packed responses, splitting large batches across the common fork-join pool.
+     *
+     * @param responses Packed responses.
+     * @param scores    Output scores, same length as {@code responses}.
+     * @param types     Output type codes, same length as {@code responses}.
+     */
+    public static void scoreParallel(long[] responses, int[] scores, byte[] types) {
+        ForkJoinPool.commonPool().invoke(new ScoreTask(responses, null, 0, responses.length, scores, types));
+    }
+
+    /**
+     * Scores all rows of a row-major answer matrix, splitting large batches across the
+     * common fork-join pool.
+     *
+     * @param answers Answer matrix, {@code rows x 5}.
+     * @param scores  Output scores by row.
+     * @param types   Output type codes by row.
+     */
+    public static void scoreParallel(byte[] answers, int[] scores, byte[] types) {
+        int rows = answers.length / PERSONALITY_QUESTIONS;
+        ForkJoinPool.commonPool().invoke(new ScoreTask(null, answers, 0, rows, scores, types));
+    }
+
+    /**
+     * Splits a batch in halves until it is small enough to score on one thread.
+     * Exactly one of the two inputs is set.
+     */
+    private static final class ScoreTask extends RecursiveAction {
+
+        /** Serialization version, required by {@link RecursiveAction}. */
+        private static final long serialVersionUID = 1L;
+
+        /** Packed responses, or {@code null} when scoring the answer matrix. */
+        private final long[] responses;
+
+        /** Answer matrix, or {@code null} when scoring packed responses. */
+        private final byte[] answers;
+
+        /** First index of this task (inclusive). */
+        private final int from;
+
+        /** Last index of this task (exclusive). */
+        private final int to;
+
+        /** Output scores. */
+        private final int[] scores;
+
+        /** Output type codes. */
+        private final byte[] types;
+
+        /**
+         * Creates a task for the range {@code [from, to)}.
+         */
+        private ScoreTask(long[] responses, byte[] answers, int from, int to, int[] scores, byte[] types) {
+            this.responses = responses;
+            this.answers = answers;
+            this.from = from;
+            this.to = to;
+            this.scores = scores;
+            this.types = types;
+        }
+
+        /**
+         * Scores the range directly or splits it in two.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD){
+                if (responses != null){
+                    score(responses, from, to, scores, types);
+                }
+                else {
+                    score(answers, from, to, scores, types);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(responses, answers, from, middle, scores, types),
+                    new ScoreTask(responses, answers, middle, to, scores, types));
+        }
+    }
+}
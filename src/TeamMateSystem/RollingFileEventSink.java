@@ -0,0 +1,132 @@
+package TeamMateSystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code RollingFileEventSink} class writes events as structured lines to a file and
+ * rolls the file over when it grows past a size limit.
+ *
+ * <p>When the current file is full it is renamed to {@code name.1}, the previous
+ * {@code name.1} to {@code name.2}, and so on; the oldest file beyond the limit is deleted.</p>
+ */
+public class RollingFileEventSink implements EventSink {
+
+    /** The current log file. */
+    private final Path path;
+
+    /** Size after which the file is rolled over, in bytes. */
+    private final long maxBytes;
+
+    /** Number of rolled-over files kept next to the current one. */
+    private final int maxBackups;
+
+    /** Writer for the current file. */
+    private BufferedWriter writer;
+
+    /** Approximate size of the current file, in bytes. */
+    private long size;
+
+    /**
+     * Opens (or creates) a rolling log file.
+     *
+     * @param path       The log file.
+     * @param maxBytes   Size after which the file is rolled over, in bytes.
+     * @param maxBackups Number of rolled-over files to keep.
+     * @throws IOException If the file cannot be opened.
+     */
+    public RollingFileEventSink(Path path, long maxBytes, int maxBackups) throws IOException {
+        if (maxBytes <= 0 || maxBackups < 0){
+            throw new IllegalArgumentException("File size must be positive and backups cannot be negative");
+        }
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.maxBackups = maxBackups;
+        open();
+    }
+
+    /**
+     * Writes an event's structured line, rolling the file over first if it is full.
+     *
+     * @param event The event.
+     * @throws IOException If the line cannot be written.
+     */
+    @Override
+    public void write(Event event) throws IOException {
+        if (size >= maxBytes){
+            roll();
+        }
+        String line = event.toStructuredLine();
+        writer.write(line);
+        writer.newLine();
+        // Lines are mostly ASCII, so the character count is close enough to the byte count
+        size += line.length() + 1;
+    }
+
+    /**
+     * Pushes the batch to the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Closes the current file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Opens the current file for appending.
+     *
+     * @throws IOException If the file cannot be opened.
+     */
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(path);
+    }
+
+    /**
+     * Shifts the backups up by one, moves the current file to the first backup and starts a new file.
+     *
+     * @throws IOException If a file cannot be moved.
+     */
+    private void roll() throws IOException {
+        writer.close();
+        if (maxBackups == 0){
+            Files.delete(path);
+        }
+        else {
+            Files.deleteIfExists(backup(maxBackups));
+            for (int i = maxBackups - 1; i >= 1; i--) {
+                if (Files.exists(backup(i))){
+                    Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    /**
+     * Returns the path of a rolled-over file.
+     *
+     * @param number The backup number, starting at 1 for the most recent.
+     * @return The backup path.
+     */
+    private Path backup(int number) {
+        return path.resolveSibling(path.getFileName() + "." + number);
+    }
+}
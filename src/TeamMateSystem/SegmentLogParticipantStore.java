@@ -0,0 +1,982 @@
+package TeamMateSystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code SegmentLogParticipantStore} class is an embedded, append-only participant store.
+ *
+ * <p>Every change is appended as a record to the newest segment file in the store's directory;
+ * nothing is ever rewritten in place. When a segment is full a new one is started. An
+ * in-memory hash index maps each participant ID to the location of its latest record, so
+ * a participant is read back with a single positional read.</p>
+ *
+ * <p>Segment file layout ({@code segment-<number>.log}):</p>
+ * <ul>
+ *     <li>Header: magic ({@code int}), version ({@code byte}), flags ({@code byte}) and the
+ *     number of the first segment a compacted segment replaces ({@code int}).</li>
+ *     <li>Records: payload length ({@code int}), CRC32 of type and payload ({@code int}),
+ *     type ({@code byte}: put or delete), then the payload.</li>
+ * </ul>
+ *
+ * <p>On startup every segment is replayed to rebuild the index. A record whose length runs
+ * past the end of the file or whose checksum does not match is a torn write from a crash;
+ * the segment is truncated just before it.</p>
+ *
+ * <p>Overwritten and deleted records are dead space. Compaction copies the live records of
+ * all full segments into new compacted segments and deletes the old ones. It runs
+ * periodically in the background once at least half of the store is dead, and only holds
+ * the store's lock to swap the segments in, so writes carry on while records are copied.
+ * A compaction interrupted by a crash is either finished or discarded on the next start.</p>
+ *
+ * <p>The index lives only in the process that opened the store, so a second writer would
+ * corrupt it. An open store therefore holds an exclusive lock on the {@value #LOCK_FILE}
+ * file in its directory, and opening a directory that is already locked fails straight
+ * away. The operating system drops the lock when the holder exits, even after a crash.</p>
+ */
+public class SegmentLogParticipantStore implements ParticipantRepository {
+
+    /** Default size at which a segment is considered full. */
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    /** Default time between checks for whether compaction is worthwhile. */
+    public static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 60_000;
+
+    /** Largest segment size allowed; compacted segments may grow up to twice the configured size. */
+    private static final long MAX_SEGMENT_BYTES = 1L << 27;
+
+    /** Magic number at the start of every segment ("TMSL"). */
+    private static final int MAGIC = 0x544D534C;
+
+    /** Segment format version. */
+    private static final byte VERSION = 1;
+
+    /** Flag set on segments written by compaction. */
+    private static final byte FLAG_COMPACTED = 1;
+
+    /** Size of a segment header. */
+    private static final int SEGMENT_HEADER = 10;
+
+    /** Size of a record header. */
+    private static final int RECORD_HEADER = 9;
+
+    /** Largest record, header included. */
+    private static final int MAX_RECORD = 0xFFFF;
+
+    /** Record type that stores a participant. */
+    private static final byte PUT = 1;
+
+    /** Record type that deletes a participant. */
+    private static final byte DELETE = 2;
+
+    /** Dead bytes needed before compaction is worthwhile. */
+    private static final long MIN_DEAD_BYTES = 1024 * 1024;
+
+    /** Name of the file locked while the store is open. */
+    public static final String LOCK_FILE = "LOCK";
+
+    /** Segment and compaction file names. */
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{8})\\.(log|compact)");
+
+    /** Directory holding the segments. */
+    private final Path directory;
+
+    /** Size at which the active segment is considered full. */
+    private final long maxSegmentBytes;
+
+    /** Exclusive lock on the {@value #LOCK_FILE} file, held while the store is open. */
+    private final FileLock directoryLock;
+
+    /** Vocabularies of the event the stored participants take part in. */
+    private final EventVocabulary vocabulary;
+
+    /** Location of the latest record of each stored participant, by ID. */
+    private final ConcurrentHashMap<String, Long> index = new ConcurrentHashMap<>();
+
+    /** Open segments by number, oldest first; the last one is the active segment. */
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+
+    /** Readers share the lock; appends and segment swaps take it exclusively. */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Held while a compaction runs, so only one runs at a time. */
+    private final Object compacting = new Object();
+
+    /** Runs the periodic compaction check. */
+    private final ScheduledExecutorService compactor;
+
+    /** Number of the active segment. */
+    private int activeNumber;
+
+    /** Size of the active segment. */
+    private long activeSize;
+
+    /** Bytes of records in all segments. */
+    private long totalBytes;
+
+    /** Bytes of the records the index points to. */
+    private long liveBytes;
+
+    /** Bytes cut off torn segment tails when the store was opened. */
+    private long truncatedBytes;
+
+    /** Set once the store is closed. */
+    private volatile boolean closed;
+
+    /**
+     * Opens (or creates) a store with the default segment size and compaction interval.
+     *
+     * @param directory  Directory holding the segments.
+     * @param vocabulary Vocabularies of the event the stored participants take part in.
+     * @throws IOException If the store cannot be opened or recovered.
+     */
+    public SegmentLogParticipantStore(Path directory, EventVocabulary vocabulary) throws IOException {
+        this(directory, vocabulary, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_COMPACTION_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens (or creates) a store, recovering it from its segments.
+     *
+     * @param directory                Directory holding the segments.
+     * @param vocabulary               Vocabularies of the event the stored participants take part in.
+     * @param maxSegmentBytes          Size at which a segment is considered full.
+     * @param compactionIntervalMillis Time between compaction checks, or 0 to only compact on request.
+     * @throws IOException If the store cannot be opened or recovered.
+     */
+    public SegmentLogParticipantStore(Path directory, EventVocabulary vocabulary, long maxSegmentBytes,
+                                      long compactionIntervalMillis) throws IOException {
+        if (maxSegmentBytes <= SEGMENT_HEADER + MAX_RECORD || maxSegmentBytes > MAX_SEGMENT_BYTES){
+            throw new IllegalArgumentException("Segment size must be between 64 KB and " + MAX_SEGMENT_BYTES + " bytes");
+        }
+        this.directory = directory;
+        this.vocabulary = vocabulary;
+        this.maxSegmentBytes = maxSegmentBytes;
+        Files.createDirectories(directory);
+        this.directoryLock = lockDirectory(directory);
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            for (FileChannel channel: segments.values()){
+                channel.close();
+            }
+            directoryLock.channel().close();
+            throw e;
+        }
+
+        if (compactionIntervalMillis > 0){
+            compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "store-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compactor.scheduleWithFixedDelay(this::compactIfWorthwhile, compactionIntervalMillis,
+                    compactionIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        else {
+            compactor = null;
+        }
+    }
+
+    @Override
+    public void save(Participant participant) throws IOException {
+        byte[] record = record(PUT, encode(participant));
+        lock.writeLock().lock();
+        try {
+            put(participant.getId(), append(record));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean saveIfAbsent(Participant participant) throws IOException {
+        if (index.containsKey(participant.getId())){
+            return false;
+        }
+        byte[] record = record(PUT, encode(participant));
+        lock.writeLock().lock();
+        try {
+            if (index.containsKey(participant.getId())){
+                return false;
+            }
+            put(participant.getId(), append(record));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Participant find(String participantId) throws IOException {
+        lock.readLock().lock();
+        try {
+            Long location = index.get(participantId);
+            if (location == null){
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(sizeOf(location));
+            readFully(segments.get(segmentOf(location)), buffer, offsetOf(location));
+            return decode(buffer.array(), RECORD_HEADER, buffer.capacity() - RECORD_HEADER);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String participantId) throws IOException {
+        byte[] record = record(DELETE, encodeId(participantId));
+        lock.writeLock().lock();
+        try {
+            if (!index.containsKey(participantId)){
+                return false;
+            }
+            append(record);
+            liveBytes -= sizeOf(index.remove(participantId));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Reads the segments sequentially and hands each live participant to the visitor,
+     * which is much faster than looking participants up one by one.
+     */
+    @Override
+    public int forEach(Consumer<Participant> visitor) throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] visited = {0};
+            for (Map.Entry<Integer, FileChannel> segment: segments.entrySet()){
+                int number = segment.getKey();
+                scan(segment.getValue(), number == activeNumber ? activeSize : segment.getValue().size(), number,
+                        (type, bytes, start, length, location) -> {
+                            if (type == PUT){
+                                Long current = index.get(decodeId(bytes, start));
+                                if (current != null && current == location){
+                                    visitor.accept(decode(bytes, start, length));
+                                    visited[0]++;
+                                }
+                            }
+                        });
+            }
+            return visited[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the IDs from the in-memory index, so no segment is touched.
+     */
+    @Override
+    public void forEachId(Consumer<String> visitor) {
+        index.keySet().forEach(visitor);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            segments.get(activeNumber).force(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops background compaction, forces the active segment to disk and closes every segment.
+     *
+     * @throws IOException If a segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed){
+            return;
+        }
+        closed = true;
+        if (compactor != null){
+            compactor.shutdown();
+        }
+        synchronized (compacting) {
+            lock.writeLock().lock();
+            try {
+                segments.get(activeNumber).force(false);
+                for (FileChannel channel: segments.values()){
+                    channel.close();
+                }
+            } finally {
+                // Closing the channel releases the lock
+                directoryLock.channel().close();
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Takes the exclusive lock on a store directory.
+     *
+     * @param directory Directory holding the segments.
+     * @return The lock.
+     * @throws IOException If the lock file cannot be opened, or another store holds the lock.
+     */
+    private static FileLock lockDirectory(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // The store is already open in this process
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null){
+            channel.close();
+            throw new IOException("Participant store " + directory + " is already open in another process or store");
+        }
+        return lock;
+    }
+
+    /**
+     * Returns the number of bytes cut off torn segment tails when the store was opened.
+     *
+     * @return The truncated bytes.
+     */
+    public long getTruncatedBytes() {
+        return truncatedBytes;
+    }
+
+    /**
+     * Returns the share of the store taken up by overwritten or deleted records.
+     *
+     * @return The dead share, from 0 to 1.
+     */
+    public double getDeadRatio() {
+        lock.readLock().lock();
+        try {
+            return totalBytes == 0 ? 0 : (double) (totalBytes - liveBytes) / totalBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts if at least half of the store is dead; run periodically in the background.
+     */
+    private void compactIfWorthwhile() {
+        try {
+            long dead;
+            lock.readLock().lock();
+            try {
+                dead = totalBytes - liveBytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (!closed && dead >= MIN_DEAD_BYTES && getDeadRatio() >= 0.5){
+                compact();
+            }
+        } catch (IOException e) {
+            // Left for the next check; the store stays correct without compaction
+        }
+    }
+
+    /**
+     * Copies the live records of every full segment into compacted segments and deletes
+     * the originals. Writes continue in a new active segment while records are copied.
+     *
+     * @throws IOException If a segment cannot be read or written.
+     */
+    public void compact() throws IOException {
+        synchronized (compacting) {
+            if (closed){
+                return;
+            }
+            List<Map.Entry<Integer, FileChannel>> sealed = new ArrayList<>();
+            lock.writeLock().lock();
+            try {
+                roll();
+                // Copied under the lock: writes may roll to a new segment while records are copied
+                for (Map.Entry<Integer, FileChannel> segment: segments.headMap(activeNumber).entrySet()){
+                    sealed.add(Map.entry(segment.getKey(), segment.getValue()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // Group full segments so each compacted segment holds about one segment's worth of live data
+            int first = 0;
+            while (first < sealed.size()) {
+                first = compactFrom(sealed, first);
+            }
+        }
+    }
+
+    /**
+     * Compacts consecutive full segments, starting at the given one, into a single segment
+     * numbered like the last segment it replaces.
+     *
+     * @param sealed The full segments and their channels, oldest first, as taken under the lock.
+     * @param first  Position in {@code sealed} to start at.
+     * @return Position in {@code sealed} of the first segment not compacted yet.
+     * @throws IOException If a segment cannot be read or written.
+     */
+    private int compactFrom(List<Map.Entry<Integer, FileChannel>> sealed, int first) throws IOException {
+        int from = sealed.get(first).getKey();
+        Path temp = directory.resolve(fileName(from, "compact"));
+        Files.deleteIfExists(temp);
+        Map<String, long[]> moved = new HashMap<>();
+        int next = first;
+        int last = from;
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long[] outSize = {SEGMENT_HEADER};
+            while (next < sealed.size() && (next == first || outSize[0] < maxSegmentBytes)) {
+                int number = sealed.get(next).getKey();
+                // Compacted segments take the number of the last segment they replace
+                int target = number;
+                FileChannel in = sealed.get(next).getValue();
+                scan(in, in.size(), number, (type, bytes, start, length, location) -> {
+                    if (type != PUT){
+                        return;
+                    }
+                    String id = decodeId(bytes, start);
+                    Long current = index.get(id);
+                    if (current != null && current == location){
+                        byte[] record = record(PUT, bytes, start, length);
+                        writeFully(out, ByteBuffer.wrap(record), outSize[0]);
+                        moved.put(id, new long[]{location, location(target, outSize[0], record.length)});
+                        outSize[0] += record.length;
+                    }
+                });
+                last = number;
+                next++;
+            }
+            // Records were addressed with the number of the segment they came from; fix them up
+            for (long[] locations: moved.values()){
+                locations[1] = location(last, offsetOf(locations[1]), sizeOf(locations[1]));
+            }
+            writeFully(out, header(FLAG_COMPACTED, from), 0);
+            out.force(true);
+        }
+
+        // Recovery pairs a compacted file with the segment whose deletion commits it
+        Path ready = directory.resolve(fileName(last, "compact"));
+        if (last != from){
+            Files.move(temp, ready, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        commitCompaction(from, last, ready, moved);
+        return next;
+    }
+
+    /**
+     * Swaps a compacted segment in for the segments it replaces and points the index at it.
+     * Deleting the last replaced segment is the commit point: after a crash, a compacted
+     * file whose last segment is gone is finished, otherwise it is discarded.
+     *
+     * @param from  First segment replaced.
+     * @param last  Last segment replaced; the compacted segment takes its number.
+     * @param temp  The compacted file.
+     * @param moved Old and new location of each copied record, by participant ID.
+     * @throws IOException If the files cannot be swapped.
+     */
+    private void commitCompaction(int from, int last, Path temp, Map<String, long[]> moved) throws IOException {
+        lock.writeLock().lock();
+        try {
+            long replacedBytes = 0;
+            for (FileChannel channel: segments.subMap(from, true, last, true).values()){
+                replacedBytes += channel.size() - SEGMENT_HEADER;
+                channel.close();
+            }
+            Files.delete(directory.resolve(fileName(last, "log")));
+            Path compacted = directory.resolve(fileName(last, "log"));
+            Files.move(temp, compacted, StandardCopyOption.ATOMIC_MOVE);
+            List<Integer> replaced = new ArrayList<>(segments.subMap(from, true, last, false).keySet());
+            for (int number: replaced){
+                segments.remove(number);
+                Files.deleteIfExists(directory.resolve(fileName(number, "log")));
+            }
+            FileChannel channel = FileChannel.open(compacted, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(last, channel);
+            totalBytes += channel.size() - SEGMENT_HEADER - replacedBytes;
+
+            for (Map.Entry<String, long[]> entry: moved.entrySet()){
+                // Only records not overwritten or deleted while copying move; the rest are now dead
+                index.replace(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the segments: finishes or discards interrupted compactions,
+     * removes segments replaced by compacted ones, replays every record in order and cuts
+     * off torn tails.
+     *
+     * @throws IOException If the segments cannot be read or repaired.
+     */
+    private void recover() throws IOException {
+        TreeMap<Integer, Path> logs = new TreeMap<>();
+        List<Integer> compactions = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file: files){
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()){
+                    int number = Integer.parseInt(matcher.group(1));
+                    if (matcher.group(2).equals("log")){
+                        logs.put(number, file);
+                    }
+                    else {
+                        compactions.add(number);
+                    }
+                }
+            }
+        }
+
+        for (int number: compactions){
+            Path temp = directory.resolve(fileName(number, "compact"));
+            if (logs.containsKey(number)){
+                // The compaction never reached its commit point
+                Files.delete(temp);
+            }
+            else {
+                Path log = directory.resolve(fileName(number, "log"));
+                Files.move(temp, log, StandardCopyOption.ATOMIC_MOVE);
+                logs.put(number, log);
+            }
+        }
+
+        // Drop segments a compacted segment already replaced
+        for (int number: new ArrayList<>(logs.descendingKeySet())){
+            Path log = logs.get(number);
+            if (log == null){
+                continue;
+            }
+            ByteBuffer header = readHeader(log);
+            if (header != null && (header.get(5) & FLAG_COMPACTED) != 0){
+                int from = header.getInt(6);
+                for (int replaced: new ArrayList<>(logs.subMap(from, true, number, false).keySet())){
+                    Files.delete(logs.remove(replaced));
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Path> log: logs.entrySet()){
+            FileChannel channel = FileChannel.open(log.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(log.getKey(), channel);
+            if (readHeader(log.getValue()) == null){
+                // A segment whose header never made it to disk holds no records
+                truncatedBytes += channel.size();
+                channel.truncate(0);
+                writeFully(channel, header((byte) 0, log.getKey()), 0);
+            }
+            long size = channel.size();
+            long end = scan(channel, size, log.getKey(), (type, bytes, start, length, location) -> {
+                String id = decodeId(bytes, start);
+                Long previous = type == PUT ? index.put(id, location) : index.remove(id);
+                if (previous != null){
+                    liveBytes -= sizeOf(previous);
+                }
+                if (type == PUT){
+                    liveBytes += sizeOf(location);
+                }
+            });
+            if (end < size){
+                truncatedBytes += size - end;
+                channel.truncate(end);
+                channel.force(true);
+            }
+            totalBytes += end - SEGMENT_HEADER;
+        }
+
+        if (segments.isEmpty()){
+            openSegment(1);
+        }
+        else {
+            activeNumber = segments.lastKey();
+            activeSize = segments.lastEntry().getValue().size();
+        }
+    }
+
+    /**
+     * Appends a record to the active segment, starting a new segment if it is full.
+     * Must be called with the write lock held.
+     *
+     * @param record The record.
+     * @return The record's location.
+     * @throws IOException If the record cannot be written.
+     */
+    private long append(byte[] record) throws IOException {
+        if (closed){
+            throw new IOException("Store is closed");
+        }
+        if (activeSize + record.length > maxSegmentBytes){
+            roll();
+        }
+        long offset = activeSize;
+        writeFully(segments.get(activeNumber), ByteBuffer.wrap(record), offset);
+        activeSize += record.length;
+        totalBytes += record.length;
+        return location(activeNumber, offset, record.length);
+    }
+
+    /**
+     * Points the index at a participant's new record. Must be called with the write lock held.
+     *
+     * @param participantId The participant's ID.
+     * @param location      Location of the new record.
+     */
+    private void put(String participantId, long location) {
+        Long previous = index.put(participantId, location);
+        if (previous != null){
+            liveBytes -= sizeOf(previous);
+        }
+        liveBytes += sizeOf(location);
+    }
+
+    /**
+     * Seals the active segment and starts a new one, unless it is still empty.
+     * Must be called with the write lock held.
+     *
+     * @throws IOException If the new segment cannot be created.
+     */
+    private void roll() throws IOException {
+        if (activeSize <= SEGMENT_HEADER){
+            return;
+        }
+        segments.get(activeNumber).force(false);
+        openSegment(activeNumber + 1);
+    }
+
+    /**
+     * Creates a new, empty active segment.
+     *
+     * @param number The segment number.
+     * @throws IOException If the segment cannot be created.
+     */
+    private void openSegment(int number) throws IOException {
+        if (number > (1 << 20) - 1){
+            throw new IOException("Segment numbers exhausted; compact the store into a new directory");
+        }
+        FileChannel channel = FileChannel.open(directory.resolve(fileName(number, "log")),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeFully(channel, header((byte) 0, number), 0);
+        segments.put(number, channel);
+        activeNumber = number;
+        activeSize = SEGMENT_HEADER;
+    }
+
+    /**
+     * Receives the records found while scanning a segment.
+     */
+    private interface RecordVisitor {
+
+        /**
+         * Handles one record.
+         *
+         * @param type     Record type.
+         * @param bytes    Buffer holding the payload.
+         * @param start    Start of the payload in {@code bytes}.
+         * @param length   Payload length.
+         * @param location Location of the record.
+         * @throws IOException If handling the record fails.
+         */
+        void visit(byte type, byte[] bytes, int start, int length, long location) throws IOException;
+    }
+
+    /**
+     * Reads the valid records of a segment in order, stopping at the first torn or corrupt one.
+     *
+     * @param channel The segment.
+     * @param size    Number of bytes of the segment to read.
+     * @param number  The segment number.
+     * @param visitor Receives each valid record.
+     * @return Offset just after the last valid record.
+     * @throws IOException If the segment cannot be read.
+     */
+    private static long scan(FileChannel channel, long size, int number, RecordVisitor visitor) throws IOException {
+        // Read in large windows; a record never exceeds the window, so it is always whole in it
+        ByteBuffer window = ByteBuffer.allocate(4 * MAX_RECORD);
+        long windowStart = SEGMENT_HEADER;
+        window.limit(0);
+        CRC32 crc = new CRC32();
+        long position = SEGMENT_HEADER;
+
+        while (position + RECORD_HEADER <= size) {
+            int at = (int) (position - windowStart);
+            if (at + MAX_RECORD > window.limit() && windowStart + window.limit() < size){
+                window.clear();
+                window.limit((int) Math.min(window.capacity(), size - position));
+                readFully(channel, window, position);
+                window.flip();
+                windowStart = position;
+                at = 0;
+            }
+            if (at + RECORD_HEADER > window.limit()){
+                break;
+            }
+            int length = window.getInt(at);
+            int checksum = window.getInt(at + 4);
+            byte type = window.get(at + 8);
+            if (length < 0 || RECORD_HEADER + length > MAX_RECORD || at + RECORD_HEADER + length > window.limit()
+                    || (type != PUT && type != DELETE)){
+                break;
+            }
+            crc.reset();
+            crc.update(window.array(), at + 8, length + 1);
+            if ((int) crc.getValue() != checksum){
+                break;
+            }
+            visitor.visit(type, window.array(), at + RECORD_HEADER, length, location(number, position, RECORD_HEADER + length));
+            position += RECORD_HEADER + length;
+        }
+        return position;
+    }
+
+    /**
+     * Reads and checks a segment's header.
+     *
+     * @param segment The segment file.
+     * @return The header, or {@code null} if it is missing or invalid.
+     * @throws IOException If the file cannot be read.
+     */
+    private static ByteBuffer readHeader(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (channel.size() < SEGMENT_HEADER){
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+            readFully(channel, header, 0);
+            return (header.getInt(0) == MAGIC && header.get(4) == VERSION) ? header : null;
+        }
+    }
+
+    /**
+     * Builds a segment header.
+     *
+     * @param flags Segment flags.
+     * @param from  First segment this one replaces (its own number unless compacted).
+     * @return The header.
+     */
+    private static ByteBuffer header(byte flags, int from) {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+        header.putInt(MAGIC).put(VERSION).put(flags).putInt(from).flip();
+        return header;
+    }
+
+    /**
+     * Builds a record around a whole payload.
+     *
+     * @param type    Record type.
+     * @param payload The payload.
+     * @return The record.
+     */
+    private static byte[] record(byte type, byte[] payload) {
+        return record(type, payload, 0, payload.length);
+    }
+
+    /**
+     * Builds a record: length, checksum, type and payload.
+     *
+     * @param type    Record type.
+     * @param bytes   Buffer holding the payload.
+     * @param start   Start of the payload.
+     * @param length  Payload length.
+     * @return The record.
+     */
+    private static byte[] record(byte type, byte[] bytes, int start, int length) {
+        if (RECORD_HEADER + length > MAX_RECORD){
+            throw new IllegalArgumentException("Participant record is larger than " + MAX_RECORD + " bytes");
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+        record.putInt(length).putInt(0).put(type).put(bytes, start, length);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 8, length + 1);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * Encodes a participant as a record payload.
+     *
+     * @param participant The participant.
+     * @return The payload.
+     */
+    private static byte[] encode(Participant participant) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(participant.getId());
+            writeNullable(out, participant.getName());
+            writeNullable(out, participant.getEmail());
+            writeNullable(out, participant.getPreferredGame());
+            out.writeInt(participant.getSkillLevel());
+            writeNullable(out, participant.getPreferredRole());
+            out.writeInt(participant.getPersonalityScore());
+            writeNullable(out, participant.getPersonalityType());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes a participant ID as a delete record payload.
+     *
+     * @param participantId The participant's ID.
+     * @return The payload.
+     */
+    private static byte[] encodeId(String participantId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(participantId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a participant from a record payload.
+     *
+     * @param bytes  Buffer holding the payload.
+     * @param start  Start of the payload.
+     * @param length Payload length.
+     * @return The participant.
+     * @throws IOException If the payload is malformed.
+     */
+    private Participant decode(byte[] bytes, int start, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, start, length));
+        String id = in.readUTF();
+        String name = readNullable(in);
+        String email = readNullable(in);
+        String game = readNullable(in);
+        int skillLevel = in.readInt();
+        String role = readNullable(in);
+        int personalityScore = in.readInt();
+        String personalityType = readNullable(in);
+        return new Participant(id, name, email, game, skillLevel, role, personalityScore, personalityType, vocabulary);
+    }
+
+    /**
+     * Decodes just the participant ID at the start of a record payload.
+     *
+     * @param bytes Buffer holding the payload.
+     * @param start Start of the payload.
+     * @return The participant's ID.
+     * @throws IOException If the payload is malformed.
+     */
+    private static String decodeId(byte[] bytes, int start) throws IOException {
+        int length = ((bytes[start] & 0xFF) << 8) | (bytes[start + 1] & 0xFF);
+        return new DataInputStream(new ByteArrayInputStream(bytes, start, length + 2)).readUTF();
+    }
+
+    /**
+     * Writes a string that may be {@code null}.
+     */
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null){
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeNullable(DataOutputStream, String)}.
+     */
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Packs a record location: segment number (20 bits), offset (28 bits) and size (16 bits).
+     */
+    private static long location(int segment, long offset, int size) {
+        return ((long) segment << 44) | (offset << 16) | size;
+    }
+
+    /** @return The segment number of a location. */
+    private static int segmentOf(long location) {
+        return (int) (location >>> 44);
+    }
+
+    /** @return The offset of a location. */
+    private static long offsetOf(long location) {
+        return (location >>> 16) & ((1L << 28) - 1);
+    }
+
+    /** @return The record size of a location. */
+    private static int sizeOf(long location) {
+        return (int) (location & 0xFFFF);
+    }
+
+    /**
+     * Returns the file name of a segment.
+     *
+     * @param number    The segment number.
+     * @param extension {@code log} or {@code compact}.
+     * @return The file name.
+     */
+    private static String fileName(int number, String extension) {
+        return String.format("segment-%08d.%s", number, extension);
+    }
+
+    /**
+     * Reads until the buffer is full.
+     *
+     * @throws IOException If the end of the file is reached first.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0){
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+    }
+
+    /**
+     * Writes the whole buffer at the given position.
+     *
+     * @throws IOException If the write fails.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+}
@@ -1,30 +1,51 @@
 package TeamMateSystem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
 
 /**
  * The {@code SkillBasedTeamBuilder} class is a concrete implementation of {@link TeamBuilder} class
  * that creates teams based on participant ordering, alternating between the lowest
  * and highest skill levels to balance teams.
  *
- * <p>Teams are populated in parallel using multiple threads to improve performance
- * when adding participants to each team.</p>
+ * <p>Every team is built once, at its final size, straight into its member array. Since the
+ * members of each team can be worked out on their own, large formations are split into
+ * ranges of teams that are built in parallel on the builder's shared executor.</p>
  */
 public class SkillBasedTeamBuilder extends TeamBuilder {
 
+    /** Number of teams built per parallel task; smaller formations are built on the calling thread. */
+    private static final int TEAMS_PER_TASK = 4096;
+
+    /**
+     * Constructs a skill-based team builder that uses the common fork-join pool.
+     */
+    public SkillBasedTeamBuilder() {
+        super();
+    }
+
+    /**
+     * Constructs a skill-based team builder that uses the given shared executor.
+     *
+     * @param executor The executor for parallel work.
+     */
+    public SkillBasedTeamBuilder(Executor executor) {
+        super(executor);
+    }
+
     /**
      * Applies the skill-based matching strategy to form balanced teams.
      *
      * <p>The strategy works as follows:</p>
      * <ol>
      *     <li>Calculate the number of teams based on participant count and team size.</li>
-     *     <li>Create empty team objects.</li>
-     *     <li>Precompute team assignments by alternating lowest and highest skill participants.</li>
-     *     <li>Populate the teams in parallel using an ExecutorService.</li>
+     *     <li>Work out each team's members by alternating lowest and highest skill participants.</li>
+     *     <li>Build the teams, in parallel ranges on the shared executor when there are many.</li>
      * </ol>
      *
      * @param participants The list of participants to assign to teams.
@@ -33,58 +54,84 @@ public class SkillBasedTeamBuilder extends TeamBuilder {
      */
     @Override
     protected List<Team> applyMatchingStrategies(List<Participant> participants, int teamSize) {
-        List<Team> teams = new ArrayList<>();
+        return formTeams(participants.size(), teamSize, participants::get);
+    }
 
+    /**
+     * Applies the same strategy to a participant table. Assignments are computed on row
+     * numbers only; participant objects are looked up when the teams are built.
+     *
+     * @param table    The participant table.
+     * @param order    Row numbers sorted by skill level.
+     * @param teamSize The desired number of participants per team.
+     * @return A list of {@link Team} objects with assigned participants.
+     */
+    @Override
+    protected List<Team> applyMatchingStrategies(ParticipantTable table, int[] order, int teamSize) {
+        return formTeams(order.length, teamSize, position -> table.participant(order[position]));
+    }
+
+    /**
+     * Builds all teams, splitting the work into ranges of teams on the shared executor
+     * when there are enough of them.
+     *
+     * @param noOfParticipants The number of participants.
+     * @param teamSize         The desired number of participants per team.
+     * @param participantAt    Looks up the participant at a sorted position.
+     * @return A read-only list of the formed teams.
+     */
+    private List<Team> formTeams(int noOfParticipants, int teamSize, IntFunction<Participant> participantAt) {
         // Calculate the number of teams required
-        int noOfTeams = (int) Math.ceil((double) participants.size() / teamSize);
+        int noOfTeams = (int) Math.ceil((double) noOfParticipants / teamSize);
+        Team[] teams = new Team[noOfTeams];
 
-        // Create empty teams
-        for (int i = 0; i < noOfTeams; i++) {
-            teams.add(new Team(i+1, "Team"));
+        if (noOfTeams <= TEAMS_PER_TASK){
+            buildTeams(teams, 0, noOfTeams, noOfParticipants, teamSize, participantAt);
         }
-
-        // Precomputing which participant goes to which team, so we can safely parallelize it without corrupting the order.
-        List<List<Participant>> teamAssignments = new ArrayList<>();
-        for (int i = 0; i < noOfTeams; i++) {
-            teamAssignments.add(new ArrayList<>());
+        else {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int from = 0; from < noOfTeams; from += TEAMS_PER_TASK) {
+                final int start = from;  // Needed because lambda captures final variables only
+                final int end = Math.min(noOfTeams, from + TEAMS_PER_TASK);
+                tasks.add(CompletableFuture.runAsync(
+                        () -> buildTeams(teams, start, end, noOfParticipants, teamSize, participantAt), getExecutor()));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
         }
 
-        int lastMinChosen = 0;  // Pointer to lowest-skill participant
-        int lastMaxChosen = participants.size() - 1;  // Pointer to highest-skill participant
+        return Collections.unmodifiableList(Arrays.asList(teams));
+    }
 
-        // Assign participants to each team alternating between lowest and highest
-        for (int i = 0; i < noOfTeams; i++) {
-            int count = 1;
-            while (count <= teamSize && lastMinChosen <= lastMaxChosen) {
-                teamAssignments.get(i).add(participants.get(lastMinChosen++));
-                count++;
-                if (count <= teamSize && lastMinChosen <= lastMaxChosen) {
-                    teamAssignments.get(i).add(participants.get(lastMaxChosen--));
-                    count++;
-                }
-            }
-        }
+    /**
+     * Builds the teams in {@code [from, to)}.
+     *
+     * <p>Every full team takes {@code ceil(teamSize / 2)} participants from the low end of the
+     * sorted order and {@code floor(teamSize / 2)} from the high end, so the pointers for team
+     * {@code i} can be computed directly instead of walking through the teams before it.</p>
+     *
+     * @param teams            Output array of teams.
+     * @param from             First team index (inclusive).
+     * @param to               Last team index (exclusive).
+     * @param noOfParticipants The number of participants.
+     * @param teamSize         The desired number of participants per team.
+     * @param participantAt    Looks up the participant at a sorted position.
+     */
+    private void buildTeams(Team[] teams, int from, int to, int noOfParticipants, int teamSize,
+                            IntFunction<Participant> participantAt) {
+        int fromLow = (teamSize + 1) / 2;
+        int fromHigh = teamSize / 2;
 
-        // Populating the teams in parallel using a thread pool
-        int numThreads = Math.min(noOfTeams, Runtime.getRuntime().availableProcessors());
-        ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
-        for (int i = 0; i < noOfTeams; i++) {
-            final int index = i;  // Needed because lambda captures final variables only
-            executorService.submit(() -> {
-                for (Participant participant: teamAssignments.get(index)){
-                    teams.get(index).addParticipant(participant);
-                }
-            });
-        }
+        for (int i = from; i < to; i++) {
+            int lastMinChosen = i * fromLow;  // Pointer to lowest-skill participant
+            int lastMaxChosen = noOfParticipants - 1 - i * fromHigh;  // Pointer to highest-skill participant
+            int members = Math.min(teamSize, noOfParticipants - i * teamSize);
 
-        // Shutdown executor and wait for the tasks to finish
-        executorService.shutdown();
-        try {
-            executorService.awaitTermination(5, TimeUnit.MINUTES);
-        } catch (InterruptedException e) {
-            return null;
+            // Alternate between lowest and highest
+            Participant[] team = new Participant[members];
+            for (int count = 0; count < members; count++) {
+                team[count] = participantAt.apply((count % 2 == 0) ? lastMinChosen++ : lastMaxChosen--);
+            }
+            teams[i] = new Team(i + 1, "Team", team);
         }
-
-        return teams;
     }
 }
@@ -2,26 +2,23 @@ package TeamMateSystem;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The {@code Survey} class represents the survey system in TeamMateSystem,
  * storing survey questions and the responses submitted by participants.
  *
  * <p>This class supports concurrent access so multiple participants can
- * fill out the survey simultaneously without corrupting data.</p>
+ * fill out the survey simultaneously without corrupting data. Responses are kept
+ * packed in a {@link SurveyResponseStore}, a few bytes per participant, addressed by the
+ * ordinal each participant gets from {@link #register()}.</p>
  */
 public class Survey {
 
     /** List of survey questions. */
     private List<String> questions = new ArrayList<>();
 
-    /** Stores personality questions related responses per participant ID. */
-    private ConcurrentHashMap<String, Map<Integer, String>> personalityResponses = new ConcurrentHashMap<>();
-
-    /** Stores interest questions related responses per participant ID. */
-    private ConcurrentHashMap<String, Map<Integer, String>> interestResponses = new ConcurrentHashMap<>();
+    /** Packed responses of all participants, by participant ordinal. */
+    private final SurveyResponseStore responses = new SurveyResponseStore();
 
     /**
      * Constructs a new {@code Survey} and initializes default questions.
@@ -47,38 +44,56 @@ public class Survey {
         return List.copyOf(questions);
     }
 
+    /**
+     * Reserves space for a new participant's responses.
+     *
+     * @return The participant's survey ordinal.
+     */
+    public int register(){
+        return responses.register();
+    }
+
     /**
      * Adds a personality questions related answer for a participant.
      * This method is thread-safe and can be called concurrently.
      *
-     * @param participantId The unique ID of the participant.
-     * @param questionNo    The question number being answered.
-     * @param answer        The participant's response.
+     * @param ordinal    The participant's survey ordinal.
+     * @param questionNo The question number being answered (1 to 5).
+     * @param answer     The participant's response (1 to 5).
      */
-    public void addPersonalityAnswer(String participantId, int questionNo, String answer){
-        personalityResponses.putIfAbsent(participantId, new ConcurrentHashMap<>());
-        personalityResponses.get(participantId).put(questionNo, answer);
+    public void addPersonalityAnswer(int ordinal, int questionNo, int answer){
+        responses.setAnswer(ordinal, questionNo, answer);
     }
 
     /**
      * Adds an interest questions related answer for a participant.
      * This method is thread-safe and can be called concurrently.
      *
-     * @param participantId The unique ID of the participant.
-     * @param questionNo    The question number being answered.
-     * @param answer        The participant's response.
+     * @param ordinal    The participant's survey ordinal.
+     * @param questionNo The question number being answered (6 to 8).
+     * @param code       The encoded response (game or role code, or skill level).
+     */
+    public void addInterestAnswer(int ordinal, int questionNo, int code){
+        responses.setAnswer(ordinal, questionNo, code);
+    }
+
+    /**
+     * Stores all of a participant's answers in one atomic write.
+     *
+     * @param ordinal   The participant's survey ordinal.
+     * @param responses The packed responses.
      */
-    public void addInterestAnswer(String participantId, int questionNo, String answer){
-        interestResponses.putIfAbsent(participantId, new ConcurrentHashMap<>());
-        interestResponses.get(participantId).put(questionNo, answer);
+    public void submit(int ordinal, long responses){
+        this.responses.setResponse(ordinal, responses);
     }
 
     /**
-     * Returns the interest-related responses of all participants.
+     * Returns all of a participant's responses, packed as described in {@link SurveyResponseStore}.
      *
-     * @return A thread-safe map containing participant IDs and their interest responses.
+     * @param ordinal The participant's survey ordinal.
+     * @return The packed responses.
      */
-    public ConcurrentHashMap<String, Map<Integer, String>> getInterestResponses() {
-        return interestResponses;
+    public long getResponses(int ordinal){
+        return responses.getResponse(ordinal);
     }
 }
@@ -0,0 +1,56 @@
+package TeamMateSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code SurveyAnswerEvent} class is a Java Flight Recorder event for one
+ * {@link TeamMateController#fillSurvey(String, int, String)} call.
+ */
+@Name("TeamMateSystem.SurveyAnswer")
+@Label("Survey Answer")
+@Category({"TeamMateSystem", "Survey"})
+@Description("One survey answer filled through the controller")
+public class SurveyAnswerEvent extends TeamMateEvent {
+
+    /** The participant who answered. */
+    @Label("Participant")
+    String participantId;
+
+    /** The question answered. */
+    @Label("Question")
+    int questionNo;
+
+    /** Whether the answer was accepted. */
+    @Label("Accepted")
+    boolean accepted;
+
+    /**
+     * Creates the event and starts timing it.
+     *
+     * @return The event.
+     */
+    static SurveyAnswerEvent start() {
+        SurveyAnswerEvent event = new SurveyAnswerEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the event and commits it if it is being recorded.
+     *
+     * @param participantId The participant who answered.
+     * @param questionNo    The question answered.
+     * @param accepted      Whether the answer was accepted.
+     */
+    void finish(String participantId, int questionNo, boolean accepted) {
+        if (stop()){
+            this.participantId = participantId;
+            this.questionNo = questionNo;
+            this.accepted = accepted;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package TeamMateSystem;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code SurveyJournal} class is a write-ahead journal of survey progress, so surveys
+ * still being filled in survive a crash or restart.
+ *
+ * <p>Every registration, answer and submission is appended as a small checksummed record.
+ * Records go through a {@link BatchedFileAppender} that forces each batch to disk, so one
+ * disk sync covers every answer that arrived in the same flush interval; answering never
+ * waits for the disk. At most the last {@link #DEFAULT_FLUSH_INTERVAL_MILLIS} milliseconds
+ * of answers can be lost in a crash, and {@link #sync()} waits until everything is durable.</p>
+ *
+ * <p>Once a participant's details are stored, a done record marks their survey as finished.
+ * When the journal is opened it is replayed: every participant whose survey was not finished
+ * is handed back with the answers they had given. The journal is then rewritten with just
+ * those participants, so it only ever holds surveys still in progress. A torn record at the
+ * end of the file, left by a crash mid-write, ends the replay.</p>
+ */
+public class SurveyJournal implements AutoCloseable {
+
+    /** Default longest time an answer waits before its batch is written and synced. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+
+    /** Record type: a participant started the survey. */
+    private static final byte REGISTER = 1;
+
+    /** Record type: one answer was accepted. */
+    private static final byte ANSWER = 2;
+
+    /** Record type: every answer was replaced by a packed response. */
+    private static final byte RESPONSE = 3;
+
+    /** Record type: the participant's details were stored, or the participant was removed. */
+    private static final byte DONE = 4;
+
+    /** Size of a record header: payload length and checksum. */
+    private static final int RECORD_HEADER = 8;
+
+    /** Largest payload a valid record can have. */
+    private static final int MAX_PAYLOAD = 1 + 3 * (2 + Short.MAX_VALUE) + 8;
+
+    /** Appends records to the journal in synced batches. */
+    private final BatchedFileAppender appender;
+
+    /** Number of unfinished surveys found when the journal was opened. */
+    private final int recovered;
+
+    /** Bytes of torn records dropped when the journal was opened. */
+    private final long truncatedBytes;
+
+    /**
+     * Opens a journal that was already replayed and rewritten.
+     */
+    private SurveyJournal(BatchedFileAppender appender, int recovered, long truncatedBytes) {
+        this.appender = appender;
+        this.recovered = recovered;
+        this.truncatedBytes = truncatedBytes;
+    }
+
+    /**
+     * Opens (or creates) a journal with the default flush interval, replaying it first.
+     *
+     * @param path       The journal file.
+     * @param vocabulary Vocabularies of the event the recovered participants take part in.
+     * @param recovered  Receives each participant whose survey was not finished, with their packed response.
+     * @return The open journal.
+     * @throws IOException If the journal cannot be read or rewritten.
+     */
+    public static SurveyJournal open(Path path, EventVocabulary vocabulary, ObjLongConsumer<Participant> recovered) throws IOException {
+        return open(path, vocabulary, DEFAULT_FLUSH_INTERVAL_MILLIS, recovered);
+    }
+
+    /**
+     * Opens (or creates) a journal, replaying it first.
+     *
+     * @param path                The journal file.
+     * @param vocabulary          Vocabularies of the event the recovered participants take part in.
+     * @param flushIntervalMillis Longest time an answer waits before its batch is written and synced.
+     * @param recovered           Receives each participant whose survey was not finished, with their packed response.
+     * @return The open journal.
+     * @throws IOException If the journal cannot be read or rewritten.
+     */
+    public static SurveyJournal open(Path path, EventVocabulary vocabulary, long flushIntervalMillis,
+                                     ObjLongConsumer<Participant> recovered) throws IOException {
+        Map<String, Pending> pending = new LinkedHashMap<>();
+        long truncated = Files.exists(path) ? replay(path, vocabulary, pending) : 0;
+
+        // Rewrite the journal with only the unfinished surveys, then swap it in
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Pending survey: pending.values()){
+                out.write(ByteBuffer.wrap(registerRecord(survey.participant)));
+                out.write(ByteBuffer.wrap(responseRecord(survey.participant.getId(), survey.response)));
+            }
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Pending survey: pending.values()){
+            recovered.accept(survey.participant, survey.response);
+        }
+        BatchedFileAppender appender = new BatchedFileAppender(path, null, flushIntervalMillis,
+                BatchedFileAppender.DEFAULT_MAX_BATCH_BYTES, true);
+        return new SurveyJournal(appender, pending.size(), truncated);
+    }
+
+    /**
+     * Journals a participant starting the survey.
+     *
+     * @param participant The participant.
+     * @throws IOException If the journal is closed or a previous batch failed to write.
+     */
+    public void register(Participant participant) throws IOException {
+        appender.append(registerRecord(participant));
+    }
+
+    /**
+     * Journals one accepted answer.
+     *
+     * @param participantId The participant's ID.
+     * @param questionNo    The question number (1 to 8).
+     * @param code          The answer, encoded as in {@link SurveyResponseStore}.
+     * @throws IOException If the journal is closed or a previous batch failed to write.
+     */
+    public void answer(String participantId, int questionNo, int code) throws IOException {
+        byte[] id = utf8(participantId);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 + id.length + 1 + 4);
+        payload.put(ANSWER).putShort((short) id.length).put(id).put((byte) questionNo).putInt(code);
+        appender.append(record(payload.array()));
+    }
+
+    /**
+     * Journals a whole packed response replacing every answer.
+     *
+     * @param participantId The participant's ID.
+     * @param response      The packed response.
+     * @throws IOException If the journal is closed or a previous batch failed to write.
+     */
+    public void response(String participantId, long response) throws IOException {
+        appender.append(responseRecord(participantId, response));
+    }
+
+    /**
+     * Journals that a participant's survey no longer needs to be recovered.
+     *
+     * @param participantId The participant's ID.
+     * @throws IOException If the journal is closed or a previous batch failed to write.
+     */
+    public void done(String participantId) throws IOException {
+        byte[] id = utf8(participantId);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 + id.length);
+        payload.put(DONE).putShort((short) id.length).put(id);
+        appender.append(record(payload.array()));
+    }
+
+    /**
+     * Waits until everything journaled so far is on disk.
+     *
+     * @throws IOException If a batch failed to write.
+     */
+    public void sync() throws IOException {
+        appender.flush();
+    }
+
+    /**
+     * Returns the number of unfinished surveys recovered when the journal was opened.
+     *
+     * @return The recovered surveys.
+     */
+    public int getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Returns the number of bytes of torn records dropped when the journal was opened.
+     *
+     * @return The dropped bytes.
+     */
+    public long getTruncatedBytes() {
+        return truncatedBytes;
+    }
+
+    /**
+     * Syncs everything journaled and closes the file.
+     *
+     * @throws IOException If the last batch could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        appender.close();
+    }
+
+    /**
+     * Reads the journal and collects the surveys that were not finished.
+     *
+     * @param path       The journal file.
+     * @param vocabulary Vocabularies the recovered participants are created with.
+     * @param pending    Receives the unfinished surveys, by participant ID, in registration order.
+     * @return Number of bytes after the last valid record.
+     * @throws IOException If the journal cannot be read.
+     */
+    private static long replay(Path path, EventVocabulary vocabulary, Map<String, Pending> pending) throws IOException {
+        long size = Files.size(path);
+        long position = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length <= 0 || length > MAX_PAYLOAD){
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum){
+                    break;
+                }
+                apply(ByteBuffer.wrap(payload), vocabulary, pending);
+                position += RECORD_HEADER + length;
+            }
+        }
+        return size - position;
+    }
+
+    /**
+     * Applies one replayed record to the unfinished surveys.
+     *
+     * @param payload    The record payload.
+     * @param vocabulary Vocabularies a registered participant is created with.
+     * @param pending    The unfinished surveys, by participant ID.
+     */
+    private static void apply(ByteBuffer payload, EventVocabulary vocabulary, Map<String, Pending> pending) {
+        byte type = payload.get();
+        String id = readString(payload);
+        if (type == REGISTER){
+            Participant participant = new Participant(id, readString(payload), readString(payload), null, 0, null, 0, null, vocabulary);
+            pending.putIfAbsent(id, new Pending(participant));
+            return;
+        }
+        if (type == DONE){
+            pending.remove(id);
+            return;
+        }
+        Pending survey = pending.get(id);
+        if (survey == null){
+            return;
+        }
+        if (type == ANSWER){
+            int questionNo = payload.get();
+            survey.response = SurveyResponseStore.withAnswer(survey.response, questionNo, payload.getInt());
+        }
+        else if (type == RESPONSE){
+            survey.response = payload.getLong();
+        }
+    }
+
+    /**
+     * Builds a registration record.
+     */
+    private static byte[] registerRecord(Participant participant) {
+        byte[] id = utf8(participant.getId());
+        byte[] name = utf8(participant.getName());
+        byte[] email = utf8(participant.getEmail());
+        ByteBuffer payload = ByteBuffer.allocate(1 + 6 + id.length + name.length + email.length);
+        payload.put(REGISTER);
+        payload.putShort((short) id.length).put(id);
+        payload.putShort((short) (participant.getName() == null ? -1 : name.length)).put(name);
+        payload.putShort((short) (participant.getEmail() == null ? -1 : email.length)).put(email);
+        return record(payload.array());
+    }
+
+    /**
+     * Builds a packed response record.
+     */
+    private static byte[] responseRecord(String participantId, long response) {
+        byte[] id = utf8(participantId);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 + id.length + 8);
+        payload.put(RESPONSE).putShort((short) id.length).put(id).putLong(response);
+        return record(payload.array());
+    }
+
+    /**
+     * Frames a payload with its length and checksum.
+     *
+     * @param payload The payload.
+     * @return The record.
+     */
+    private static byte[] record(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        return record.array();
+    }
+
+    /**
+     * Encodes a string as UTF-8, treating {@code null} as empty.
+     *
+     * @throws IllegalArgumentException If the string is too long for a record.
+     */
+    private static byte[] utf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE){
+            throw new IllegalArgumentException("Value is too long to journal");
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a string written with a length prefix; a length of -1 means {@code null}.
+     */
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getShort();
+        if (length < 0){
+            return null;
+        }
+        String value = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    /**
+     * A survey still in progress, rebuilt during replay.
+     */
+    private static final class Pending {
+
+        /** The participant filling the survey. */
+        private final Participant participant;
+
+        /** Answers given so far, packed as in {@link SurveyResponseStore}. */
+        private long response;
+
+        /**
+         * Starts tracking a participant's survey.
+         */
+        private Pending(Participant participant) {
+            this.participant = participant;
+        }
+    }
+}
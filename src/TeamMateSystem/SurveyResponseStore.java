@@ -0,0 +1,136 @@
+package TeamMateSystem;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@code SurveyResponseStore} class keeps every participant's survey answers packed
+ * into a single {@code long}, addressed by an ordinal handed out when the participant registers.
+ *
+ * <p>Bit layout of a packed response (a field value of {@code 0} means "not answered"):</p>
+ * <ul>
+ *     <li>Bits 0–14: answers to the five personality questions, 3 bits each (1 to 5).</li>
+ *     <li>Bits 15–18: preferred game code (position in the game list plus one).</li>
+ *     <li>Bits 19–22: skill level (1 to 10).</li>
+ *     <li>Bits 23–26: preferred role code (position in the role list plus one).</li>
+ * </ul>
+ *
+ * <p>Responses live in fixed-size pages of {@link AtomicLongArray}, created on demand, so the
+ * store grows without copying and without locks. Single answers are written with a
+ * compare-and-set loop, so concurrent answers for the same participant are never lost.</p>
+ */
+public class SurveyResponseStore {
+
+    /** Number of survey questions stored. */
+    public static final int QUESTIONS = 8;
+
+    /** Bit offset of each question's field, by question number (index 0 unused). */
+    private static final int[] SHIFTS = {0, 0, 3, 6, 9, 12, 15, 19, 23};
+
+    /** Bit width of each question's field, by question number (index 0 unused). */
+    private static final int[] WIDTHS = {0, 3, 3, 3, 3, 3, 4, 4, 4};
+
+    /** log2 of the number of responses per page. */
+    private static final int PAGE_BITS = 12;
+
+    /** Number of responses per page. */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /** Pages of packed responses, created on first use. */
+    private final AtomicReferenceArray<AtomicLongArray> pages = new AtomicReferenceArray<>(1 << 16);
+
+    /** Next ordinal to hand out. */
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    /**
+     * Reserves a slot for a new participant.
+     *
+     * @return The participant's ordinal in this store.
+     */
+    public int register() {
+        int ordinal = nextOrdinal.getAndIncrement();
+        page(ordinal);
+        return ordinal;
+    }
+
+    /**
+     * Returns the page holding an ordinal, creating it if needed.
+     *
+     * @param ordinal The participant ordinal.
+     * @return The page.
+     * @throws IllegalArgumentException If the ordinal is negative, so was never handed out.
+     */
+    private AtomicLongArray page(int ordinal) {
+        if (ordinal < 0){
+            throw new IllegalArgumentException("No survey response was registered for ordinal " + ordinal);
+        }
+        int pageNo = ordinal >>> PAGE_BITS;
+        AtomicLongArray page = pages.get(pageNo);
+        if (page == null){
+            pages.compareAndSet(pageNo, null, new AtomicLongArray(PAGE_SIZE));
+            page = pages.get(pageNo);
+        }
+        return page;
+    }
+
+    /**
+     * Atomically records one answer for a participant.
+     *
+     * @param ordinal    The participant ordinal.
+     * @param questionNo The question number (1 to 8).
+     * @param code       The encoded answer; must fit the question's field.
+     */
+    public void setAnswer(int ordinal, int questionNo, int code) {
+        AtomicLongArray page = page(ordinal);
+        int slot = ordinal & (PAGE_SIZE - 1);
+        long current;
+        do {
+            current = page.get(slot);
+        } while (!page.compareAndSet(slot, current, withAnswer(current, questionNo, code)));
+    }
+
+    /**
+     * Atomically replaces all of a participant's answers at once.
+     *
+     * @param ordinal  The participant ordinal.
+     * @param response The packed response.
+     */
+    public void setResponse(int ordinal, long response) {
+        page(ordinal).set(ordinal & (PAGE_SIZE - 1), response);
+    }
+
+    /**
+     * Returns a participant's packed response.
+     *
+     * @param ordinal The participant ordinal.
+     * @return The packed response ({@code 0} if nothing was answered).
+     */
+    public long getResponse(int ordinal) {
+        return page(ordinal).get(ordinal & (PAGE_SIZE - 1));
+    }
+
+    /**
+     * Returns a packed response with one answer replaced.
+     *
+     * @param response   The packed response.
+     * @param questionNo The question number (1 to 8).
+     * @param code       The encoded answer.
+     * @return The updated packed response.
+     */
+    public static long withAnswer(long response, int questionNo, int code) {
+        long mask = ((1L << WIDTHS[questionNo]) - 1) << SHIFTS[questionNo];
+        return (response & ~mask) | (((long) code << SHIFTS[questionNo]) & mask);
+    }
+
+    /**
+     * Reads one answer from a packed response.
+     *
+     * @param response   The packed response.
+     * @param questionNo The question number (1 to 8).
+     * @return The encoded answer, or {@code 0} if not answered.
+     */
+    public static int answer(long response, int questionNo) {
+        return (int) ((response >>> SHIFTS[questionNo]) & ((1L << WIDTHS[questionNo]) - 1));
+    }
+}
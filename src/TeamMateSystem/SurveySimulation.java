@@ -0,0 +1,141 @@
+package TeamMateSystem;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code SurveySimulation} class load-tests the survey with many simulated participants
+ * in flight at the same time, each on its own virtual thread.
+ *
+ * <ul>
+ *     <li>Participants arrive at a fixed rate, and each one pauses between answers for a
+ *     random think time, so the system sees realistic numbers of surveys in progress.</li>
+ *     <li>Participants and their workers are only created when they arrive, and at most
+ *     {@code maxInFlight} are in progress at once, so memory stays bounded however many
+ *     participants are simulated.</li>
+ *     <li>The latency of every {@link FillSurveyWorker.Phase} is recorded and reported as
+ *     percentiles at the end.</li>
+ * </ul>
+ */
+public class SurveySimulation {
+
+    /** Number of participants to simulate. */
+    private final int participants;
+
+    /** Participants arriving per second, or 0 for all at once. */
+    private final double arrivalRate;
+
+    /** Mean pause before each answer, in nanoseconds. */
+    private final long thinkTimeNanos;
+
+    /** Most participants in progress at the same time. */
+    private final int maxInFlight;
+
+    /** Longest time to wait for the simulation to finish. */
+    private final Duration timeout;
+
+    /** Latency of each phase, by {@link FillSurveyWorker.Phase} ordinal. */
+    private final LatencyHistogram[] latencies = new LatencyHistogram[FillSurveyWorker.Phase.values().length];
+
+    /**
+     * Configures a simulation.
+     *
+     * @param participants Number of participants to simulate.
+     * @param arrivalRate  Participants arriving per second, or 0 for all at once.
+     * @param thinkTime    Mean pause before each answer.
+     * @param maxInFlight  Most participants in progress at the same time.
+     * @param timeout      Longest time to wait for the simulation to finish.
+     */
+    public SurveySimulation(int participants, double arrivalRate, Duration thinkTime, int maxInFlight, Duration timeout) {
+        if (participants < 0 || arrivalRate < 0 || thinkTime.isNegative() || maxInFlight <= 0){
+            throw new IllegalArgumentException("Simulation settings cannot be negative");
+        }
+        this.participants = participants;
+        this.arrivalRate = arrivalRate;
+        this.thinkTimeNanos = thinkTime.toNanos();
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Runs the simulation against a controller and waits for it to finish.
+     *
+     * @param controller The controller the simulated participants fill the survey through.
+     * @return {@link Message} with the latency report, or why the simulation did not finish.
+     */
+    public Message run(TeamMateController controller) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = arrivalRate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / arrivalRate) : 0;
+        long start = System.nanoTime();
+
+        try {
+            for (int i = 1; i <= participants; i++) {
+                // Hold each arrival back until its time comes
+                long due = start + (i - 1) * intervalNanos;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                inFlight.acquire();
+                Participant participant = new Participant("Participant_" + i, "user" + i + "@university.edu",
+                        controller.getVocabulary());
+                FillSurveyWorker worker = new FillSurveyWorker(participant, controller, thinkTimeNanos, latencies);
+                Runnable task = SurveyTaskQueueEvent.wrap(participant.getId(), worker);
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            executor.shutdown();
+            if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)){
+                executor.shutdownNow();
+                return new Message(false, Color.RED + "Timeout reached before all tasks finished." + Color.RESET + "\n" + report(start));
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            return new Message(false, Color.RED + "Thread interrupted while waiting for survey tasks!" + Color.RESET);
+        }
+        return new Message(true, Color.GREEN + "All survey tasks completed!" + Color.RESET + "\n" + report(start));
+    }
+
+    /**
+     * Returns the latencies recorded for a phase.
+     *
+     * @param phase The phase.
+     * @return The phase's latency histogram.
+     */
+    public LatencyHistogram getLatency(FillSurveyWorker.Phase phase) {
+        return latencies[phase.ordinal()];
+    }
+
+    /**
+     * Builds the report: throughput, then one line of percentiles per phase.
+     *
+     * @param startNanos When the simulation started.
+     * @return The report.
+     */
+    private String report(long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        StringBuilder report = new StringBuilder(String.format("%d participants in %.2fs (%.0f/s)",
+                getLatency(FillSurveyWorker.Phase.ADD).getCount(), seconds,
+                getLatency(FillSurveyWorker.Phase.ADD).getCount() / Math.max(seconds, 1e-9)));
+        for (FillSurveyWorker.Phase phase: FillSurveyWorker.Phase.values()){
+            report.append(System.lineSeparator()).append(String.format("%-6s %s", phase, getLatency(phase)));
+        }
+        return report.toString();
+    }
+}
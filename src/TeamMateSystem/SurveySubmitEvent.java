@@ -0,0 +1,51 @@
+package TeamMateSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code SurveySubmitEvent} class is a Java Flight Recorder event for one
+ * {@link TeamMateController#submitSurvey(String, String[])} call.
+ */
+@Name("TeamMateSystem.SurveySubmit")
+@Label("Survey Submit")
+@Category({"TeamMateSystem", "Survey"})
+@Description("All survey answers of a participant submitted in one call")
+public class SurveySubmitEvent extends TeamMateEvent {
+
+    /** The participant who submitted. */
+    @Label("Participant")
+    String participantId;
+
+    /** The controller's result code. */
+    @Label("Result")
+    @Description("0 if accepted, negative if rejected before the answers were checked or not saved, otherwise the first invalid question")
+    int result;
+
+    /**
+     * Creates the event and starts timing it.
+     *
+     * @return The event.
+     */
+    static SurveySubmitEvent start() {
+        SurveySubmitEvent event = new SurveySubmitEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the event and commits it if it is being recorded.
+     *
+     * @param participantId The participant who submitted.
+     * @param result        The controller's result code.
+     */
+    void finish(String participantId, int result) {
+        if (stop()){
+            this.participantId = participantId;
+            this.result = result;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package TeamMateSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@code SurveyTaskQueueEvent} class is a Java Flight Recorder event for the time a
+ * survey task waits in the executor's queue, from submission until a thread starts it.
+ *
+ * <p>The event lives until the task starts, so it is only created when it is being
+ * recorded. Otherwise {@link #queued(String)} returns {@code null} and the task is
+ * submitted without any wrapping.</p>
+ */
+@Name("TeamMateSystem.SurveyTaskQueue")
+@Label("Survey Task Queueing")
+@Category({"TeamMateSystem", "Survey"})
+@Description("Time a survey task waited in the executor before it started")
+public class SurveyTaskQueueEvent extends TeamMateEvent {
+
+    /** Type of this event, to check whether it is recorded without creating one. */
+    private static final EventType TYPE = EventType.getEventType(SurveyTaskQueueEvent.class);
+
+    /** The participant whose survey task waited. */
+    @Label("Participant")
+    String participantId;
+
+    /**
+     * Starts timing a task that is about to be submitted.
+     *
+     * @param participantId The participant whose survey task is submitted.
+     * @return The event, or {@code null} if the event is not being recorded.
+     */
+    static SurveyTaskQueueEvent queued(String participantId) {
+        if (!TYPE.isEnabled()){
+            return null;
+        }
+        SurveyTaskQueueEvent event = new SurveyTaskQueueEvent();
+        event.participantId = participantId;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Wraps a task so the event is committed when the task starts.
+     *
+     * @param participantId The participant whose survey task is submitted.
+     * @param task          The task.
+     * @return The wrapped task, or the task itself if the event is not being recorded.
+     */
+    static Runnable wrap(String participantId, Runnable task) {
+        SurveyTaskQueueEvent event = queued(participantId);
+        if (event == null){
+            return task;
+        }
+        return () -> {
+            event.started();
+            task.run();
+        };
+    }
+
+    /**
+     * Stops timing the event and commits it; called on the thread that starts the task.
+     */
+    void started() {
+        if (stop()){
+            commit();
+        }
+    }
+}
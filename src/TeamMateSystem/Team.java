@@ -1,64 +1,73 @@
 package TeamMateSystem;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The {@code Team} class represents a group of participants within the
- * TeamMateSystem. Teams store participants and provide methods to add members
- * and display team information.
+ * TeamMateSystem. Teams store participants and provide methods to display
+ * team information.
  *
- * <p>A {@link CopyOnWriteArrayList} is used to safely handle concurrent
- * modifications when participants are added in parallel.</p>
+ * <p>A team is immutable: its members are fixed when it is created and kept in a
+ * read-only view of the array they were built in, so a team can be shared between
+ * threads without copying or locking.</p>
  */
 public class Team {
 
     /** Unique identifier for the team. */
-    private int id;
+    private final int id;
 
     /** Name of the team. */
     private final String name;
 
-    /** List of participants in this team (thread-safe). */
-    private final List<Participant> team = new CopyOnWriteArrayList<>();
+    /** Participants in this team (read-only view of the member array). */
+    private final List<Participant> team;
 
     /**
-     * Constructs a new {@code Team} with the given ID and name.
+     * Constructs a new {@code Team} with the given ID, name and members.
+     * The member array is used as-is and must not be changed afterwards.
      *
-     * @param id   The unique team identifier.
-     * @param name The team name.
+     * @param id      The unique team identifier.
+     * @param name    The team name.
+     * @param members The participants in this team.
      */
-    public Team(int id, String name) {
+    public Team(int id, String name, Participant[] members) {
         this.id = id;
         this.name = name;
+        this.team = Collections.unmodifiableList(Arrays.asList(members));
     }
 
-    /**
-     * Adds a participant to this team.
-     *
-     * @param participant The participant to add.
-     */
-    public void addParticipant(Participant participant){
-        team.add(participant);
+    /** @return The team's unique ID. */
+    public int getId() {
+        return id;
+    }
+
+    /** @return The team's name. */
+    public String getName() {
+        return name;
     }
 
     /**
      * Returns the list of participants in this team.
      *
-     * @return A thread-safe list of participants.
+     * @return A read-only list of participants.
      */
     public List<Participant> getParticipants(){
         return team;
     }
 
     /**
-     * Displays the team details and all its participants to the console.
+     * Displays the team details and all its participants through the default {@link EventLog},
+     * and waits until they are shown so they stay in order with the caller's own output.
      */
     public void displayTeam(){
-        System.out.println(this);
+        EventLog events = EventLog.getDefault();
+        events.publish(Event.Type.TEXT, null, toString());
         for (Participant participant: this.team){
-            System.out.println(participant.details());
+            events.publish(Event.Type.TEXT, null, participant.details());
         }
+        events.flush();
     }
 
     /**
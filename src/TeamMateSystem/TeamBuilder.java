@@ -1,8 +1,15 @@
 package TeamMateSystem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * The {@code TeamBuilder} abstract class provides a framework for forming teams
@@ -12,9 +19,80 @@ import java.util.List;
  *
  * <p>Concrete subclasses must implement {@link #applyMatchingStrategies(List, int)}
  * to define their own team formation logic (e.g., skill-based, random, or role-based).</p>
+ *
+ * <p>The same workflow can also run on a columnar {@link ParticipantTable}. Subclasses can
+ * override {@link #applyMatchingStrategies(ParticipantTable, int[], int)} to work on the
+ * table's primitive columns and only build {@link Team} objects at the end; by default the
+ * table rows are turned back into a list and handed to the list-based strategy.</p>
+ *
+ * <p>Builders that do work in parallel run it on a shared, long-lived {@link Executor}
+ * passed in at construction (the common fork-join pool by default), never on a pool of
+ * their own.</p>
+ *
+ * <p>Teams can also be formed per shard of participants, for example one set of teams per
+ * game, with {@link #buildTeams(List, int, Function, LeftoverPolicy)}. Each shard runs
+ * through the subclass's strategy on its own; the shards run in parallel only when the
+ * executor is a {@link ForkJoinPool}.</p>
  */
 public abstract class TeamBuilder {
 
+    /**
+     * What partitioned formation does with the participants of shards too small to fill
+     * a single team.
+     */
+    public enum LeftoverPolicy {
+
+        /** Pool them with the other leftovers and form teams from the pool, mixing their keys. */
+        POOL,
+
+        /** Put each small shard into one team of its own, smaller than the team size. */
+        OWN_TEAM,
+
+        /** Leave them out of the teams. */
+        EXCLUDE
+    }
+
+    /** Executor used for any parallel work during formation. */
+    private final Executor executor;
+
+    /** Process-wide metrics every formation run is recorded in. */
+    private final TeamMateMetrics metrics = TeamMateMetrics.get();
+
+    /** Name of this builder, as shown in metrics and flight recordings. */
+    private final String strategy;
+
+    /** Latency of this builder's matching strategy, looked up once. */
+    private final LatencyHistogram strategyLatency;
+
+    /**
+     * Constructs a team builder that runs parallel work on the common fork-join pool.
+     */
+    protected TeamBuilder(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a team builder that runs parallel work on the given executor.
+     * The executor is shared and is never shut down by the builder.
+     *
+     * @param executor The executor for parallel work.
+     */
+    protected TeamBuilder(Executor executor){
+        this.executor = executor;
+        String name = getClass().getSimpleName();
+        this.strategy = name.isEmpty() ? getClass().getName() : name;
+        this.strategyLatency = metrics.strategy(strategy);
+    }
+
+    /**
+     * Returns the executor subclasses should use for parallel work.
+     *
+     * @return The shared executor.
+     */
+    protected Executor getExecutor(){
+        return executor;
+    }
+
     /**
      * Builds teams from a list of participants using a defined workflow:
      * <ol>
@@ -23,14 +101,194 @@ public abstract class TeamBuilder {
      *     <li>Return the formed teams.</li>
      * </ol>
      *
+     * Each phase is timed and recorded in {@link TeamMateMetrics}, and as a
+     * {@link FormationPhaseEvent} when a flight recording is running.
+     *
      * @param participants The list of participants to form into teams.
      * @param teamSize     The desired number of participants per team.
      * @return A list of formed {@link Team} objects.
      */
     public final List<Team> buildTeam(List<Participant> participants, int teamSize){
+        long start = System.nanoTime();
+        FormationPhaseEvent event = FormationPhaseEvent.start();
         List<Participant> participantList = collectData(participants);
+        long collected = metrics.collectData().recordSince(start);
+        event.finish(strategy, "collectData", participants.size(), 0);
+
+        event = FormationPhaseEvent.start();
         List<Team> teams = applyMatchingStrategies(participantList, teamSize);
-        return sendFormedTeams(teams);
+        long matched = metrics.recordMatching(strategyLatency, collected);
+        event.finish(strategy, "applyMatchingStrategies", participants.size(), teams.size());
+
+        event = FormationPhaseEvent.start();
+        List<Team> formed = sendFormedTeams(teams);
+        metrics.recordFormation(start, matched, participants.size(), formed);
+        event.finish(strategy, "sendFormedTeams", participants.size(), formed.size());
+        return formed;
+    }
+
+    /**
+     * Builds teams from a columnar participant table using the same workflow as
+     * {@link #buildTeam(List, int)}, but working on row numbers instead of participant objects.
+     *
+     * @param table    The participants to form into teams.
+     * @param teamSize The desired number of participants per team.
+     * @return A list of formed {@link Team} objects.
+     */
+    public final List<Team> buildTeam(ParticipantTable table, int teamSize){
+        long start = System.nanoTime();
+        FormationPhaseEvent event = FormationPhaseEvent.start();
+        int[] order = collectData(table);
+        long collected = metrics.collectData().recordSince(start);
+        event.finish(strategy, "collectData", table.size(), 0);
+
+        event = FormationPhaseEvent.start();
+        List<Team> teams = applyMatchingStrategies(table, order, teamSize);
+        long matched = metrics.recordMatching(strategyLatency, collected);
+        event.finish(strategy, "applyMatchingStrategies", table.size(), teams.size());
+
+        event = FormationPhaseEvent.start();
+        List<Team> formed = sendFormedTeams(teams);
+        metrics.recordFormation(start, matched, table.size(), formed);
+        event.finish(strategy, "sendFormedTeams", table.size(), formed.size());
+        return formed;
+    }
+
+    /**
+     * Builds teams separately for each shard of participants that share a key, so for
+     * example chess players only form teams with other chess players.
+     *
+     * <ol>
+     *     <li>Split the participants by key, keeping the order in which keys first appear.
+     *     Shards smaller than {@code teamSize} are handled by the leftover policy.</li>
+     *     <li>Form the teams of each shard with this builder's strategy. On a
+     *     {@link ForkJoinPool} every shard is its own task on the pool, and the strategy is
+     *     told how many shards share the pool (see
+     *     {@link #applyMatchingStrategies(ParticipantTable, int[], int, int)}). On any other
+     *     executor the shards are formed one after another on the calling thread, and only
+     *     the strategy's own parallel work runs on the executor.</li>
+     *     <li>Number the teams of all shards from 1, in shard order, so team IDs stay unique.</li>
+     * </ol>
+     *
+     * The phases are recorded like those of {@link #buildTeam(List, int)}, once for the whole run.
+     *
+     * @param participants The participants to form into teams.
+     * @param teamSize     The desired number of participants per team.
+     * @param key          Gives the shard of each participant; {@code null} keys form a shard too.
+     * @param leftovers    What to do with shards smaller than {@code teamSize}.
+     * @param <K>          The type of the key.
+     * @return A list of formed {@link Team} objects.
+     */
+    public final <K> List<Team> buildTeams(List<Participant> participants, int teamSize, Function<Participant, K> key,
+                                           LeftoverPolicy leftovers){
+        long start = System.nanoTime();
+        FormationPhaseEvent event = FormationPhaseEvent.start();
+        List<List<Participant>> shards = partition(participants, teamSize, key, leftovers);
+        long collected = metrics.collectData().recordSince(start);
+        event.finish(strategy, "collectData", participants.size(), 0);
+
+        event = FormationPhaseEvent.start();
+        List<Team> teams = new ArrayList<>();
+        // A shard task waits for the strategy's own tasks on the same executor. Only a
+        // fork-join pool adds threads while a worker waits; on a bounded pool every worker
+        // could end up waiting on tasks queued behind them
+        if (executor instanceof ForkJoinPool && shards.size() > 1){
+            List<CompletableFuture<List<Team>>> tasks = new ArrayList<>(shards.size());
+            for (List<Participant> shard: shards){
+                tasks.add(CompletableFuture.supplyAsync(() -> formShard(shard, teamSize, shards.size()), executor));
+            }
+            for (CompletableFuture<List<Team>> task: tasks){
+                addRenumbered(teams, task.join());
+            }
+        }
+        else {
+            for (List<Participant> shard: shards){
+                addRenumbered(teams, formShard(shard, teamSize, 1));
+            }
+        }
+        long matched = metrics.recordMatching(strategyLatency, collected);
+        event.finish(strategy, "applyMatchingStrategies", participants.size(), teams.size());
+
+        event = FormationPhaseEvent.start();
+        List<Team> formed = sendFormedTeams(teams);
+        metrics.recordFormation(start, matched, participants.size(), formed);
+        event.finish(strategy, "sendFormedTeams", participants.size(), formed.size());
+        return formed;
+    }
+
+    /**
+     * Adds a shard's teams, continuing the team numbering of the shards before it.
+     *
+     * @param teams      The teams of the shards so far.
+     * @param shardTeams The shard's teams, numbered from 1.
+     */
+    private static void addRenumbered(List<Team> teams, List<Team> shardTeams){
+        for (Team team: shardTeams){
+            int id = teams.size() + 1;
+            teams.add(team.getId() == id ? team : new Team(id, team.getName(), team.getParticipants().toArray(new Participant[0])));
+        }
+    }
+
+    /**
+     * Builds teams separately for the players of each preferred game.
+     *
+     * @param participants The participants to form into teams.
+     * @param teamSize     The desired number of participants per team.
+     * @param leftovers    What to do with games that have fewer players than {@code teamSize}.
+     * @return A list of formed {@link Team} objects.
+     */
+    public final List<Team> buildTeamsByGame(List<Participant> participants, int teamSize, LeftoverPolicy leftovers){
+        return buildTeams(participants, teamSize, Participant::getPreferredGameCode, leftovers);
+    }
+
+    /**
+     * Splits participants into the shards to form teams from, applying the leftover policy.
+     *
+     * @param participants The participants.
+     * @param teamSize     The desired number of participants per team.
+     * @param key          Gives the shard of each participant.
+     * @param leftovers    What to do with shards smaller than {@code teamSize}.
+     * @param <K>          The type of the key.
+     * @return The shards, in the order their keys first appear, with pooled leftovers last.
+     */
+    private static <K> List<List<Participant>> partition(List<Participant> participants, int teamSize,
+                                                         Function<Participant, K> key, LeftoverPolicy leftovers){
+        Map<K, List<Participant>> byKey = new LinkedHashMap<>();
+        for (Participant participant: participants){
+            byKey.computeIfAbsent(key.apply(participant), k -> new ArrayList<>()).add(participant);
+        }
+
+        List<List<Participant>> shards = new ArrayList<>(byKey.size());
+        List<Participant> pool = new ArrayList<>();
+        for (List<Participant> shard: byKey.values()){
+            if (shard.size() >= teamSize || leftovers == LeftoverPolicy.OWN_TEAM){
+                shards.add(shard);
+            }
+            else if (leftovers == LeftoverPolicy.POOL){
+                pool.addAll(shard);
+            }
+        }
+        if (!pool.isEmpty()){
+            shards.add(pool);
+        }
+        return shards;
+    }
+
+    /**
+     * Forms the teams of one shard with this builder's strategy. A shard that cannot fill
+     * more than one team becomes a single team without running the strategy.
+     *
+     * @param shard            The shard's participants.
+     * @param teamSize         The desired number of participants per team.
+     * @param concurrentShards Number of shards formed at the same time, this one included.
+     * @return The shard's teams, numbered from 1.
+     */
+    private List<Team> formShard(List<Participant> shard, int teamSize, int concurrentShards){
+        if (shard.size() <= teamSize){
+            return List.of(new Team(1, "Team", shard.toArray(new Participant[0])));
+        }
+        ParticipantTable table = ParticipantTable.of(shard);
+        return applyMatchingStrategies(table, collectData(table), teamSize, concurrentShards);
     }
 
     /**
@@ -38,15 +296,92 @@ public abstract class TeamBuilder {
      * By default, it sorts participants by skill level in ascending order.
      * Subclasses may override if additional pre-processing is needed.
      *
+     * <p>Skill levels are bounded, so a stable counting sort is used; it falls back to a
+     * comparator sort if any skill level is outside the valid range.</p>
+     *
      * @param participants The original list of participants.
      * @return A sorted list of participants.
      */
     protected List<Participant> collectData(List<Participant> participants){
-        List<Participant> sortedParticipants = new ArrayList<>(participants);
-        sortedParticipants.sort(Comparator.comparing(Participant::getSkillLevel));
+        int[] skillLevels = new int[participants.size()];
+        for (int i = 0; i < skillLevels.length; i++) {
+            skillLevels[i] = participants.get(i).getSkillLevel();
+        }
+
+        int[] order = countingSortBySkill(skillLevels);
+        if (order == null){
+            List<Participant> sortedParticipants = new ArrayList<>(participants);
+            sortedParticipants.sort(Comparator.comparingInt(Participant::getSkillLevel));
+            return sortedParticipants;
+        }
+
+        List<Participant> sortedParticipants = new ArrayList<>(order.length);
+        for (int position: order){
+            sortedParticipants.add(participants.get(position));
+        }
         return sortedParticipants;
     }
 
+    /**
+     * Orders the rows of a participant table by skill level in ascending order.
+     * Rows with equal skill keep their table order.
+     *
+     * @param table The participant table.
+     * @return Row numbers sorted by skill level.
+     */
+    protected int[] collectData(ParticipantTable table){
+        int[] skillLevels = new int[table.size()];
+        for (int row = 0; row < skillLevels.length; row++) {
+            skillLevels[row] = table.skillLevel(row);
+        }
+
+        int[] order = countingSortBySkill(skillLevels);
+        if (order != null){
+            return order;
+        }
+
+        // Skill in the high half and row in the low half, so a primitive sort is also stable
+        long[] keys = new long[skillLevels.length];
+        for (int row = 0; row < keys.length; row++) {
+            keys[row] = ((long) skillLevels[row] << 32) | row;
+        }
+        Arrays.sort(keys);
+
+        order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Stable counting sort of positions by skill level, in O(n) time.
+     *
+     * @param skillLevels Skill level at each position.
+     * @return Positions sorted by skill level, or {@code null} if a skill level is outside
+     *         {@link Participant#MIN_SKILL_LEVEL} to {@link Participant#MAX_SKILL_LEVEL}.
+     */
+    private static int[] countingSortBySkill(int[] skillLevels){
+        int[] starts = new int[Participant.MAX_SKILL_LEVEL - Participant.MIN_SKILL_LEVEL + 2];
+        for (int skillLevel: skillLevels){
+            if (skillLevel < Participant.MIN_SKILL_LEVEL || skillLevel > Participant.MAX_SKILL_LEVEL){
+                return null;
+            }
+            starts[skillLevel - Participant.MIN_SKILL_LEVEL + 1]++;
+        }
+
+        // Turn the counts into the first output slot of each skill level
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+
+        int[] order = new int[skillLevels.length];
+        for (int position = 0; position < skillLevels.length; position++) {
+            order[starts[skillLevels[position] - Participant.MIN_SKILL_LEVEL]++] = position;
+        }
+        return order;
+    }
+
     /**
      * Abstract method to apply a team formation strategy.
      * Subclasses must implement this method to define how participants
@@ -58,6 +393,36 @@ public abstract class TeamBuilder {
      */
     protected abstract List<Team> applyMatchingStrategies(List<Participant> participants, int teamSize);
 
+    /**
+     * Applies the team formation strategy to a participant table. By default, the rows are
+     * turned into a list in the given order and passed to {@link #applyMatchingStrategies(List, int)}.
+     * Subclasses may override this to work on the table's columns directly.
+     *
+     * @param table    The participant table.
+     * @param order    Row numbers in the order produced by {@link #collectData(ParticipantTable)}.
+     * @param teamSize The desired number of participants per team.
+     * @return A list of {@link Team} objects after applying the strategy.
+     */
+    protected List<Team> applyMatchingStrategies(ParticipantTable table, int[] order, int teamSize){
+        return applyMatchingStrategies(table.participants(order), teamSize);
+    }
+
+    /**
+     * Applies the team formation strategy to one shard of {@link #buildTeams(List, int, Function, LeftoverPolicy)}
+     * while other shards are formed at the same time on the executor. Strategies that run
+     * parallel work of their own can use this to take only their shard's share of the
+     * executor. By default, the number of shards is ignored.
+     *
+     * @param table            The shard's participant table.
+     * @param order            Row numbers in the order produced by {@link #collectData(ParticipantTable)}.
+     * @param teamSize         The desired number of participants per team.
+     * @param concurrentShards Number of shards formed at the same time, this one included.
+     * @return A list of {@link Team} objects after applying the strategy.
+     */
+    protected List<Team> applyMatchingStrategies(ParticipantTable table, int[] order, int teamSize, int concurrentShards){
+        return applyMatchingStrategies(table, order, teamSize);
+    }
+
     /**
      * Sends or returns the formed teams. By default, this method simply returns
      * the teams as-is, but subclasses could override it to perform additional
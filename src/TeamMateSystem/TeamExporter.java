@@ -0,0 +1,348 @@
+package TeamMateSystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The {@code TeamExporter} class writes formed teams to a file, serializing them on
+ * several cores at once.
+ *
+ * <p>The teams are cut into chunks and each chunk is serialized on a {@link ForkJoinPool}
+ * straight into its own byte buffer, without building a string per participant. Finished
+ * chunks are written in team order, as many as are ready in one gathering write. Only a
+ * small window of chunks is in flight at a time, so memory stays bounded however many
+ * teams are exported.</p>
+ *
+ * <p>With compression on, every chunk is compressed on its own into a separate GZIP member.
+ * Concatenated members form a valid GZIP file that {@code gunzip} and
+ * {@link java.util.zip.GZIPInputStream} read as one stream, so compression runs in
+ * parallel too.</p>
+ *
+ * <p>The file is written next to the target first and moved into place when complete.</p>
+ */
+public class TeamExporter {
+
+    /**
+     * Layout of an exported file.
+     */
+    public enum Format {
+
+        /** The team heading, one {@link Participant#details()} line per member and a blank line after each team. */
+        CSV,
+
+        /** One JSON object per team and line, with the team's id, name and members. */
+        JSON_LINES
+    }
+
+    /** Default number of teams serialized together. */
+    public static final int DEFAULT_CHUNK_TEAMS = 4096;
+
+    /** Pool the chunks are serialized on. */
+    private final ForkJoinPool pool;
+
+    /** Number of teams serialized together. */
+    private final int chunkTeams;
+
+    /** Charset of {@link Format#CSV} files (same as {@link java.io.FileWriter}'s default). */
+    private final Charset charset = Charset.defaultCharset();
+
+    /**
+     * Constructs an exporter that uses the common fork-join pool and the default chunk size.
+     */
+    public TeamExporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_TEAMS);
+    }
+
+    /**
+     * Constructs an exporter with a specific pool and chunk size.
+     *
+     * @param pool       The pool the chunks are serialized on.
+     * @param chunkTeams The number of teams serialized together.
+     */
+    public TeamExporter(ForkJoinPool pool, int chunkTeams) {
+        if (chunkTeams <= 0){
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkTeams = chunkTeams;
+    }
+
+    /**
+     * Writes teams to a file, replacing it.
+     *
+     * @param teams  The teams to export.
+     * @param path   The file to write.
+     * @param format The layout of the file.
+     * @param gzip   Whether to compress the file with GZIP.
+     * @return The number of bytes written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long export(List<Team> teams, Path path, Format format, boolean gzip) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        int window = Math.max(1, pool.getParallelism() * 2);
+        long written = 0;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ArrayDeque<Future<ByteBuffer>> inFlight = new ArrayDeque<>(window);
+            int next = 0;
+            while (next < teams.size() || !inFlight.isEmpty()) {
+                // Keep the window full so serializing carries on while earlier chunks are written
+                while (inFlight.size() < window && next < teams.size()) {
+                    List<Team> chunk = teams.subList(next, Math.min(teams.size(), next + chunkTeams));
+                    inFlight.add(pool.submit(() -> serialize(chunk, format, gzip)));
+                    next += chunk.size();
+                }
+
+                // Write the oldest chunk together with every chunk after it that is already done
+                List<ByteBuffer> ready = new ArrayList<>();
+                ready.add(await(inFlight.poll()));
+                while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                    ready.add(await(inFlight.poll()));
+                }
+                written += writeFully(channel, ready.toArray(new ByteBuffer[0]));
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    /**
+     * Serializes one chunk of teams, compressing it if asked to.
+     *
+     * @param teams  The teams in the chunk.
+     * @param format The layout of the file.
+     * @param gzip   Whether to compress the chunk into its own GZIP member.
+     * @return The chunk's bytes, ready to be written.
+     * @throws IOException If compressing fails.
+     */
+    private ByteBuffer serialize(List<Team> teams, Format format, boolean gzip) throws IOException {
+        ChunkWriter out = new ChunkWriter(teams.size() * 256, format == Format.CSV ? charset : StandardCharsets.UTF_8);
+        if (format == Format.CSV){
+            String lineSeparator = System.lineSeparator();
+            for (Team team: teams){
+                out.text(team.getName()).text(" ").number(team.getId()).text(":").text(lineSeparator);
+                for (Participant participant: team.getParticipants()){
+                    out.text("ID: ").text(participant.getId())
+                            .text(", Name: ").text(participant.getName())
+                            .text(", Email: ").text(participant.getEmail()).text(lineSeparator);
+                }
+                out.text(lineSeparator);
+            }
+        }
+        else {
+            for (Team team: teams){
+                out.text("{\"id\":").number(team.getId()).text(",\"name\":").json(team.getName()).text(",\"members\":[");
+                List<Participant> members = team.getParticipants();
+                for (int i = 0; i < members.size(); i++) {
+                    Participant participant = members.get(i);
+                    out.text(i == 0 ? "{\"id\":" : ",{\"id\":").json(participant.getId())
+                            .text(",\"name\":").json(participant.getName())
+                            .text(",\"email\":").json(participant.getEmail()).text("}");
+                }
+                out.text("]}\n");
+            }
+        }
+
+        if (!gzip){
+            return ByteBuffer.wrap(out.bytes, 0, out.size);
+        }
+        ChunkWriter compressed = new ChunkWriter(out.size / 4 + 64, charset);
+        try (GZIPOutputStream stream = new GZIPOutputStream(compressed.asStream(), 64 * 1024)) {
+            stream.write(out.bytes, 0, out.size);
+        }
+        return ByteBuffer.wrap(compressed.bytes, 0, compressed.size);
+    }
+
+    /**
+     * Waits for a serialized chunk, unwrapping any failure thrown while serializing it.
+     *
+     * @param chunk The chunk being serialized.
+     * @return The chunk's bytes.
+     * @throws IOException If serializing failed or the wait was interrupted.
+     */
+    private ByteBuffer await(Future<ByteBuffer> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting teams", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException){
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Keeps writing until every buffer has been fully written.
+     *
+     * @param channel The file channel.
+     * @param buffers The buffers to write, in order.
+     * @return The number of bytes written.
+     * @throws IOException If the channel write fails.
+     */
+    private static long writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        long written = 0;
+        ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            written += channel.write(buffers);
+        }
+        return written;
+    }
+
+    /**
+     * A growable byte array that text is encoded straight into. ASCII text, which is
+     * nearly all of it, is copied a character at a time without creating any objects.
+     */
+    private static final class ChunkWriter {
+
+        /** Charset used for text that is not plain ASCII. */
+        private final Charset charset;
+
+        /** The encoded bytes; only the first {@link #size} are used. */
+        private byte[] bytes;
+
+        /** Number of bytes written. */
+        private int size;
+
+        /**
+         * Creates a writer with an initial capacity.
+         */
+        private ChunkWriter(int capacity, Charset charset) {
+            this.bytes = new byte[Math.max(64, capacity)];
+            this.charset = charset;
+        }
+
+        /**
+         * Appends text; {@code null} is written as {@code "null"}, as string concatenation does.
+         */
+        private ChunkWriter text(String value) {
+            String text = String.valueOf(value);
+            int length = text.length();
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80){
+                    return bytes(text.getBytes(charset));
+                }
+                bytes[size + i] = (byte) c;
+            }
+            size += length;
+            return this;
+        }
+
+        /**
+         * Appends a number in decimal.
+         */
+        private ChunkWriter number(int value) {
+            if (value < 0){
+                return text(Integer.toString(value));
+            }
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            ensure(digits);
+            for (int i = size + digits - 1, rest = value; i >= size; i--, rest /= 10) {
+                bytes[i] = (byte) ('0' + rest % 10);
+            }
+            size += digits;
+            return this;
+        }
+
+        /**
+         * Appends a JSON string literal, or {@code null}.
+         */
+        private ChunkWriter json(String value) {
+            if (value == null){
+                return text("null");
+            }
+            ensure(value.length() + 2);
+            bytes[size++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\'){
+                    ensure(2);
+                    bytes[size++] = '\\';
+                    bytes[size++] = (byte) c;
+                }
+                else if (c < 0x20){
+                    text(String.format("\\u%04x", (int) c));
+                }
+                else if (c < 0x80){
+                    ensure(1);
+                    bytes[size++] = (byte) c;
+                }
+                else {
+                    // Take the whole surrogate pair, if there is one, so it encodes correctly
+                    int end = Character.isHighSurrogate(c) && i + 1 < value.length() ? i + 2 : i + 1;
+                    bytes(value.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                    i = end - 1;
+                }
+            }
+            ensure(1);
+            bytes[size++] = '"';
+            return this;
+        }
+
+        /**
+         * Appends raw bytes.
+         */
+        private ChunkWriter bytes(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+            return this;
+        }
+
+        /**
+         * Makes room for at least {@code extra} more bytes.
+         */
+        private void ensure(int extra) {
+            if (size + extra > bytes.length){
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        /**
+         * Returns a stream that appends to this writer.
+         */
+        private OutputStream asStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    ensure(1);
+                    bytes[size++] = (byte) b;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    ensure(len);
+                    System.arraycopy(b, off, bytes, size, len);
+                    size += len;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package TeamMateSystem;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * The {@code TeamIndex} class maps each participant ID to the team the participant is in,
+ * so looking up a participant's team takes constant time instead of scanning every team.
+ *
+ * <p>An index never changes once built, so any number of threads can read it without
+ * locking. A change is made by deriving a new index with {@link #with(Map, Map)}:</p>
+ *
+ * <ul>
+ *     <li>The derived index shares the teams and positions of the index it came from and
+ *     keeps only the changed entries in a small overlay, which lookups check first.</li>
+ *     <li>Once the overlay grows past about the square root of the base, the next change
+ *     builds a fresh index without an overlay. Both copying the overlay on each change and
+ *     the occasional rebuild then stay well below the cost of copying the whole index.</li>
+ * </ul>
+ *
+ * <p>The index stores team positions rather than {@link Team} objects, so a team replaced
+ * by an updated copy only changes the team at its position.</p>
+ */
+public class TeamIndex {
+
+    /** Position recorded in an overlay for a participant who is no longer in a team. */
+    static final int NONE = -1;
+
+    /** Smallest overlay that triggers a rebuild. */
+    private static final int MIN_OVERLAY = 64;
+
+    /** Teams of the base index, by position; never changed after construction. */
+    private final Team[] baseTeams;
+
+    /** Position of each participant's team in the base index; never changed after construction. */
+    private final Map<String, Integer> basePositions;
+
+    /** Teams changed or added since the base was built, by position. */
+    private final Map<Integer, Team> changedTeams;
+
+    /** Positions changed since the base was built, by participant ID; {@link #NONE} if removed. */
+    private final Map<String, Integer> changedPositions;
+
+    /** Number of teams. */
+    private final int teamCount;
+
+    /** Number of participants in a team. */
+    private final int participantCount;
+
+    /** Read-only view of the teams, in position order. */
+    private final List<Team> teams = new TeamList();
+
+    /**
+     * Builds an index over a list of formed teams.
+     *
+     * @param teams The formed teams.
+     */
+    public TeamIndex(List<Team> teams) {
+        this.baseTeams = teams.toArray(new Team[0]);
+        this.basePositions = new HashMap<>();
+        for (int i = 0; i < baseTeams.length; i++) {
+            for (Participant participant: baseTeams[i].getParticipants()){
+                basePositions.put(participant.getId(), i);
+            }
+        }
+        this.changedTeams = Collections.emptyMap();
+        this.changedPositions = Collections.emptyMap();
+        this.teamCount = baseTeams.length;
+        this.participantCount = basePositions.size();
+    }
+
+    /**
+     * Creates an index that shares a base and adds an overlay.
+     */
+    private TeamIndex(TeamIndex base, Map<Integer, Team> changedTeams, Map<String, Integer> changedPositions,
+                      int teamCount, int participantCount) {
+        this.baseTeams = base.baseTeams;
+        this.basePositions = base.basePositions;
+        this.changedTeams = changedTeams;
+        this.changedPositions = changedPositions;
+        this.teamCount = teamCount;
+        this.participantCount = participantCount;
+    }
+
+    /**
+     * Returns the team a participant is in.
+     *
+     * @param participantId The participant's ID.
+     * @return The participant's team, or {@code null} if they are not in a team.
+     */
+    public Team teamOf(String participantId) {
+        Integer position = positionOf(participantId);
+        return position == null ? null : teamAt(position);
+    }
+
+    /**
+     * Returns the position of a participant's team in the team list.
+     *
+     * @param participantId The participant's ID.
+     * @return The team position, or {@code null} if they are not in a team.
+     */
+    public Integer positionOf(String participantId) {
+        Integer position = changedPositions.get(participantId);
+        if (position == null){
+            return basePositions.get(participantId);
+        }
+        return position == NONE ? null : position;
+    }
+
+    /**
+     * Returns the team at a position.
+     *
+     * @param position The team position.
+     * @return The team.
+     * @throws IndexOutOfBoundsException If there is no team at that position.
+     */
+    public Team teamAt(int position) {
+        if (position < 0 || position >= teamCount){
+            throw new IndexOutOfBoundsException("No team at position " + position);
+        }
+        Team team = changedTeams.get(position);
+        return team != null ? team : baseTeams[position];
+    }
+
+    /**
+     * Returns the teams in position order.
+     *
+     * @return A read-only list of the teams.
+     */
+    public List<Team> getTeams() {
+        return teams;
+    }
+
+    /** @return The number of teams. */
+    public int getTeamCount() {
+        return teamCount;
+    }
+
+    /** @return The number of participants in a team. */
+    public int getParticipantCount() {
+        return participantCount;
+    }
+
+    /**
+     * Derives an index with some teams and positions changed. This index stays as it is.
+     *
+     * @param teams     The changed or added teams, by position. Added teams must directly follow the existing ones.
+     * @param positions The changed positions, by participant ID; {@link #NONE} for a participant who left.
+     * @return The new index.
+     */
+    TeamIndex with(Map<Integer, Team> teams, Map<String, Integer> positions) {
+        int count = teamCount;
+        for (int position: teams.keySet()){
+            count = Math.max(count, position + 1);
+        }
+        int participants = participantCount;
+        for (Map.Entry<String, Integer> entry: positions.entrySet()){
+            boolean before = positionOf(entry.getKey()) != null;
+            boolean after = entry.getValue() != NONE;
+            participants += (after ? 1 : 0) - (before ? 1 : 0);
+        }
+
+        Map<Integer, Team> overlayTeams = new HashMap<>(changedTeams);
+        overlayTeams.putAll(teams);
+        Map<String, Integer> overlayPositions = new HashMap<>(changedPositions);
+        overlayPositions.putAll(positions);
+        TeamIndex derived = new TeamIndex(this, overlayTeams, overlayPositions, count, participants);
+
+        int limit = Math.max(MIN_OVERLAY, (int) Math.sqrt(basePositions.size()));
+        return overlayPositions.size() + overlayTeams.size() > limit ? new TeamIndex(derived.teams) : derived;
+    }
+
+    /**
+     * Returns the participants whose team may differ between this index and another.
+     *
+     * @param other The other index.
+     * @return The participant IDs to compare, or {@code null} if the indexes do not share a
+     *         base, so every participant has to be compared.
+     */
+    Set<String> changedSince(TeamIndex other) {
+        if (other.basePositions != basePositions){
+            return null;
+        }
+        Set<String> changed = new HashSet<>(changedPositions.keySet());
+        changed.addAll(other.changedPositions.keySet());
+        return changed;
+    }
+
+    /**
+     * Returns the team positions that may hold a different team in this index and another.
+     *
+     * @param other The other index.
+     * @return The positions to compare, or {@code null} if the indexes do not share a base.
+     */
+    Set<Integer> changedTeamsSince(TeamIndex other) {
+        if (other.basePositions != basePositions){
+            return null;
+        }
+        Set<Integer> changed = new HashSet<>(changedTeams.keySet());
+        changed.addAll(other.changedTeams.keySet());
+        return changed;
+    }
+
+    /**
+     * Read-only list view of the teams.
+     */
+    private final class TeamList extends AbstractList<Team> implements RandomAccess {
+
+        @Override
+        public Team get(int index) {
+            return teamAt(index);
+        }
+
+        @Override
+        public int size() {
+            return teamCount;
+        }
+    }
+}
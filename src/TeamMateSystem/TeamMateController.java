@@ -1,8 +1,14 @@
 package TeamMateSystem;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,6 +23,27 @@ import java.util.concurrent.TimeUnit;
  */
 public class TeamMateController {
 
+    /** Result code of {@link #submitSurvey(String, String[])}: every answer was accepted. */
+    public static final int SURVEY_ACCEPTED = 0;
+
+    /** Result code of {@link #submitSurvey(String, String[])}: the participant is not registered. */
+    public static final int SURVEY_UNKNOWN_PARTICIPANT = -1;
+
+    /** Result code of {@link #submitSurvey(String, String[])}: the number of answers is wrong. */
+    public static final int SURVEY_WRONG_ANSWER_COUNT = -2;
+
+    /** Result code of {@link #submitSurvey(String, String[])}: the answers could not be journaled. */
+    public static final int SURVEY_NOT_SAVED = -3;
+
+    /**
+     * Result code of {@link #submitSurvey(String, String[])}: the participant has no survey open,
+     * because their personality type was already known when they were loaded.
+     */
+    public static final int SURVEY_NOT_OPEN = -4;
+
+    /** Directory holding participants.csv, the participant store and the survey journal by default. */
+    public static final String DEFAULT_DATA_DIRECTORY = "C:\\Users\\HP\\IdeaProjects\\TeamMateSystem";
+
     /** Stores all participants by their unique ID. */
     private final ConcurrentHashMap<String, Participant> participants = new ConcurrentHashMap<>();
 
@@ -27,19 +54,142 @@ public class TeamMateController {
     private final Organizer organizer = new Organizer("admin", "123");
 
     /** Predefined list of games participants can choose from. */
-    private final List<String> GAMES = new ArrayList<>(Arrays.asList("chess", "fifa", "basketball", "cs:go", "dota 2", "valorant"));
+    private final List<String> GAMES = new ArrayList<>(EventVocabulary.DEFAULT_GAMES);
 
     /** Predefined list of roles participants can choose from. */
-    private final List<String> ROLES = new ArrayList<>(Arrays.asList("strategist", "attacker", "defender", "supporter", "coordinator"));
+    private final List<String> ROLES = new ArrayList<>(EventVocabulary.DEFAULT_ROLES);
+
+    /** Codes of the games, roles and personality types of this event's participants. */
+    private final EventVocabulary vocabulary = new EventVocabulary(GAMES, ROLES);
+
+    /** Published versions of the formed teams; readers take the current one without locking. */
+    private final TeamSnapshotHistory teamSnapshots = new TeamSnapshotHistory();
+
+    /** Keeps the formed teams balanced as participants join or leave; {@code null} until teams are formed. */
+    private volatile IncrementalTeamBalancer balancer;
+
+    /** Process-wide survey and file metrics, published over JMX. */
+    private final TeamMateMetrics metrics = TeamMateMetrics.get();
+
+    /** CSV file handler to read participant files and write team data. */
+    private final CsvFileHandler csvFileHandler = new CsvFileHandler(vocabulary);
+
+    /** Imports participants files into the repository and exports the repository back. */
+    private final CsvParticipantAdapter csvAdapter = new CsvParticipantAdapter(csvFileHandler);
+
+    /** Remembers how far participants.csv has been read, so uploads can read just the new rows. */
+    private final CsvTailReader csvTail;
+
+    /** Uploads rows appended to participants.csv in the background; {@code null} when not following. */
+    private CsvFileFollower csvFollower;
+
+    /** Hands out the IDs of new participants, above every ID already in use. */
+    private final ParticipantIdAllocator idAllocator = ParticipantIdAllocator.get();
+
+    /** Where participant details are persisted. */
+    private final ParticipantRepository repository;
+
+    /** Write-ahead journal of surveys in progress, replayed on startup. */
+    private final SurveyJournal journal;
 
-    /** Stores the teams formed after team formation. */
-    private final List<Team> teams = new ArrayList<>();
+    /** File path of the participants.csv file. */
+    private final String filePath;
 
-    /** CSV file handler to read/write participant and team data. */
-    private final CsvFileHandler csvFileHandler = new CsvFileHandler();
+    /** Binary snapshot of participants.csv, used to reload it without parsing text. */
+    private final String snapshotPath;
 
-    /** Default file path for participants.csv file. */
-    private final String filePath = "C:\\Users\\HP\\IdeaProjects\\TeamMateSystem\\participants.csv";
+    /** Directory of the embedded participant store. */
+    private final String storePath;
+
+    /** Journal of surveys in progress. */
+    private final String journalPath;
+
+    /**
+     * Constructs the controller on the files in {@link #DEFAULT_DATA_DIRECTORY}.
+     *
+     * @throws UncheckedIOException If the participant store, participants.csv or the journal cannot be read.
+     * @see #TeamMateController(Path)
+     */
+    public TeamMateController() {
+        this(Paths.get(DEFAULT_DATA_DIRECTORY));
+    }
+
+    /**
+     * Constructs the controller and opens the participant store and the survey journal,
+     * recovering anything written before the last exit or crash. Participants who were
+     * still filling the survey are registered again with the answers they had given, and
+     * new participants get IDs above every ID in the store, participants.csv or the journal.
+     *
+     * <p>The store can only be open in one controller at a time; call {@link #shutdown()}
+     * to release it.</p>
+     *
+     * @param dataDirectory Directory holding participants.csv, the participant store and the survey journal.
+     * @throws UncheckedIOException If the participant store, participants.csv or the journal cannot be read.
+     */
+    public TeamMateController(Path dataDirectory) {
+        filePath = dataDirectory.resolve("participants.csv").toString();
+        snapshotPath = dataDirectory.resolve("participants.bin").toString();
+        storePath = dataDirectory.resolve("participants-store").toString();
+        journalPath = dataDirectory.resolve("survey.journal").toString();
+        try {
+            repository = new SegmentLogParticipantStore(Paths.get(storePath), vocabulary);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Participant store could not be opened", e);
+        }
+        try {
+            repository.forEachId(idAllocator::reserve);
+            reserveFileIds();
+            journal = SurveyJournal.open(Paths.get(journalPath), vocabulary, this::restoreSurvey);
+            csvTail = new CsvTailReader(Paths.get(filePath), vocabulary);
+        } catch (IOException | RuntimeException e) {
+            // Release the store's lock so another controller can open it
+            try {
+                repository.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e instanceof IOException ? new UncheckedIOException("Participant data could not be read", (IOException) e)
+                    : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Reserves the IDs of the participants in participants.csv, which may not have been
+     * uploaded yet, so participants registered before the first upload do not reuse them.
+     * The IDs are read from the binary snapshot if it is current, and otherwise from just
+     * the first column of the CSV file.
+     *
+     * @throws IOException If the CSV file exists but cannot be read.
+     */
+    private void reserveFileIds() throws IOException {
+        File source = new File(filePath);
+        if (!source.exists()){
+            return;
+        }
+        ParticipantSnapshot snapshot = openSnapshot(source);
+        if (snapshot != null){
+            for (int i = 0; i < snapshot.size(); i++) {
+                idAllocator.reserve(snapshot.id(i));
+            }
+        }
+        else {
+            csvFileHandler.readIds(filePath, idAllocator::reserve);
+        }
+    }
+
+    /**
+     * Registers a participant recovered from the survey journal, with the answers they had given.
+     *
+     * @param participant The participant.
+     * @param response    Their answers so far, packed as in {@link SurveyResponseStore}.
+     */
+    private void restoreSurvey(Participant participant, long response){
+        idAllocator.reserve(participant.getIdNumber());
+        if (participants.putIfAbsent(participant.getId(), participant) == null){
+            participant.setSurveyOrdinal(survey.register());
+            survey.submit(participant.getSurveyOrdinal(), response);
+        }
+    }
 
     /**
      * Starts concurrent survey tasks for a given number of participants.
@@ -52,24 +202,56 @@ public class TeamMateController {
         ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
 
         for (int i = 1; i <= noOfParticipants; i++) {
-            Participant p = new Participant("Participant_" + i, "user" + i + "@university.edu");
+            Participant p = new Participant("Participant_" + i, "user" + i + "@university.edu", vocabulary);
             FillSurveyWorker fillSurveyWorker = new FillSurveyWorker(p, this);
             fillSurveyWorker.fillAnswers();
-            executorService.submit(fillSurveyWorker);
+            // Records how long the task waits for a thread when queueing events are recorded
+            executorService.submit(SurveyTaskQueueEvent.wrap(p.getId(), fillSurveyWorker));
         }
 
         executorService.shutdown();
         try {
             if (executorService.awaitTermination(5, TimeUnit.MINUTES)) {
+                // Make every stored participant durable before reporting success
+                repository.flush();
+                journal.sync();
+                // Let the workers' output reach the console before the summary
+                EventLog.getDefault().flush();
                 return new Message(true, Color.GREEN + "All survey tasks completed!" + Color.RESET);
             } else {
                 return new Message(false, Color.RED + "Timeout reached before all tasks finished." + Color.RESET);
             }
         } catch (InterruptedException e) {
             return new Message(false, Color.RED + "Thread interrupted while waiting for survey tasks!" + Color.RESET);
+        } catch (IOException e) {
+            return new Message(false, Color.RED + "Details saving failed\nError writing file: " + e.getMessage() + Color.RESET);
         }
     }
 
+    /**
+     * Load-tests the survey with one virtual thread per simulated participant. Participants
+     * arrive at the given rate, think before each answer, and are only created when they
+     * arrive. The result includes latency percentiles for each step of filling the survey.
+     *
+     * @param noOfParticipants Number of participants to simulate.
+     * @param arrivalRate      Participants arriving per second, or 0 for all at once.
+     * @param thinkTime        Mean pause before each answer.
+     * @param maxInFlight      Most participants filling the survey at the same time.
+     * @param timeout          Longest time to wait for the simulation to finish.
+     * @return A {@link Message} with the latency report, or why the simulation failed.
+     */
+    public Message simulateSurveys(int noOfParticipants, double arrivalRate, Duration thinkTime, int maxInFlight, Duration timeout){
+        Message message = new SurveySimulation(noOfParticipants, arrivalRate, thinkTime, maxInFlight, timeout).run(this);
+        try {
+            repository.flush();
+            journal.sync();
+        } catch (IOException e) {
+            return new Message(false, Color.RED + "Details saving failed\nError writing file: " + e.getMessage() + Color.RESET);
+        }
+        EventLog.getDefault().flush();
+        return message;
+    }
+
     /**
      * Fills a survey answer for a participant.
      *
@@ -79,53 +261,285 @@ public class TeamMateController {
      * @return {@link Message} indicating whether the answer was valid and accepted.
      */
     public Message fillSurvey(String participantId, int questionNo, String answer){
+        SurveyAnswerEvent event = SurveyAnswerEvent.start();
+        Message message = acceptAnswer(participantId, questionNo, answer);
+        event.finish(participantId, questionNo, message.isSuccess());
+        return message;
+    }
+
+    /**
+     * Validates and stores one survey answer; the body of {@link #fillSurvey(String, int, String)}.
+     *
+     * @param participantId Participant's unique ID.
+     * @param questionNo    Question number being answered.
+     * @param answer        Answer provided by the participant.
+     * @return {@link Message} indicating whether the answer was valid and accepted.
+     */
+    private Message acceptAnswer(String participantId, int questionNo, String answer){
         Participant participant = participants.get(participantId);
+        Message closed = checkSurveyOpen(participant);
+        if (closed != null){
+            return closed;
+        }
+        int code;
 
         // For Personality Test
         if (questionNo >= 1 && questionNo <= 5){
             if (!isValidAnswer(answer)){
+                metrics.recordValidationFailure();
                 return new Message(false, Color.RED + "Invalid Answer!" + Color.RESET);
             }
-            survey.addPersonalityAnswer(participantId, questionNo, answer);
+            code = Integer.parseInt(answer);
         }
         // For Interest Survey
         else if (questionNo >= 6 && questionNo <= 8) {
             if (questionNo == 6 && !isValidGame(answer)){
+                metrics.recordValidationFailure();
                 return new Message(false, Color.RED + "Invalid Answer\nPlease choose a game from this list: " + Color.RESET + GAMES);
             }
             else if (questionNo == 7 && !isValidSkillLevel(answer)){
+                metrics.recordValidationFailure();
                 return new Message(false, Color.RED + "Invalid Answer" + Color.RESET);
             }
             else if (questionNo == 8 && !isValidRole(answer)) {
+                metrics.recordValidationFailure();
                 return new Message(false, Color.RED + "Invalid Answer\nPlease choose a role from this list: " + Color.RESET + ROLES);
             }
-            survey.addInterestAnswer(participantId, questionNo, answer);
+            code = encodeInterestAnswer(questionNo, answer);
         }
         else {
             return new Message(false, "");
         }
 
-        participant.fillSurvey(questionNo, answer);
+        // Journal first, so an answer that could not be saved is not applied either
+        try {
+            journal.answer(participantId, questionNo, code);
+        } catch (IOException e) {
+            return new Message(false, Color.RED + "Answer saving failed\nError writing journal: " + e.getMessage() + Color.RESET);
+        }
+        if (questionNo <= 5){
+            survey.addPersonalityAnswer(participant.getSurveyOrdinal(), questionNo, code);
+        }
+        else {
+            survey.addInterestAnswer(participant.getSurveyOrdinal(), questionNo, code);
+        }
+        metrics.recordAnswer();
         return new Message(true, "");
     }
 
+    /**
+     * Validates and stores all survey answers of a participant in one call.
+     *
+     * <p>All eight answers are checked first and packed into a single response; the response
+     * is only stored, in one atomic write, if every answer is valid and the response was
+     * journaled. A rejected submission leaves nothing behind, so there is nothing to roll back.</p>
+     *
+     * @param participantId Participant's unique ID.
+     * @param answers       Answers to questions 1 to 8, in order.
+     * @return {@link #SURVEY_ACCEPTED}, {@link #SURVEY_UNKNOWN_PARTICIPANT},
+     *         {@link #SURVEY_WRONG_ANSWER_COUNT}, {@link #SURVEY_NOT_SAVED},
+     *         {@link #SURVEY_NOT_OPEN}, or the number of the first invalid question.
+     */
+    public int submitSurvey(String participantId, String[] answers){
+        SurveySubmitEvent event = SurveySubmitEvent.start();
+        int result = acceptSurvey(participantId, answers);
+        event.finish(participantId, result);
+        return result;
+    }
+
+    /**
+     * Validates and stores all survey answers of a participant; the body of
+     * {@link #submitSurvey(String, String[])}.
+     *
+     * @param participantId Participant's unique ID.
+     * @param answers       Answers to questions 1 to 8, in order.
+     * @return The result code, as for {@link #submitSurvey(String, String[])}.
+     */
+    private int acceptSurvey(String participantId, String[] answers){
+        Participant participant = participants.get(participantId);
+        if (participant == null){
+            return SURVEY_UNKNOWN_PARTICIPANT;
+        }
+        if (participant.getSurveyOrdinal() < 0){
+            return SURVEY_NOT_OPEN;
+        }
+        if (answers.length != SurveyResponseStore.QUESTIONS){
+            metrics.recordValidationFailure();
+            return SURVEY_WRONG_ANSWER_COUNT;
+        }
+
+        long response = 0;
+        for (int questionNo = 1; questionNo <= answers.length; questionNo++) {
+            int code = validateAnswer(questionNo, answers[questionNo - 1]);
+            if (code <= 0){
+                metrics.recordValidationFailure();
+                return questionNo;
+            }
+            response = SurveyResponseStore.withAnswer(response, questionNo, code);
+        }
+
+        // Journal first, so answers that could not be saved are not applied either
+        try {
+            journal.response(participantId, response);
+        } catch (IOException e) {
+            return SURVEY_NOT_SAVED;
+        }
+        survey.submit(participant.getSurveyOrdinal(), response);
+        metrics.recordSubmission(answers.length);
+        return SURVEY_ACCEPTED;
+    }
+
+    /**
+     * Validates one answer and encodes it for the packed response store, without
+     * throwing or building messages.
+     *
+     * @param questionNo Question number (1 to 8).
+     * @param answer     The answer.
+     * @return The encoded answer, or {@code 0} if the answer is invalid.
+     */
+    private int validateAnswer(int questionNo, String answer){
+        if (answer == null){
+            return 0;
+        }
+        if (questionNo == 6 || questionNo == 8){
+            return indexOfIgnoreCase(questionNo == 6 ? GAMES : ROLES, answer) + 1;
+        }
+        int value = parseSmallInt(answer);
+        int max = (questionNo == 7) ? Participant.MAX_SKILL_LEVEL : 5;
+        int min = (questionNo == 7) ? Participant.MIN_SKILL_LEVEL : 1;
+        return (value >= min && value <= max) ? value : 0;
+    }
+
+    /**
+     * Parses a short decimal number the way {@link Integer#parseInt(String)} does, but
+     * returns {@code -1} instead of throwing when the text is not a number.
+     *
+     * @param text The text to parse.
+     * @return The value, or {@code -1} if the text is not a short number.
+     */
+    private static int parseSmallInt(String text){
+        int length = text.length();
+        int start = (length > 0 && (text.charAt(0) == '+' || text.charAt(0) == '-')) ? 1 : 0;
+        if (length == start || length - start > 9){
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9'){
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return text.charAt(0) == '-' ? -value : value;
+    }
+
+    /**
+     * Encodes a validated interest answer for the survey's packed response store:
+     * games and roles become their position in {@link #GAMES} or {@link #ROLES} plus one,
+     * and the skill level is stored as is.
+     *
+     * @param questionNo Question number (6 to 8).
+     * @param answer     The validated answer.
+     * @return The encoded answer.
+     */
+    private int encodeInterestAnswer(int questionNo, String answer){
+        return switch (questionNo) {
+            case 6 -> indexOfIgnoreCase(GAMES, answer) + 1;
+            case 8 -> indexOfIgnoreCase(ROLES, answer) + 1;
+            default -> Integer.parseInt(answer);
+        };
+    }
+
+    /**
+     * Finds a survey option the way answers are validated: ignoring case, so "chess" picks
+     * "Chess". Options keep their own spelling, which is what participants are given.
+     *
+     * @param options The survey options, {@link #GAMES} or {@link #ROLES}.
+     * @param answer  The answer.
+     * @return The option's position, or {@code -1} if the answer is none of them.
+     */
+    private static int indexOfIgnoreCase(List<String> options, String answer){
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i).equalsIgnoreCase(answer)){
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Adds a participant to the system if they don't already exist.
      *
      * @param participant The participant to add.
-     * @return true if added successfully, false if participant already exists.
+     * @return true if added successfully, false if participant already exists or their survey could not be journaled.
      */
     public boolean addParticipant(Participant participant){
-        return participants.putIfAbsent(participant.getId(), participant) == null;
+        // A participant made for another event is re-coded, so codes compare within this event
+        participant.useVocabulary(vocabulary);
+        boolean added = participants.putIfAbsent(participant.getId(), participant) == null;
+        if (added){
+            if (participant.getPersonalityTypeCode() == 0){
+                // Still has to fill the survey, so reserve room for the answers and journal the start
+                participant.setSurveyOrdinal(survey.register());
+                try {
+                    journal.register(participant);
+                } catch (IOException e) {
+                    participants.remove(participant.getId());
+                    return false;
+                }
+            }
+            else {
+                // Participants that join after formation are placed straight into the formed teams
+                joinFormedTeams(participant);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Adds a participant whose ID was given outside the system (in a file or the store),
+     * making sure no new participant is given the same ID.
+     *
+     * @param participant The participant to add.
+     * @return true if added successfully, false if participant already exists or their survey could not be journaled.
+     */
+    private boolean addLoadedParticipant(Participant participant){
+        idAllocator.reserve(participant.getIdNumber());
+        return addParticipant(participant);
     }
 
     /**
-     * Removes a participant from the system.
+     * Removes a participant from the system. If teams were already formed, the participant
+     * leaves their team and the affected teams are rebalanced.
      *
      * @param participantId The participant to remove.
      */
     public void removeParticipant(String participantId){
-        participants.remove(participantId);
+        Participant removed = participants.remove(participantId);
+        if (removed != null && removed.getSurveyOrdinal() >= 0){
+            try {
+                journal.done(participantId);
+            } catch (IOException e) {
+                // The participant is only recovered again on the next start
+            }
+        }
+        IncrementalTeamBalancer current = balancer;
+        if (current != null){
+            current.remove(participantId);
+        }
+    }
+
+    /**
+     * Places a participant into the formed teams, if teams have been formed.
+     *
+     * @param participant The participant to place.
+     */
+    private void joinFormedTeams(Participant participant){
+        IncrementalTeamBalancer current = balancer;
+        if (current != null){
+            current.add(participant);
+        }
     }
 
     /**
@@ -161,7 +575,7 @@ public class TeamMateController {
     private boolean isValidSkillLevel(String answer){
         try{
             int answerInt = Integer.parseInt(answer);
-            return answerInt >= 1 && answerInt <= 10;
+            return answerInt >= Participant.MIN_SKILL_LEVEL && answerInt <= Participant.MAX_SKILL_LEVEL;
         } catch (NumberFormatException e) {
             return false;
         }
@@ -174,7 +588,7 @@ public class TeamMateController {
      * @return true if answer correct, false if answer incorrect.
      */
     private boolean isValidGame(String answer){
-        return GAMES.contains(answer.toLowerCase());
+        return indexOfIgnoreCase(GAMES, answer) >= 0;
     }
 
     /**
@@ -184,32 +598,57 @@ public class TeamMateController {
      * @return true if answer correct, false if answer incorrect.
      */
     private boolean isValidRole(String answer){
-        return ROLES.contains(answer.toLowerCase());
+        return indexOfIgnoreCase(ROLES, answer) >= 0;
+    }
+
+    /**
+     * Checks that a participant exists and has a survey open, i.e. was given a survey ordinal
+     * when added. Participants loaded with a known personality type have none.
+     *
+     * @param participant The participant, or {@code null} if the ID is unknown.
+     * @return A failure {@link Message}, or {@code null} if the participant's survey is open.
+     */
+    private Message checkSurveyOpen(Participant participant){
+        if (participant == null){
+            return new Message(false, Color.RED + "Participant not found!" + Color.RESET);
+        }
+        if (participant.getSurveyOrdinal() < 0){
+            return new Message(false, Color.RED + "Participant " + participant.getId() + " has no survey to fill!" + Color.RESET);
+        }
+        return null;
     }
 
     /**
      * Sets the participant's game, skill level, and preferred role based on survey responses.
      *
      * @param participantId Participant's unique ID.
+     * @return {@link Message} indicating success, or failure if the participant is unknown or has no survey open.
      */
-    public void setParticipantValues(String participantId){
+    public Message setParticipantValues(String participantId){
         Participant participant = participants.get(participantId);
-        Map<Integer, String> response = survey.getInterestResponses().get(participantId);
+        Message closed = checkSurveyOpen(participant);
+        if (closed != null){
+            return closed;
+        }
+        long response = survey.getResponses(participant.getSurveyOrdinal());
 
-        participant.setPreferredGame(response.get(6).toLowerCase());
-        participant.setSkillLevel(Integer.parseInt(response.get(7)));
-        participant.setPreferredRole(response.get(8).toLowerCase());
+        participant.setPreferredGame(GAMES.get(SurveyResponseStore.answer(response, 6) - 1));
+        participant.setSkillLevel(SurveyResponseStore.answer(response, 7));
+        participant.setPreferredRole(ROLES.get(SurveyResponseStore.answer(response, 8) - 1));
+        return new Message(true, "");
     }
 
     /**
-     * Stores participant details into the CSV file.
+     * Stores participant details in the participant repository.
      *
      * @param participant Participant to store.
      * @return {@link Message} indicating success or failure.
      */
     public Message storeParticipantDetails(Participant participant) {
         try{
-            csvFileHandler.writeFile(filePath, participant);
+            repository.save(participant);
+            // The survey is finished once the details are stored, so it is not recovered again
+            journal.done(participant.getId());
             return new Message(true, "");
         } catch (IOException e) {
             return new Message(false, Color.RED + "Details saving failed\nError writing file: " + e.getMessage() + Color.RESET);
@@ -219,15 +658,67 @@ public class TeamMateController {
     /**
      * Calculates and returns the personality type of a participant.
      *
+     * <p>A participant loaded with a known personality type has no survey answers, so their
+     * type is returned as it is.</p>
+     *
      * @param participantId Participant's unique ID.
-     * @return Personality type as a string.
+     * @return Personality type as a string, or {@code null} if the participant is unknown.
      */
     public String viewPersonalityType(String participantId){
         Participant participant = participants.get(participantId);
-        participant.viewPersonalityType();
+        if (participant == null){
+            return null;
+        }
+        if (participant.getSurveyOrdinal() < 0){
+            return participant.getPersonalityType();
+        }
+        participant.viewPersonalityType(survey.getResponses(participant.getSurveyOrdinal()));
+        // A participant who finished the survey after formation is placed into the formed teams
+        if (participant.getPersonalityType() != null){
+            joinFormedTeams(participant);
+        }
         return participant.getPersonalityType();
     }
 
+    /**
+     * Re-scores every participant who filled the survey in one bulk pass, for example after
+     * the personality thresholds change. Scores are computed in parallel over the packed
+     * responses without creating any objects per participant.
+     *
+     * @return The number of participants re-scored.
+     */
+    public int rescoreParticipants(){
+        List<Participant> surveyed = new ArrayList<>();
+        for (Participant participant: participants.values()){
+            if (participant.getSurveyOrdinal() >= 0){
+                surveyed.add(participant);
+            }
+        }
+
+        long[] responses = new long[surveyed.size()];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = survey.getResponses(surveyed.get(i).getSurveyOrdinal());
+        }
+        int[] scores = new int[responses.length];
+        byte[] types = new byte[responses.length];
+        PersonalityScorer.scoreParallel(responses, scores, types);
+
+        for (int i = 0; i < scores.length; i++) {
+            surveyed.get(i).setPersonality(scores[i], types[i]);
+        }
+        return scores.length;
+    }
+
+    /**
+     * Returns the vocabularies the codes of this event's participants belong to. Participants
+     * created for this event should be given them.
+     *
+     * @return The event's vocabularies.
+     */
+    public EventVocabulary getVocabulary() {
+        return vocabulary;
+    }
+
     /**
      * Returns the list of available games.
      *
@@ -260,18 +751,148 @@ public class TeamMateController {
     /**
      * Uploads participants from a CSV file and adds them to the system.
      *
+     * <p>Rows are imported into the participant repository, skipping participants it already
+     * holds, and then every stored participant is added, including those who filled the
+     * survey since the file was last exported.</p>
+     *
+     * <p>If the binary snapshot next to the CSV file is still current, participants are
+     * imported from the snapshot instead. Otherwise the CSV file is parsed and the snapshot
+     * is rewritten for the next upload.</p>
+     *
      * @return {@link Message} indicating success or failure of CSV upload.
      */
     public Message uploadCsvFile(){
         try{
-            List<String[]> fileParticipants = organizer.uploadCsvFile(filePath, csvFileHandler);
-            addParticipantsFromCsv(fileParticipants);
-            return new Message(true, Color.GREEN + "CSV file uploaded successfully\n" + fileParticipants.size() + " participants has been processed." + Color.RESET);
+            File source = new File(filePath);
+            // Rows appended while this upload runs are picked up by the next incremental upload,
+            // and make the snapshot written below stale
+            long size = source.length();
+            long modified = source.lastModified();
+            int processed;
+
+            ParticipantSnapshot snapshot = openSnapshot(source);
+            if (snapshot != null){
+                for (Participant participant: snapshot.participants()){
+                    repository.saveIfAbsent(participant);
+                }
+                processed = snapshot.size();
+            }
+            else {
+                // Rows go into the repository as they are parsed. They are also kept for the
+                // snapshot, which stores columns and so needs the row count and dictionaries before
+                // its first row; the list lives only until the snapshot is written
+                List<Participant> loaded = new ArrayList<>();
+                processed = csvAdapter.importCsv(filePath, repository, loaded::add);
+                saveSnapshot(size, modified, loaded);
+            }
+            csvTail.markRead(size);
+
+            repository.forEach(this::addLoadedParticipant);
+            return new Message(true, Color.GREEN + "CSV file uploaded successfully\n" + processed + " participants has been processed." + Color.RESET);
+        } catch (IOException e) {
+            return new Message(false, Color.RED + "File upload failed\nError reading file: " + e.getMessage() + Color.RESET);
+        }
+    }
+
+    /**
+     * Uploads participants from the CSV file, either completely or only the rows appended
+     * since the last upload.
+     *
+     * <p>An incremental upload parses just the bytes added to the file since it was last read,
+     * so picking up a few new rows costs the same however large the file is. If the file was
+     * replaced or truncated in the meantime, it is read again in full.</p>
+     *
+     * @param incremental Whether to read only the rows appended since the last upload.
+     * @return {@link Message} indicating success or failure of CSV upload.
+     */
+    public Message uploadCsvFile(boolean incremental){
+        if (!incremental){
+            return uploadCsvFile();
+        }
+        try{
+            int processed = csvAdapter.importAppended(csvTail, repository, this::addLoadedParticipant);
+            return new Message(true, Color.GREEN + "CSV file uploaded successfully\n" + processed + " new participants has been processed." + Color.RESET);
         } catch (IOException e) {
             return new Message(false, Color.RED + "File upload failed\nError reading file: " + e.getMessage() + Color.RESET);
         }
     }
 
+    /**
+     * Starts or stops following the CSV file. While following, rows appended to the file
+     * are uploaded incrementally in the background shortly after they are written.
+     *
+     * @param follow Whether to follow the file.
+     * @return {@link Message} indicating success or failure.
+     */
+    public synchronized Message followCsvFile(boolean follow){
+        try{
+            if (follow && csvFollower == null){
+                csvFollower = new CsvFileFollower(Paths.get(filePath), () -> {
+                    Message message = uploadCsvFile(true);
+                    if (!message.isSuccess()){
+                        EventLog.getDefault().publish(Event.Type.TEXT, null, message.getMessage());
+                    }
+                });
+            }
+            else if (!follow && csvFollower != null){
+                csvFollower.close();
+                csvFollower = null;
+            }
+            return new Message(true, "");
+        } catch (IOException e) {
+            return new Message(false, Color.RED + "Following CSV file failed\nError watching file: " + e.getMessage() + Color.RESET);
+        }
+    }
+
+    /**
+     * Exports every stored participant to the participants CSV file, replacing it.
+     *
+     * @return {@link Message} indicating success or failure of the export.
+     */
+    public Message exportParticipants(){
+        try{
+            int written = csvAdapter.exportCsv(repository, filePath);
+            return new Message(true, Color.GREEN + "Participants exported successfully\n" + written + " participants has been written." + Color.RESET);
+        } catch (IOException e) {
+            return new Message(false, Color.RED + "Participant export failed\nError writing file: " + e.getMessage() + Color.RESET);
+        }
+    }
+
+    /**
+     * Opens the participants snapshot if it exists and matches the CSV file.
+     *
+     * @param source The participants CSV file.
+     * @return The snapshot, or {@code null} if there is no usable snapshot.
+     */
+    private ParticipantSnapshot openSnapshot(File source){
+        if (!new File(snapshotPath).exists()){
+            return null;
+        }
+        try{
+            ParticipantSnapshot snapshot = ParticipantSnapshot.open(Paths.get(snapshotPath), vocabulary);
+            return snapshot.isCurrentFor(source) ? snapshot : null;
+        } catch (IOException e) {
+            // A broken snapshot is just a cache miss, the CSV file is read instead
+            return null;
+        }
+    }
+
+    /**
+     * Rewrites the participants snapshot. The snapshot is only a cache of the CSV file,
+     * so failing to write it does not fail the upload.
+     *
+     * @param size         Size of the participants CSV file before it was read.
+     * @param modified     Last-modified time of the CSV file before it was read.
+     * @param participants The participants read from it.
+     */
+    private void saveSnapshot(long size, long modified, List<Participant> participants){
+        try{
+            ParticipantSnapshot.write(Paths.get(snapshotPath), size, modified, participants);
+        } catch (IOException e) {
+            new File(snapshotPath).delete();
+        }
+    }
+
     /**
      * Adds participants from a list of CSV rows.
      *
@@ -279,12 +900,16 @@ public class TeamMateController {
      */
     public void addParticipantsFromCsv(List<String[]> fileParticipants){
         for (String[] row: fileParticipants){
-            addParticipant(Participant.covertRow(row));
+            addLoadedParticipant(Participant.covertRow(row, vocabulary));
         }
     }
 
     /**
-     * Initiates team formation based on the current participants.
+     * Initiates team formation based on the current participants. After this, participants
+     * who join or leave are handled incrementally instead of forming all teams again.
+     *
+     * <p>The new teams are published as one {@link TeamSnapshot}, so participants viewing
+     * their team meanwhile see either the previous teams or the new ones, never a mix.</p>
      *
      * @param teamSize Size of each team.
      * @return {@link Message} indicating success or failure.
@@ -293,15 +918,50 @@ public class TeamMateController {
         if (!participants.isEmpty()){
             Message message = checkTeamSize(teamSize, participants.size());
             if (message.isSuccess()){
-                teams.clear();
-                teams.addAll(organizer.initiateTeamFormation(new ArrayList<>(participants.values()), teamSize));
-                return new Message(true, Color.GREEN + teams.size() + " Teams Formed!" + Color.RESET);
+                List<Team> formed = organizer.initiateTeamFormation(new ArrayList<>(participants.values()), teamSize);
+                return new Message(true, Color.GREEN + publishFormation(formed, teamSize).getTeams().size() + " Teams Formed!" + Color.RESET);
             }
             return message;
         }
         return new Message(false, Color.RED + "No participants available to form teams!" + Color.RESET);
     }
 
+    /**
+     * Initiates team formation separately for the players of each preferred game, so every
+     * team plays one game. Games are formed in parallel and team IDs are unique across them.
+     *
+     * @param teamSize  Size of each team.
+     * @param leftovers What to do with games that have too few players for a team.
+     * @return {@link Message} indicating success or failure.
+     */
+    public Message initiateTeamFormationByGame(int teamSize, TeamBuilder.LeftoverPolicy leftovers){
+        if (!participants.isEmpty()){
+            Message message = checkTeamSize(teamSize, participants.size());
+            if (message.isSuccess()){
+                List<Team> formed = organizer.initiateTeamFormationByGame(new ArrayList<>(participants.values()), teamSize, leftovers);
+                return new Message(true, Color.GREEN + publishFormation(formed, teamSize).getTeams().size() + " Teams Formed!" + Color.RESET);
+            }
+            return message;
+        }
+        return new Message(false, Color.RED + "No participants available to form teams!" + Color.RESET);
+    }
+
+    /**
+     * Publishes newly formed teams and hands them to a new balancer.
+     *
+     * @param formed   The formed teams.
+     * @param teamSize Size of each team.
+     * @return The published snapshot.
+     */
+    private TeamSnapshot publishFormation(List<Team> formed, int teamSize){
+        synchronized (teamSnapshots) {
+            // Publish and take over balancing together, so concurrent formations cannot mix
+            TeamSnapshot snapshot = teamSnapshots.publish(formed, teamSize);
+            balancer = new IncrementalTeamBalancer(teamSnapshots, snapshot);
+            return snapshot;
+        }
+    }
+
     /**
      * Checks if a team size is valid for the number of participants.
      *
@@ -325,6 +985,7 @@ public class TeamMateController {
      * @return {@link Message} indicating success or failure.
      */
     public Message saveFormedTeams() {
+        List<Team> teams = teamSnapshots.current().getTeams();
         if (!teams.isEmpty()){
             try{
                 organizer.saveFormedTeams(teams, csvFileHandler);
@@ -336,6 +997,27 @@ public class TeamMateController {
         return new Message(false, Color.RED + "No teams were formed!" + Color.RESET);
     }
 
+    /**
+     * Saves all formed teams to a file in the given format, optionally GZIP-compressed.
+     *
+     * @param path   The file to write.
+     * @param format The layout of the file.
+     * @param gzip   Whether to compress the file with GZIP.
+     * @return {@link Message} indicating success or failure.
+     */
+    public Message saveFormedTeams(String path, TeamExporter.Format format, boolean gzip) {
+        List<Team> teams = teamSnapshots.current().getTeams();
+        if (!teams.isEmpty()){
+            try{
+                organizer.saveFormedTeams(teams, csvFileHandler, Paths.get(path), format, gzip);
+                return new Message(true, Color.GREEN + path + " file saved successfully\n" + teams.size() + " teams has been saved." + Color.RESET);
+            } catch (IOException e) {
+                return new Message(false, Color.RED + "File saving failed\nError writing file: " + e.getMessage() + Color.RESET);
+            }
+        }
+        return new Message(false, Color.RED + "No teams were formed!" + Color.RESET);
+    }
+
     /**
      * Returns the team a participant belongs to.
      *
@@ -345,17 +1027,76 @@ public class TeamMateController {
     public List<Team> viewTeamsForParticipant(String participantId) {
         Participant participant = participants.get(participantId);
         if (participant != null){
-            return participant.viewTeams(teams);
+            return participant.viewTeams(teamSnapshots.current().getIndex());
         }
         return null;
     }
 
+    /**
+     * Returns the team of each of the given participants in one call, for example to notify
+     * a whole cohort after formation. Each lookup takes constant time.
+     *
+     * @param participantIds The participants' unique IDs.
+     * @return The team of each participant that is in a team, by participant ID.
+     */
+    public Map<String, Team> viewTeamsForParticipants(Collection<String> participantIds) {
+        Map<String, Team> result = new HashMap<>();
+        // One snapshot for the whole cohort, so every lookup sees the same teams
+        TeamIndex index = teamSnapshots.current().getIndex();
+        for (String participantId: participantIds){
+            Team team = index.teamOf(participantId);
+            if (team != null){
+                result.put(participantId, team);
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns all formed teams for the organizer.
      *
      * @return List of all {@link Team} objects.
      */
     public List<Team> viewTeamsForOrganizer() {
-        return organizer.viewTeams(teams);
+        return organizer.viewTeams(teamSnapshots.current().getTeams());
+    }
+
+    /**
+     * Returns the current version of the formed teams, with their reverse index and statistics.
+     *
+     * @return The current snapshot, {@link TeamSnapshot#EMPTY} before any teams are formed.
+     */
+    public TeamSnapshot viewTeamSnapshot() {
+        return teamSnapshots.current();
+    }
+
+    /**
+     * Lists what changed in the formed teams between an earlier version and the current one.
+     *
+     * @param fromVersion The earlier version number.
+     * @return The changes, or {@code null} if that version is no longer kept.
+     */
+    public TeamSnapshot.Diff diffTeams(long fromVersion) {
+        TeamSnapshot current = teamSnapshots.current();
+        TeamSnapshot older = teamSnapshots.version(fromVersion);
+        return older == null ? null : current.diff(older);
+    }
+
+    /**
+     * Writes any participant details and events still waiting in the background and
+     * releases the open files. Should be called once before the application exits.
+     *
+     * @return {@link Message} indicating success or failure.
+     */
+    public Message shutdown() {
+        EventLog.getDefault().flush();
+        try{
+            followCsvFile(false);
+            journal.close();
+            repository.close();
+            return new Message(true, "");
+        } catch (IOException e) {
+            return new Message(false, Color.RED + "Details saving failed\nError writing file: " + e.getMessage() + Color.RESET);
+        }
     }
 }
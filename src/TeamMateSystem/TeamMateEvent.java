@@ -0,0 +1,30 @@
+package TeamMateSystem;
+
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+
+/**
+ * The {@code TeamMateEvent} class is the base of the application's Java Flight Recorder
+ * events ({@link CsvFileEvent}, {@link FormationPhaseEvent}, {@link SurveyAnswerEvent},
+ * {@link SurveySubmitEvent} and {@link SurveyTaskQueueEvent}).
+ *
+ * <p>Every event is disabled unless a recording turns it on, for example with the project's
+ * {@code jfr/teammate.jfc} settings. Each event is timed the same way: a static
+ * {@code start()} creates and begins it, and {@code finish(...)} calls {@link #stop()} and
+ * only fills in the fields and commits when the event is being recorded. A disabled event
+ * therefore costs one short-lived object and no field writes. Where even that object would
+ * outlive the call, the event checks its {@link jdk.jfr.EventType} first instead.</p>
+ */
+@Enabled(false)
+abstract class TeamMateEvent extends Event {
+
+    /**
+     * Stops timing the event.
+     *
+     * @return Whether the event is being recorded, so its fields should be set and it committed.
+     */
+    final boolean stop() {
+        end();
+        return shouldCommit();
+    }
+}
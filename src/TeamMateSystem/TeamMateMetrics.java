@@ -0,0 +1,456 @@
+package TeamMateSystem;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code TeamMateMetrics} class collects timings and counters from team formation, the
+ * survey and CSV file handling, and publishes them over JMX as {@code TeamMateSystem:type=Metrics}.
+ *
+ * <p>The metrics are meant to stay on permanently. Counters are striped {@link LongAdder}s
+ * and latencies go into fixed-size {@link LatencyHistogram}s, so recording never locks and
+ * never allocates. Summaries are only built when the MBean is read.</p>
+ *
+ * <p>There is one instance per process, available from {@link #get()}; it registers itself
+ * with the platform MBean server on first use.</p>
+ */
+public class TeamMateMetrics implements TeamMateMetricsMXBean {
+
+    /** Name the MBean is registered under. */
+    public static final String OBJECT_NAME = "TeamMateSystem:type=Metrics";
+
+    /** Number of full seconds {@link #getAnswersPerSecond()} averages over. */
+    public static final int RATE_WINDOW_SECONDS = 10;
+
+    /** The process-wide instance. */
+    private static final TeamMateMetrics INSTANCE = new TeamMateMetrics();
+
+    /** Latency of whole {@code buildTeam} runs. */
+    private final LatencyHistogram buildTeam = new LatencyHistogram();
+
+    /** Latency of the {@code collectData} phase. */
+    private final LatencyHistogram collectData = new LatencyHistogram();
+
+    /** Latency of the {@code applyMatchingStrategies} phase, over all strategies. */
+    private final LatencyHistogram applyMatchingStrategies = new LatencyHistogram();
+
+    /** Latency of the {@code sendFormedTeams} phase. */
+    private final LatencyHistogram sendFormedTeams = new LatencyHistogram();
+
+    /** Latency of the {@code applyMatchingStrategies} phase, by team builder. */
+    private final ConcurrentHashMap<String, LatencyHistogram> strategies = new ConcurrentHashMap<>();
+
+    /** Number of formation runs. */
+    private final LongAdder formationRuns = new LongAdder();
+
+    /** Participants placed into teams. */
+    private final LongAdder participantsFormed = new LongAdder();
+
+    /** Teams formed. */
+    private final LongAdder teamsFormed = new LongAdder();
+
+    /** Balance of the teams formed in the last run. */
+    private volatile Balance lastBalance = new Balance(0, 0, 0, 0, 0);
+
+    /** Complete survey submissions accepted. */
+    private final LongAdder surveySubmissions = new LongAdder();
+
+    /** Survey answers accepted. */
+    private final LongAdder surveyAnswers = new LongAdder();
+
+    /** Answers or submissions rejected by validation. */
+    private final LongAdder validationFailures = new LongAdder();
+
+    /** Participant rows read from CSV files. */
+    private final LongAdder csvRowsRead = new LongAdder();
+
+    /** Bytes of CSV files read. */
+    private final LongAdder csvBytesRead = new LongAdder();
+
+    /** Participant rows appended to CSV files. */
+    private final LongAdder csvRowsWritten = new LongAdder();
+
+    /** Bytes appended to CSV files. */
+    private final LongAdder csvBytesWritten = new LongAdder();
+
+    /** Origin of the seconds counted in {@link #answerBuckets}, from {@link System#nanoTime()}. */
+    private final long rateOrigin = System.nanoTime();
+
+    /**
+     * Answers accepted in each of the last seconds, one bucket per second, reused in a ring.
+     * A bucket holds the number of its second in the upper 32 bits and the count in the
+     * lower 32, so the bucket is claimed for a new second and counted in one atomic update.
+     */
+    private final AtomicLongArray answerBuckets = new AtomicLongArray(RATE_WINDOW_SECONDS + 1);
+
+    /**
+     * Creates the instance and registers it over JMX.
+     */
+    private TeamMateMetrics() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)){
+                server.registerMBean(this, name);
+            }
+        } catch (JMException | SecurityException e) {
+            // Metrics are still collected, they just cannot be read over JMX
+        }
+    }
+
+    /**
+     * Returns the process-wide metrics.
+     *
+     * @return The metrics.
+     */
+    public static TeamMateMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the histogram for the {@code collectData} phase.
+     *
+     * @return The histogram.
+     */
+    LatencyHistogram collectData() {
+        return collectData;
+    }
+
+    /**
+     * Returns the histogram for one strategy's {@code applyMatchingStrategies} phase,
+     * creating it on first use. Builders look it up once and keep it.
+     *
+     * @param strategy Name of the team builder.
+     * @return The histogram.
+     */
+    LatencyHistogram strategy(String strategy) {
+        return strategies.computeIfAbsent(strategy, name -> new LatencyHistogram());
+    }
+
+    /**
+     * Records the matching phase of a run, for all strategies and for one strategy.
+     *
+     * @param strategy   The strategy's histogram, from {@link #strategy(String)}.
+     * @param startNanos When the phase started, from {@link System#nanoTime()}.
+     * @return When the phase finished.
+     */
+    long recordMatching(LatencyHistogram strategy, long startNanos) {
+        long now = applyMatchingStrategies.recordSince(startNanos);
+        strategy.record(now - startNanos);
+        return now;
+    }
+
+    /**
+     * Records the end of a formation run: the {@code sendFormedTeams} phase, the whole run,
+     * the counts, and the balance of the formed teams.
+     *
+     * @param startNanos   When the run started.
+     * @param matchedNanos When the matching phase finished.
+     * @param participants Number of participants the teams were formed from.
+     * @param teams        The formed teams.
+     */
+    void recordFormation(long startNanos, long matchedNanos, int participants, List<Team> teams) {
+        sendFormedTeams.recordSince(matchedNanos);
+        buildTeam.recordSince(startNanos);
+        formationRuns.increment();
+        participantsFormed.add(participants);
+        teamsFormed.add(teams.size());
+        lastBalance = Balance.of(teams);
+    }
+
+    /**
+     * Records an accepted survey submission.
+     *
+     * @param answers Number of answers in the submission.
+     */
+    void recordSubmission(int answers) {
+        surveySubmissions.increment();
+        surveyAnswers.add(answers);
+        countAnswers(answers);
+    }
+
+    /**
+     * Records one accepted survey answer.
+     */
+    void recordAnswer() {
+        surveyAnswers.increment();
+        countAnswers(1);
+    }
+
+    /**
+     * Adds answers to the bucket of the current second, clearing it first if it still
+     * holds the count of an older second.
+     *
+     * @param answers Number of answers accepted.
+     */
+    private void countAnswers(int answers) {
+        long second = currentSecond();
+        int slot = (int) (second % answerBuckets.length());
+        long bucket;
+        long updated;
+        do {
+            bucket = answerBuckets.get(slot);
+            updated = bucket >>> 32 == second ? bucket + answers : second << 32 | answers;
+        } while (!answerBuckets.compareAndSet(slot, bucket, updated));
+    }
+
+    /**
+     * Returns the number of whole seconds since the metrics were created.
+     *
+     * @return The current second.
+     */
+    private long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - rateOrigin) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Records an answer or submission rejected by validation.
+     */
+    void recordValidationFailure() {
+        validationFailures.increment();
+    }
+
+    /**
+     * Records a CSV file read.
+     *
+     * @param rows  Number of participant rows read.
+     * @param bytes Size of the file.
+     */
+    void recordCsvRead(long rows, long bytes) {
+        csvRowsRead.add(rows);
+        csvBytesRead.add(bytes);
+    }
+
+    /**
+     * Records participant rows written to an exported file.
+     *
+     * @param rows  Number of participant rows written.
+     * @param bytes Size of the file.
+     */
+    void recordCsvWrite(long rows, long bytes) {
+        csvRowsWritten.add(rows);
+        csvBytesWritten.add(bytes);
+    }
+
+    @Override
+    public long getFormationRuns() {
+        return formationRuns.sum();
+    }
+
+    @Override
+    public long getParticipantsFormed() {
+        return participantsFormed.sum();
+    }
+
+    @Override
+    public long getTeamsFormed() {
+        return teamsFormed.sum();
+    }
+
+    @Override
+    public LatencySummary getBuildTeamLatency() {
+        return new LatencySummary(buildTeam);
+    }
+
+    @Override
+    public LatencySummary getCollectDataLatency() {
+        return new LatencySummary(collectData);
+    }
+
+    @Override
+    public LatencySummary getApplyMatchingStrategiesLatency() {
+        return new LatencySummary(applyMatchingStrategies);
+    }
+
+    @Override
+    public LatencySummary getSendFormedTeamsLatency() {
+        return new LatencySummary(sendFormedTeams);
+    }
+
+    @Override
+    public Map<String, LatencySummary> getStrategyLatency() {
+        Map<String, LatencySummary> summaries = new TreeMap<>();
+        strategies.forEach((name, histogram) -> summaries.put(name, new LatencySummary(histogram)));
+        return summaries;
+    }
+
+    @Override
+    public int getLastTeamCount() {
+        return lastBalance.teamCount;
+    }
+
+    @Override
+    public int getLastMinTeamSize() {
+        return lastBalance.minTeamSize;
+    }
+
+    @Override
+    public int getLastMaxTeamSize() {
+        return lastBalance.maxTeamSize;
+    }
+
+    @Override
+    public double getLastSkillSpread() {
+        return lastBalance.skillSpread;
+    }
+
+    @Override
+    public double getLastSkillStdDev() {
+        return lastBalance.skillStdDev;
+    }
+
+    @Override
+    public long getSurveySubmissions() {
+        return surveySubmissions.sum();
+    }
+
+    @Override
+    public long getSurveyAnswers() {
+        return surveyAnswers.sum();
+    }
+
+    @Override
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    @Override
+    public double getAnswersPerSecond() {
+        // The current second is still being counted, so the window ends just before it
+        long current = currentSecond();
+        long answers = 0;
+        for (int slot = 0; slot < answerBuckets.length(); slot++) {
+            long bucket = answerBuckets.get(slot);
+            long age = current - (bucket >>> 32);
+            if (age >= 1 && age <= RATE_WINDOW_SECONDS){
+                answers += bucket & 0xFFFFFFFFL;
+            }
+        }
+        return (double) answers / RATE_WINDOW_SECONDS;
+    }
+
+    @Override
+    public long getCsvRowsRead() {
+        return csvRowsRead.sum();
+    }
+
+    @Override
+    public long getCsvBytesRead() {
+        return csvBytesRead.sum();
+    }
+
+    @Override
+    public long getCsvRowsWritten() {
+        return csvRowsWritten.sum();
+    }
+
+    @Override
+    public long getCsvBytesWritten() {
+        return csvBytesWritten.sum();
+    }
+
+    @Override
+    public synchronized void reset() {
+        buildTeam.reset();
+        collectData.reset();
+        applyMatchingStrategies.reset();
+        sendFormedTeams.reset();
+        strategies.values().forEach(LatencyHistogram::reset);
+        formationRuns.reset();
+        participantsFormed.reset();
+        teamsFormed.reset();
+        lastBalance = new Balance(0, 0, 0, 0, 0);
+        surveySubmissions.reset();
+        surveyAnswers.reset();
+        validationFailures.reset();
+        csvRowsRead.reset();
+        csvBytesRead.reset();
+        csvRowsWritten.reset();
+        csvBytesWritten.reset();
+        for (int slot = 0; slot < answerBuckets.length(); slot++) {
+            answerBuckets.set(slot, 0);
+        }
+    }
+
+    /**
+     * Balance of the teams formed in one run, replaced as a whole after every run.
+     */
+    private static final class Balance {
+
+        /** Number of teams. */
+        private final int teamCount;
+
+        /** Size of the smallest team. */
+        private final int minTeamSize;
+
+        /** Size of the largest team. */
+        private final int maxTeamSize;
+
+        /** Highest minus lowest average team skill. */
+        private final double skillSpread;
+
+        /** Standard deviation of the average team skill. */
+        private final double skillStdDev;
+
+        /**
+         * Creates a balance record.
+         */
+        private Balance(int teamCount, int minTeamSize, int maxTeamSize, double skillSpread, double skillStdDev) {
+            this.teamCount = teamCount;
+            this.minTeamSize = minTeamSize;
+            this.maxTeamSize = maxTeamSize;
+            this.skillSpread = skillSpread;
+            this.skillStdDev = skillStdDev;
+        }
+
+        /**
+         * Measures the balance of formed teams in one pass.
+         *
+         * @param teams The formed teams.
+         * @return The balance.
+         */
+        private static Balance of(List<Team> teams) {
+            int minSize = Integer.MAX_VALUE;
+            int maxSize = 0;
+            double minAverage = Double.MAX_VALUE;
+            double maxAverage = 0;
+            double sum = 0;
+            double sumOfSquares = 0;
+            int counted = 0;
+            for (int i = 0; i < teams.size(); i++) {
+                List<Participant> members = teams.get(i).getParticipants();
+                int size = members.size();
+                minSize = Math.min(minSize, size);
+                maxSize = Math.max(maxSize, size);
+                if (size == 0){
+                    continue;
+                }
+                long skill = 0;
+                for (int j = 0; j < size; j++) {
+                    skill += members.get(j).getSkillLevel();
+                }
+                double average = (double) skill / size;
+                minAverage = Math.min(minAverage, average);
+                maxAverage = Math.max(maxAverage, average);
+                sum += average;
+                sumOfSquares += average * average;
+                counted++;
+            }
+            if (counted == 0){
+                return new Balance(teams.size(), teams.isEmpty() ? 0 : minSize, maxSize, 0, 0);
+            }
+            double mean = sum / counted;
+            double variance = Math.max(0, sumOfSquares / counted - mean * mean);
+            return new Balance(teams.size(), minSize, maxSize, maxAverage - minAverage, Math.sqrt(variance));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package TeamMateSystem;
+
+import java.util.Map;
+
+/**
+ * The {@code TeamMateMetricsMXBean} interface is the management view of {@link TeamMateMetrics},
+ * registered as {@code TeamMateSystem:type=Metrics}.
+ */
+public interface TeamMateMetricsMXBean {
+
+    /** @return Number of times teams were formed. */
+    long getFormationRuns();
+
+    /** @return Total participants placed into teams, over all runs. */
+    long getParticipantsFormed();
+
+    /** @return Total teams formed, over all runs. */
+    long getTeamsFormed();
+
+    /** @return Latency of whole {@code buildTeam} runs. */
+    LatencySummary getBuildTeamLatency();
+
+    /** @return Latency of the {@code collectData} phase. */
+    LatencySummary getCollectDataLatency();
+
+    /** @return Latency of the {@code applyMatchingStrategies} phase, over all strategies. */
+    LatencySummary getApplyMatchingStrategiesLatency();
+
+    /** @return Latency of the {@code sendFormedTeams} phase. */
+    LatencySummary getSendFormedTeamsLatency();
+
+    /** @return Latency of the {@code applyMatchingStrategies} phase, by team builder. */
+    Map<String, LatencySummary> getStrategyLatency();
+
+    /** @return Number of teams in the last run. */
+    int getLastTeamCount();
+
+    /** @return Size of the smallest team in the last run. */
+    int getLastMinTeamSize();
+
+    /** @return Size of the largest team in the last run. */
+    int getLastMaxTeamSize();
+
+    /** @return Difference between the highest and lowest average team skill in the last run. */
+    double getLastSkillSpread();
+
+    /** @return Standard deviation of the average team skill in the last run. */
+    double getLastSkillStdDev();
+
+    /** @return Number of complete survey submissions accepted. */
+    long getSurveySubmissions();
+
+    /** @return Number of survey answers accepted, one by one or in submissions. */
+    long getSurveyAnswers();
+
+    /** @return Number of answers or submissions rejected by validation. */
+    long getValidationFailures();
+
+    /**
+     * @return Survey answers accepted per second, averaged over the last
+     *         {@value TeamMateMetrics#RATE_WINDOW_SECONDS} full seconds. Reading it changes nothing,
+     *         so any number of clients can poll it.
+     */
+    double getAnswersPerSecond();
+
+    /** @return Number of participant rows read from CSV files. */
+    long getCsvRowsRead();
+
+    /** @return Number of bytes of CSV files read. */
+    long getCsvBytesRead();
+
+    /** @return Number of participant rows written to exported participant and team files. */
+    long getCsvRowsWritten();
+
+    /** @return Number of bytes written to exported participant and team files. */
+    long getCsvBytesWritten();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
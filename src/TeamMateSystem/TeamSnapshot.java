@@ -0,0 +1,340 @@
+package TeamMateSystem;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The {@code TeamSnapshot} class is one published version of the formed teams: the team
+ * list, the reverse index from participant to team, and summary statistics, all of which
+ * stay exactly as they were when the version was published.
+ *
+ * <p>Snapshots are published through a {@link TeamSnapshotHistory}. A reader takes the
+ * current snapshot once and answers everything from it, so it sees a consistent set of
+ * teams however often they change in the meantime. Two snapshots can be compared with
+ * {@link #diff(TeamSnapshot)}.</p>
+ */
+public class TeamSnapshot {
+
+    /** The snapshot before any teams are formed. */
+    public static final TeamSnapshot EMPTY = new TeamSnapshot(0, new TeamIndex(List.of()), 0, Stats.of(List.of()));
+
+    /** Version number; each published snapshot has a higher number than the one before. */
+    private final long version;
+
+    /** The teams and the reverse index over them. */
+    private final TeamIndex index;
+
+    /** The team size asked for at formation. */
+    private final int teamSize;
+
+    /** Summary statistics of the teams. */
+    private final Stats stats;
+
+    /** When the snapshot was created. */
+    private final Instant createdAt = Instant.now();
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param version  The version number.
+     * @param index    The teams and the reverse index over them.
+     * @param teamSize The team size asked for at formation.
+     * @param stats    Summary statistics of the teams.
+     */
+    TeamSnapshot(long version, TeamIndex index, int teamSize, Stats stats) {
+        this.version = version;
+        this.index = index;
+        this.teamSize = teamSize;
+        this.stats = stats;
+    }
+
+    /** @return The version number, {@code 0} before any teams are formed. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** @return The teams, as a read-only list. */
+    public List<Team> getTeams() {
+        return index.getTeams();
+    }
+
+    /** @return The reverse index from participant ID to team. */
+    public TeamIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the team a participant is in.
+     *
+     * @param participantId The participant's ID.
+     * @return The participant's team, or {@code null} if they are not in a team.
+     */
+    public Team teamOf(String participantId) {
+        return index.teamOf(participantId);
+    }
+
+    /** @return The team size asked for at formation. */
+    public int getTeamSize() {
+        return teamSize;
+    }
+
+    /** @return Summary statistics of the teams. */
+    public Stats getStats() {
+        return stats;
+    }
+
+    /** @return When the snapshot was created. */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Lists what changed between an older snapshot and this one.
+     *
+     * <p>Snapshots derived from each other by incremental changes share most of their data,
+     * and only the participants and teams that were touched are compared. After a full
+     * formation every participant is compared.</p>
+     *
+     * @param older The snapshot to compare with.
+     * @return The changes from {@code older} to this snapshot.
+     */
+    public Diff diff(TeamSnapshot older) {
+        Set<String> candidates = index.changedSince(older.index);
+        if (candidates == null){
+            candidates = new HashSet<>();
+            addMembers(candidates, older.index);
+            addMembers(candidates, index);
+        }
+        List<String> joined = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+        List<String> moved = new ArrayList<>();
+        for (String participantId: candidates){
+            Team before = older.teamOf(participantId);
+            Team after = teamOf(participantId);
+            if (before == null && after != null){
+                joined.add(participantId);
+            }
+            else if (before != null && after == null){
+                left.add(participantId);
+            }
+            else if (before != null && before.getId() != after.getId()){
+                moved.add(participantId);
+            }
+        }
+
+        Set<Integer> positions = index.changedTeamsSince(older.index);
+        int teams = Math.max(index.getTeamCount(), older.index.getTeamCount());
+        Set<Integer> changedTeams = new TreeSet<>();
+        for (int position = 0; position < teams; position++) {
+            if (positions != null && !positions.contains(position)){
+                continue;
+            }
+            Team before = position < older.index.getTeamCount() ? older.index.teamAt(position) : null;
+            Team after = position < index.getTeamCount() ? index.teamAt(position) : null;
+            if (before != after && (before == null || after == null || !before.getParticipants().equals(after.getParticipants()))){
+                changedTeams.add(after != null ? after.getId() : before.getId());
+            }
+        }
+        return new Diff(older.version, version, joined, left, moved, changedTeams);
+    }
+
+    /**
+     * Adds the ID of every participant in an index's teams to a set.
+     */
+    private static void addMembers(Set<String> ids, TeamIndex index) {
+        for (Team team: index.getTeams()){
+            for (Participant participant: team.getParticipants()){
+                ids.add(participant.getId());
+            }
+        }
+    }
+
+    /**
+     * Returns a short description of the snapshot.
+     *
+     * @return A string such as {@code "Version 3: 40 teams, 200 participants"}.
+     */
+    @Override
+    public String toString() {
+        return "Version " + version + ": " + stats.getTeamCount() + " teams, " + stats.getParticipantCount() + " participants";
+    }
+
+    /**
+     * Summary statistics of a set of teams.
+     */
+    public static class Stats {
+
+        /** Number of teams. */
+        private final int teamCount;
+
+        /** Number of participants in a team. */
+        private final int participantCount;
+
+        /** Members in the smallest team. */
+        private final int smallestTeam;
+
+        /** Members in the largest team. */
+        private final int largestTeam;
+
+        /** Sum of every member's skill level. */
+        private final long totalSkill;
+
+        /**
+         * Creates the statistics.
+         *
+         * @param teamCount        Number of teams.
+         * @param participantCount Number of participants in a team.
+         * @param smallestTeam     Members in the smallest team.
+         * @param largestTeam      Members in the largest team.
+         * @param totalSkill       Sum of every member's skill level.
+         */
+        public Stats(int teamCount, int participantCount, int smallestTeam, int largestTeam, long totalSkill) {
+            this.teamCount = teamCount;
+            this.participantCount = participantCount;
+            this.smallestTeam = smallestTeam;
+            this.largestTeam = largestTeam;
+            this.totalSkill = totalSkill;
+        }
+
+        /**
+         * Computes the statistics of a list of teams.
+         *
+         * @param teams The teams.
+         * @return Their statistics.
+         */
+        public static Stats of(List<Team> teams) {
+            int participants = 0;
+            int smallest = teams.isEmpty() ? 0 : Integer.MAX_VALUE;
+            int largest = 0;
+            long skill = 0;
+            for (Team team: teams){
+                List<Participant> members = team.getParticipants();
+                participants += members.size();
+                smallest = Math.min(smallest, members.size());
+                largest = Math.max(largest, members.size());
+                for (Participant participant: members){
+                    skill += participant.getSkillLevel();
+                }
+            }
+            return new Stats(teams.size(), participants, smallest, largest, skill);
+        }
+
+        /** @return The number of teams. */
+        public int getTeamCount() {
+            return teamCount;
+        }
+
+        /** @return The number of participants in a team. */
+        public int getParticipantCount() {
+            return participantCount;
+        }
+
+        /** @return The number of members in the smallest team. */
+        public int getSmallestTeam() {
+            return smallestTeam;
+        }
+
+        /** @return The number of members in the largest team. */
+        public int getLargestTeam() {
+            return largestTeam;
+        }
+
+        /** @return The average skill level per team, {@code 0} if there are no teams. */
+        public double getAverageTeamSkill() {
+            return teamCount == 0 ? 0 : (double) totalSkill / teamCount;
+        }
+
+        /** @return The sum of every member's skill level. */
+        public long getTotalSkill() {
+            return totalSkill;
+        }
+    }
+
+    /**
+     * The changes between two snapshots.
+     */
+    public static class Diff {
+
+        /** Version compared from. */
+        private final long fromVersion;
+
+        /** Version compared to. */
+        private final long toVersion;
+
+        /** Participants in a team only in the newer version. */
+        private final List<String> joined;
+
+        /** Participants in a team only in the older version. */
+        private final List<String> left;
+
+        /** Participants in a different team in each version. */
+        private final List<String> moved;
+
+        /** IDs of the teams whose members differ, in ascending order. */
+        private final Set<Integer> changedTeams;
+
+        /**
+         * Creates a diff.
+         */
+        private Diff(long fromVersion, long toVersion, List<String> joined, List<String> left, List<String> moved,
+                     Set<Integer> changedTeams) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+            this.joined = Collections.unmodifiableList(joined);
+            this.left = Collections.unmodifiableList(left);
+            this.moved = Collections.unmodifiableList(moved);
+            this.changedTeams = Collections.unmodifiableSet(changedTeams);
+        }
+
+        /** @return The version compared from. */
+        public long getFromVersion() {
+            return fromVersion;
+        }
+
+        /** @return The version compared to. */
+        public long getToVersion() {
+            return toVersion;
+        }
+
+        /** @return The participants in a team only in the newer version. */
+        public List<String> getJoined() {
+            return joined;
+        }
+
+        /** @return The participants in a team only in the older version. */
+        public List<String> getLeft() {
+            return left;
+        }
+
+        /** @return The participants in a different team in each version. */
+        public List<String> getMoved() {
+            return moved;
+        }
+
+        /** @return The IDs of the teams whose members differ, in ascending order. */
+        public Set<Integer> getChangedTeams() {
+            return changedTeams;
+        }
+
+        /** @return {@code true} if nothing changed. */
+        public boolean isEmpty() {
+            return joined.isEmpty() && left.isEmpty() && moved.isEmpty() && changedTeams.isEmpty();
+        }
+
+        /**
+         * Returns a short summary of the changes.
+         *
+         * @return A string such as {@code "Version 2 -> 3: 1 joined, 0 left, 1 moved, 2 teams changed"}.
+         */
+        @Override
+        public String toString() {
+            return "Version " + fromVersion + " -> " + toVersion + ": " + joined.size() + " joined, " + left.size()
+                    + " left, " + moved.size() + " moved, " + changedTeams.size() + " teams changed";
+        }
+    }
+}
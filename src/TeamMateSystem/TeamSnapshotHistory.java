@@ -0,0 +1,128 @@
+package TeamMateSystem;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code TeamSnapshotHistory} class publishes versions of the formed teams as
+ * {@link TeamSnapshot}s and keeps the most recent ones for comparison.
+ *
+ * <ul>
+ *     <li>The current snapshot sits behind a single volatile reference. Reading it never
+ *     waits, and a reader sees either the old or the new version, never a mix.</li>
+ *     <li>Publishing is serialized. A full formation replaces the current snapshot
+ *     outright; an incremental change only replaces the snapshot it was based on, so a
+ *     change computed against an older formation can never overwrite a newer one.</li>
+ *     <li>The last {@code capacity} versions stay available through {@link #version(long)}.
+ *     Versions derived incrementally share most of their data, so keeping them is cheap.</li>
+ * </ul>
+ */
+public class TeamSnapshotHistory {
+
+    /** Default number of versions kept. */
+    public static final int DEFAULT_CAPACITY = 8;
+
+    /** Number of versions kept. */
+    private final int capacity;
+
+    /** The current snapshot. */
+    private volatile TeamSnapshot current = TeamSnapshot.EMPTY;
+
+    /** The kept versions, oldest first; replaced as a whole on every publication. */
+    private volatile TeamSnapshot[] versions = {TeamSnapshot.EMPTY};
+
+    /**
+     * Creates a history that keeps the default number of versions.
+     */
+    public TeamSnapshotHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a history.
+     *
+     * @param capacity The number of versions kept, including the current one.
+     */
+    public TeamSnapshotHistory(int capacity) {
+        if (capacity <= 0){
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the current snapshot.
+     *
+     * @return The current snapshot, {@link TeamSnapshot#EMPTY} before any teams are formed.
+     */
+    public TeamSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Returns a kept version.
+     *
+     * @param version The version number.
+     * @return The snapshot, or {@code null} if the version is unknown or no longer kept.
+     */
+    public TeamSnapshot version(long version) {
+        for (TeamSnapshot snapshot: versions){
+            if (snapshot.getVersion() == version){
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns every kept version.
+     *
+     * @return The snapshots, oldest first.
+     */
+    public List<TeamSnapshot> versions() {
+        return List.of(versions);
+    }
+
+    /**
+     * Publishes newly formed teams, replacing whatever is current.
+     *
+     * @param teams    The formed teams.
+     * @param teamSize The team size asked for.
+     * @return The published snapshot.
+     */
+    public synchronized TeamSnapshot publish(List<Team> teams, int teamSize) {
+        return install(new TeamSnapshot(current.getVersion() + 1, new TeamIndex(teams), teamSize, TeamSnapshot.Stats.of(teams)));
+    }
+
+    /**
+     * Publishes an incremental change to a snapshot, unless another snapshot has been
+     * published since.
+     *
+     * @param base  The snapshot the change was made to.
+     * @param index The changed teams.
+     * @param stats Statistics of the changed teams.
+     * @return The published snapshot, or {@code null} if {@code base} is no longer current.
+     */
+    synchronized TeamSnapshot publish(TeamSnapshot base, TeamIndex index, TeamSnapshot.Stats stats) {
+        if (current != base){
+            return null;
+        }
+        return install(new TeamSnapshot(base.getVersion() + 1, index, base.getTeamSize(), stats));
+    }
+
+    /**
+     * Makes a snapshot current and adds it to the kept versions.
+     *
+     * @param snapshot The snapshot.
+     * @return The snapshot.
+     */
+    private TeamSnapshot install(TeamSnapshot snapshot) {
+        TeamSnapshot[] kept = versions;
+        int from = Math.max(0, kept.length + 1 - capacity);
+        TeamSnapshot[] next = Arrays.copyOfRange(kept, from, kept.length + 1);
+        next[next.length - 1] = snapshot;
+        versions = next;
+        current = snapshot;
+        return snapshot;
+    }
+}
@@ -77,7 +77,7 @@ public class UI {
             }
 
             while (organizer){
-                System.out.println("1. Upload CSV File\n2. Initiate Team Formation\n3. Save Formed Teams\n4. View Teams\n5. Logout\n6. Exit");
+                System.out.println("1. Upload CSV File\n2. Initiate Team Formation\n3. Save Formed Teams\n4. View Teams\n5. Export Participants\n6. Logout\n7. Exit");
                 System.out.print("Enter the command: ");
 
                 while (!scanner.hasNextInt()){
@@ -129,9 +129,14 @@ public class UI {
                         }
                     }
 
-                    case 5 -> organizer = false;
+                    case 5 -> {
+                        Message message = teamMateController.exportParticipants();
+                        System.out.println(message.getMessage());
+                    }
+
+                    case 6 -> organizer = false;
 
-                    case 6 -> {
+                    case 7 -> {
                         break outer;
                     }
 
@@ -141,5 +146,10 @@ public class UI {
         }
 
         scanner.close();
+
+        Message message = teamMateController.shutdown();
+        if (!message.isSuccess()){
+            System.out.println(message.getMessage());
+        }
     }
 }
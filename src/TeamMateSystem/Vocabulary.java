@@ -0,0 +1,139 @@
+package TeamMateSystem;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code Vocabulary} class maps the values of a participant attribute with few distinct
+ * values (games, roles, personality types) to small integer codes.
+ *
+ * <p>Participants keep only the codes, so a million participants share one string per
+ * value instead of holding millions of duplicates, and comparing two values is an integer
+ * compare. Values are turned back into strings only when they are shown or written out.</p>
+ *
+ * <ul>
+ *     <li>Code {@code 0} always stands for a missing ({@code null}) value.</li>
+ *     <li>A vocabulary starts with the values known up front, in a fixed order, so their
+ *     codes are the same in every run (see {@link EventVocabulary}).</li>
+ *     <li>Any other value (for example a game added for a particular event) is registered
+ *     the first time it is seen and keeps its code for the life of the vocabulary.</li>
+ *     <li>Values are matched ignoring case and surrounding spaces, so "Chess", "chess " and
+ *     "chess" share one code. A code decodes to the value's first registered spelling.</li>
+ * </ul>
+ *
+ * <p>Vocabularies are not shared across the process: each event owns its own through an
+ * {@link EventVocabulary}. Looking up a code never locks. Registering a new value locks
+ * only that vocabulary.</p>
+ */
+public class Vocabulary {
+
+    /** Largest number of distinct values, so codes fit in a {@code short}. */
+    public static final int MAX_VALUES = Short.MAX_VALUE;
+
+    /** What the values describe, used in error messages. */
+    private final String attribute;
+
+    /** Code of every registered value, by its {@link #key(String)}. */
+    private final ConcurrentHashMap<String, Short> codes = new ConcurrentHashMap<>();
+
+    /** Values by code; index 0 is {@code null}. Replaced as a whole when a value is added. */
+    private volatile String[] values;
+
+    /**
+     * Creates a vocabulary with its initial values.
+     *
+     * @param attribute What the values describe.
+     * @param initial   The values known up front, given codes 1, 2, ... in order.
+     */
+    public Vocabulary(String attribute, List<String> initial) {
+        this.attribute = attribute;
+        this.values = new String[]{null};
+        for (String value: initial){
+            register(value);
+        }
+    }
+
+    /**
+     * Returns the code of a value, registering the value if it is new.
+     *
+     * @param value The value.
+     * @return The code, {@code 0} for {@code null}.
+     * @throws IllegalStateException If the vocabulary is full.
+     */
+    public int register(String value) {
+        if (value == null){
+            return 0;
+        }
+        Short code = codes.get(key(value));
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * Returns the code of a value without registering it.
+     *
+     * @param value The value.
+     * @return The code, {@code 0} for {@code null}, or {@code -1} if the value is not registered.
+     */
+    public int codeOf(String value) {
+        if (value == null){
+            return 0;
+        }
+        Short code = codes.get(key(value));
+        return code != null ? code : -1;
+    }
+
+    /**
+     * Returns the canonical value of a code.
+     *
+     * @param code The code.
+     * @return The value, {@code null} for code {@code 0}.
+     */
+    public String value(int code) {
+        return values[code];
+    }
+
+    /**
+     * Returns the number of codes in use, including code {@code 0}.
+     *
+     * @return The number of codes.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the form of a value that values are matched by.
+     *
+     * @param value The value.
+     * @return The value without surrounding spaces, in lower case.
+     */
+    private static String key(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a new value with the next free code.
+     *
+     * @param value The value.
+     * @return The value's code.
+     */
+    private synchronized int add(String value) {
+        String key = key(value);
+        Short existing = codes.get(key);
+        if (existing != null){
+            return existing;
+        }
+        String[] current = values;
+        if (current.length > MAX_VALUES){
+            throw new IllegalStateException("Too many distinct " + attribute + " values: " + value);
+        }
+        String[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = value.strip();
+        // Publish the value before the code, so a code read by another thread can always be decoded
+        values = next;
+        codes.put(key, (short) current.length);
+        return current.length;
+    }
+}